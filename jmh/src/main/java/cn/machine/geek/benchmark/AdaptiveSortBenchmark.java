@@ -0,0 +1,62 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.MergeSort;
+import cn.machine.geek.algorithm.sort.TimSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 自适应排序基准，在有序、逆序、锯齿和随机数据上对比TimSort和MergeSort。
+ * 插入排序在QuadraticSortBenchmark中，规模不超过50K。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdaptiveSortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"sorted", "reversed", "sawtooth", "random"})
+    private String order;
+    private Integer[] integers;
+    private Integer[] elements;
+
+    @Setup
+    public void setup() {
+        integers = BenchmarkData.ordered(order, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        elements = integers.clone();
+    }
+
+    @Benchmark
+    public Integer[] timSort() {
+        new TimSort<Integer>().sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+
+    @Benchmark
+    public Integer[] mergeSort() {
+        new MergeSort<Integer>().sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+}
@@ -0,0 +1,138 @@
+package cn.machine.geek.benchmark;
+
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 基准测试数据，固定随机种子，每次运行的数据都相同，方便对比不同版本的结果。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+final class BenchmarkData {
+    static final long SEED = 794763733L;
+    static final Comparator<Integer> COMPARATOR = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            return Integer.compare(o1, o2);
+        }
+    };
+    static final Comparator<Integer> REVERSED = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            return Integer.compare(o2, o1);
+        }
+    };
+    private static final String[] PATH_SEGMENTS = {"users", "orders", "items", "search", "images", "static", "reports", "settings"};
+
+    private BenchmarkData() {
+    }
+
+    static Integer[] randomIntegers(int size, int bound) {
+        Random random = new Random(SEED);
+        Integer[] integers = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            integers[i] = random.nextInt(bound);
+        }
+        return integers;
+    }
+
+    static int[] randomInts(int size, int bound) {
+        Random random = new Random(SEED);
+        int[] ints = new int[size];
+        for (int i = 0; i < size; i++) {
+            ints[i] = random.nextInt(bound);
+        }
+        return ints;
+    }
+
+    static long[] randomLongs(int size) {
+        Random random = new Random(SEED);
+        long[] longs = new long[size];
+        for (int i = 0; i < size; i++) {
+            longs[i] = random.nextLong();
+        }
+        return longs;
+    }
+
+    static double[] randomDoubles(int size) {
+        Random random = new Random(SEED);
+        double[] doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            doubles[i] = random.nextDouble();
+        }
+        return doubles;
+    }
+
+    static String randomText(int size, long seed) {
+        Random random = new Random(seed);
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    static String[] randomWords(int size) {
+        Random random = new Random(SEED);
+        String[] words = new String[size];
+        char[] chars = new char[12];
+        for (int i = 0; i < size; i++) {
+            int length = 4 + random.nextInt(chars.length - 4);
+            for (int j = 0; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars, 0, length);
+        }
+        return words;
+    }
+
+    /**
+     * @param size
+     * @Author: MachineGeek
+     * @Description: 有长公共前缀的URL路径
+     * @Date: 2021/3/20
+     * @Return: java.lang.String[]
+     */
+    static String[] randomPaths(int size) {
+        Random random = new Random(SEED);
+        String[] paths = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder builder = new StringBuilder("https://example.com/api/v1");
+            int depth = 2 + random.nextInt(4);
+            for (int j = 0; j < depth; j++) {
+                builder.append('/').append(PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+            }
+            paths[i] = builder.append('/').append(i).toString();
+        }
+        return paths;
+    }
+
+    /**
+     * @param order
+     * @param size
+     * @Author: MachineGeek
+     * @Description: 按名称生成不同分布的数据：sorted、reversed、sawtooth（每1000个一段升序）、fewUnique（只有4种取值）、random
+     * @Date: 2021/3/12
+     * @Return: java.lang.Integer[]
+     */
+    static Integer[] ordered(String order, int size) {
+        Integer[] integers;
+        switch (order) {
+            case "sorted":
+            case "reversed":
+            case "sawtooth":
+                integers = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    integers[i] = "sorted".equals(order) ? i : "reversed".equals(order) ? size - i : i % 1000;
+                }
+                return integers;
+            case "fewUnique":
+                return randomIntegers(size, 4);
+            case "random":
+                return randomIntegers(size, size);
+            default:
+                throw new RuntimeException("Unknown order: " + order);
+        }
+    }
+}
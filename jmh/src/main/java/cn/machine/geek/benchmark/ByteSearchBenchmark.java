@@ -0,0 +1,102 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.search.KMP;
+import cn.machine.geek.algorithm.search.KmpPattern;
+import cn.machine.geek.algorithm.search.SwarSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 字节缓冲区子串搜索基准，size是文本的字节数，文本中不包含模式串，size除以每次调用的时间就是吞吐量
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteSearchBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private String text;
+    private byte[] bytes;
+    private String pattern;
+    private KmpPattern kmpPattern;
+    private SwarSearch swarSearch;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        text = BenchmarkData.randomText(size, BenchmarkData.SEED);
+        bytes = text.getBytes(StandardCharsets.UTF_8);
+        pattern = BenchmarkData.randomText(16, BenchmarkData.SEED + 16);
+        kmpPattern = new KmpPattern(pattern);
+        swarSearch = new SwarSearch(pattern);
+        heap = ByteBuffer.wrap(bytes);
+        direct = ByteBuffer.allocateDirect(size);
+        direct.put(bytes);
+        file = File.createTempFile("benchmark", ".log");
+        try (FileOutputStream stream = new FileOutputStream(file)) {
+            stream.write(bytes);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int kmp() {
+        return KMP.indexOf(text, pattern);
+    }
+
+    @Benchmark
+    public int kmpPattern() {
+        return kmpPattern.indexOf(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public int swarSearchHeap() {
+        return swarSearch.indexOf(heap, 0, heap.limit());
+    }
+
+    @Benchmark
+    public int swarSearchDirect() {
+        return swarSearch.indexOf(direct, 0, direct.limit());
+    }
+
+    @Benchmark
+    public void swarSearchMapped(final Blackhole blackhole) {
+        swarSearch.search(file, new SwarSearch.Visitor() {
+            @Override
+            protected boolean operate(long[] offsets, int count) {
+                blackhole.consume(count);
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.heap.BinaryHeap;
+import cn.machine.geek.structure.list.ArrayList;
+import cn.machine.geek.structure.queue.CircleQueue;
+import cn.machine.geek.structure.queue.LinkedQueue;
+import cn.machine.geek.structure.queue.PriorityQueue;
+import cn.machine.geek.structure.stack.Stack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 堆、队列、列表和栈的基准，每次调用放入size个元素再全部取出。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public BinaryHeap<Integer> binaryHeapAddRemove() {
+        BinaryHeap<Integer> heap = new BinaryHeap<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            heap.add(key);
+        }
+        while (!heap.isEmpty()) {
+            heap.remove();
+        }
+        return heap;
+    }
+
+    @Benchmark
+    public BinaryHeap<Integer> binaryHeapHeapify() {
+        return new BinaryHeap<>(keys, BenchmarkData.COMPARATOR);
+    }
+
+    @Benchmark
+    public PriorityQueue<Integer> priorityQueueEnQueueDeQueue() {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            queue.enQueue(key);
+        }
+        while (!queue.isEmpty()) {
+            queue.deQueue();
+        }
+        return queue;
+    }
+
+    @Benchmark
+    public CircleQueue<Integer> circleQueueEnqueueDequeue() {
+        CircleQueue<Integer> queue = new CircleQueue<>();
+        for (Integer key : keys) {
+            queue.enqueue(key);
+        }
+        while (!queue.isEmpty()) {
+            queue.dequeue();
+        }
+        return queue;
+    }
+
+    @Benchmark
+    public LinkedQueue<Integer> linkedQueueEnqueueDequeue() {
+        LinkedQueue<Integer> queue = new LinkedQueue<>();
+        for (Integer key : keys) {
+            queue.enqueue(key);
+        }
+        while (!queue.isEmpty()) {
+            queue.dequeue();
+        }
+        return queue;
+    }
+
+    @Benchmark
+    public ArrayList<Integer> arrayListAdd() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (Integer key : keys) {
+            list.add(key);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Stack<Integer> stackPushPop() {
+        Stack<Integer> stack = new Stack<>();
+        for (Integer key : keys) {
+            stack.push(key);
+        }
+        while (!stack.isEmpty()) {
+            stack.pop();
+        }
+        return stack;
+    }
+}
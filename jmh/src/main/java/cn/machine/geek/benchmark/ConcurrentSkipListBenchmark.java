@@ -0,0 +1,74 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.skiplist.ConcurrentSkipList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并发跳表混合读写基准，每次调用做一个随机操作，KEY在[0, size)中随机。
+ * 预先放入一半的KEY，写操作一半放入一半删除，元素个数大致不变。线程数可以用-t修改。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/22
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentSkipListBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"90", "50", "10"})
+    private int readPercent;
+    private ConcurrentSkipList<Integer, Integer> list;
+    private ConcurrentSkipListMap<Integer, Integer> map;
+
+    @Setup
+    public void setup() {
+        list = new ConcurrentSkipList<>(BenchmarkData.COMPARATOR);
+        map = new ConcurrentSkipListMap<>(BenchmarkData.COMPARATOR);
+        for (int i = 0; i < size; i += 2) {
+            list.put(i, i);
+            map.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer concurrentSkipList() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int percent = random.nextInt(100);
+        int key = random.nextInt(size);
+        if (percent < readPercent) {
+            return list.get(key);
+        }
+        return (percent & 1) == 0 ? list.put(key, key) : list.remove(key);
+    }
+
+    @Benchmark
+    public Integer concurrentSkipListMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int percent = random.nextInt(100);
+        int key = random.nextInt(size);
+        if (percent < readPercent) {
+            return map.get(key);
+        }
+        return (percent & 1) == 0 ? map.put(key, key) : map.remove(key);
+    }
+}
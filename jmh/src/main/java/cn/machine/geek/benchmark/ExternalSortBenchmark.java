@@ -0,0 +1,76 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.ExternalSort;
+import cn.machine.geek.util.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 外部排序基准，内存预算设为数据量的1/8，强制生成多个片段
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExternalSortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"false", "true"})
+    private boolean compress;
+    private File input;
+    private File output;
+    private long budget;
+
+    @Setup
+    public void setup() throws IOException {
+        input = File.createTempFile("benchmark", ".records");
+        output = File.createTempFile("benchmark", ".sorted");
+        try (ExternalSort.RecordWriter<Long> writer = new ExternalSort.RecordWriter<>(input, Serializer.LONG, false)) {
+            for (long element : BenchmarkData.randomLongs(size)) {
+                writer.write(element);
+            }
+        }
+        budget = Math.max(1, input.length() / 8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        input.delete();
+        output.delete();
+    }
+
+    @Benchmark
+    public long externalSort() {
+        ExternalSort<Long> sort = new ExternalSort<>(Serializer.LONG, new Comparator<Long>() {
+            @Override
+            public int compare(Long o1, Long o2) {
+                return o1.compareTo(o2);
+            }
+        });
+        sort.setMemoryBudget(budget);
+        sort.setParallelism(Runtime.getRuntime().availableProcessors());
+        sort.setCompress(compress);
+        sort.sort(input, output);
+        return output.length();
+    }
+}
@@ -0,0 +1,55 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.map.HashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 单次put延迟分布，对比一次性扩容与渐进式扩容。每次调用放入一个KEY，
+ * 放满size个之后换一个空的哈希表，结果中的p99、p99.99和最大值就是扩容造成的停顿。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashMapLatencyBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"false", "true"})
+    private boolean incremental;
+    private Integer[] keys;
+    private HashMap<Integer, Integer> map;
+    private int index;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+        map = new HashMap<>(incremental);
+    }
+
+    @Benchmark
+    public Integer put() {
+        if (index == keys.length) {
+            map = new HashMap<>(incremental);
+            index = 0;
+        }
+        Integer key = keys[index++];
+        return map.put(key, key);
+    }
+}
@@ -0,0 +1,209 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.map.ConcurrentHashMap;
+import cn.machine.geek.structure.map.HashMap;
+import cn.machine.geek.structure.map.HybridHashMap;
+import cn.machine.geek.structure.map.TreeMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.StreamSupport;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 哈希表和有序表基准，每次调用放入或查询size个随机KEY。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Integer[] keys;
+    private Integer[] results;
+    private HashMap<Integer, Integer> hashMap;
+    private HybridHashMap<Integer, Integer> hybridHashMap;
+    private TreeMap<Integer, Integer> treeMap;
+    private ConcurrentHashMap<Integer, Integer> concurrentHashMap;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前重新放入所有KEY的哈希表，用于删除基准。
+     * @Date: 2021/3/1
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+        private HashMap<Integer, Integer> map;
+
+        @Setup(Level.Invocation)
+        public void fill(MapBenchmark benchmark) {
+            map = new HashMap<>();
+            map.putAll(benchmark.keys, benchmark.keys);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+        results = new Integer[size];
+        hashMap = new HashMap<>();
+        hybridHashMap = new HybridHashMap<>();
+        treeMap = new TreeMap<>();
+        concurrentHashMap = new ConcurrentHashMap<>();
+        for (Integer key : keys) {
+            hashMap.put(key, key);
+            hybridHashMap.put(key, key);
+            treeMap.put(key, key);
+            concurrentHashMap.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapPut() {
+        HashMap<Integer, Integer> map = new HashMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void hashMapGet(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(hashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapRemove(Filled filled) {
+        for (Integer key : keys) {
+            filled.map.remove(key);
+        }
+        return filled.map;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> hashMapPutAll() {
+        HashMap<Integer, Integer> map = new HashMap<>();
+        map.putAll(keys, keys);
+        return map;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 和getAll一样把结果写入数组的逐个get，作为getAll的对照
+     * @Date: 2021/3/7
+     * @Return: java.lang.Integer[]
+     */
+    @Benchmark
+    public Integer[] hashMapGetResults() {
+        for (int i = 0; i < keys.length; i++) {
+            results[i] = hashMap.get(keys[i]);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public Integer[] hashMapGetAll() {
+        hashMap.getAll(keys, results);
+        return results;
+    }
+
+    @Benchmark
+    public HybridHashMap<Integer, Integer> hybridHashMapPut() {
+        HybridHashMap<Integer, Integer> map = new HybridHashMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void hybridHashMapGet(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(hybridHashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public ConcurrentHashMap<Integer, Integer> concurrentHashMapPut() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void concurrentHashMapGet(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(concurrentHashMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public TreeMap<Integer, Integer> treeMapPut() {
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void treeMapGet(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(treeMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void treeMapTraversal(final Blackhole blackhole) {
+        treeMap.traversal(new TreeMap.Visitor<Integer, Integer>() {
+            @Override
+            protected boolean operate(Integer key, Integer value) {
+                blackhole.consume(value);
+                return false;
+            }
+        });
+    }
+
+    @Benchmark
+    public void treeMapCursor(Blackhole blackhole) {
+        TreeMap<Integer, Integer>.Cursor cursor = treeMap.cursor();
+        while (cursor.next()) {
+            blackhole.consume(cursor.value());
+        }
+    }
+
+    @Benchmark
+    public long treeMapParallelSpliterator() {
+        return StreamSupport.stream(treeMap.spliterator(), true).mapToLong(new ToLongFunction<Map.Entry<Integer, Integer>>() {
+            @Override
+            public long applyAsLong(Map.Entry<Integer, Integer> entry) {
+                return entry.getValue();
+            }
+        }).sum();
+    }
+}
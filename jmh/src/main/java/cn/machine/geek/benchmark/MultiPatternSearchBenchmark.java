@@ -0,0 +1,70 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.search.AhoCorasick;
+import cn.machine.geek.algorithm.search.KMP;
+import cn.machine.geek.structure.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 多模式串匹配基准，PATTERN_COUNT个随机单词在长度为size的随机文本中查找，KMP每个单词扫描一遍文本，AC自动机只扫描一遍
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiPatternSearchBenchmark {
+    private static final int PATTERN_COUNT = 32;
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private String text;
+    private String[] patterns;
+    private AhoCorasick<Integer> ahoCorasick;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkData.randomText(size, BenchmarkData.SEED);
+        patterns = new String[PATTERN_COUNT];
+        Trie<Integer> trie = new Trie<>();
+        for (int i = 0; i < PATTERN_COUNT; i++) {
+            patterns[i] = BenchmarkData.randomText(8, BenchmarkData.SEED + i + 1);
+            trie.add(patterns[i], i);
+        }
+        ahoCorasick = new AhoCorasick<>(trie);
+    }
+
+    @Benchmark
+    public void kmp(Blackhole blackhole) {
+        for (String pattern : patterns) {
+            blackhole.consume(KMP.indexOf(text, pattern));
+        }
+    }
+
+    @Benchmark
+    public void ahoCorasick(final Blackhole blackhole) {
+        ahoCorasick.search(text, new AhoCorasick.Visitor<Integer>() {
+            @Override
+            protected boolean operate(long start, String key, Integer value) {
+                blackhole.consume(start);
+                return false;
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.ParallelMergeSort;
+import cn.machine.geek.algorithm.sort.ParallelQuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并行排序在不同线程数下的扩展性基准
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/9
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelSortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"1", "2", "4", "8", "16", "32"})
+    private int threads;
+    private Integer[] integers;
+    private Integer[] elements;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        integers = BenchmarkData.randomIntegers(size, size);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        elements = integers.clone();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Integer[] parallelMergeSort() {
+        new ParallelMergeSort<Integer>(pool).sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+
+    @Benchmark
+    public Integer[] parallelQuickSort() {
+        new ParallelQuickSort<Integer>(pool).sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+}
@@ -0,0 +1,79 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.search.HorspoolPattern;
+import cn.machine.geek.algorithm.search.KMP;
+import cn.machine.geek.algorithm.search.KmpPattern;
+import cn.machine.geek.algorithm.search.TwoWayPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 单模式串搜索基准，文本中不包含模式串，每个实现都要扫描整个文本
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternSearchBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    @Param({"3", "16", "512"})
+    private int length;
+    private String text;
+    private char[] chars;
+    private String pattern;
+    private KmpPattern kmpPattern;
+    private HorspoolPattern horspoolPattern;
+    private TwoWayPattern twoWayPattern;
+
+    @Setup
+    public void setup() {
+        text = BenchmarkData.randomText(size, BenchmarkData.SEED);
+        chars = text.toCharArray();
+        pattern = BenchmarkData.randomText(length, BenchmarkData.SEED + length);
+        kmpPattern = new KmpPattern(pattern);
+        horspoolPattern = new HorspoolPattern(pattern);
+        twoWayPattern = new TwoWayPattern(pattern);
+    }
+
+    @Benchmark
+    public int kmp() {
+        return KMP.indexOf(text, pattern);
+    }
+
+    @Benchmark
+    public int kmpPattern() {
+        return kmpPattern.indexOf(chars, 0, chars.length);
+    }
+
+    @Benchmark
+    public int horspoolPattern() {
+        return horspoolPattern.indexOf(chars, 0, chars.length);
+    }
+
+    @Benchmark
+    public int twoWayPattern() {
+        return twoWayPattern.indexOf(chars, 0, chars.length);
+    }
+
+    @Benchmark
+    public int stringIndexOf() {
+        return text.indexOf(pattern);
+    }
+}
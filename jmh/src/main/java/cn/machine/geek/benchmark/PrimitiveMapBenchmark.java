@@ -0,0 +1,99 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.map.IntIntHashMap;
+import cn.machine.geek.structure.map.LongObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 基本类型哈希表基准，与MapBenchmark中的HashMap对比。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveMapBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private int[] keys;
+    private IntIntHashMap map;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前重新放入所有KEY的哈希表，用于删除基准。
+     * @Date: 2021/3/2
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+        private IntIntHashMap map;
+
+        @Setup(Level.Invocation)
+        public void fill(PrimitiveMapBenchmark benchmark) {
+            map = new IntIntHashMap();
+            for (int key : benchmark.keys) {
+                map.put(key, key);
+            }
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomInts(size, Integer.MAX_VALUE);
+        map = new IntIntHashMap();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public IntIntHashMap intIntHashMapPut() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void intIntHashMapGet(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(map.get(key));
+        }
+    }
+
+    @Benchmark
+    public IntIntHashMap intIntHashMapRemove(Filled filled) {
+        for (int key : keys) {
+            filled.map.remove(key);
+        }
+        return filled.map;
+    }
+
+    @Benchmark
+    public LongObjectHashMap<Object> longObjectHashMapPut() {
+        LongObjectHashMap<Object> map = new LongObjectHashMap<>();
+        for (int key : keys) {
+            map.put(key, keys);
+        }
+        return map;
+    }
+}
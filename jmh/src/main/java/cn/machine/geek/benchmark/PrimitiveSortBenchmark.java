@@ -0,0 +1,166 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.BucketSort;
+import cn.machine.geek.algorithm.sort.CountSort;
+import cn.machine.geek.algorithm.sort.RadixSort;
+import cn.machine.geek.algorithm.sort.SortingNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 基本类型数组排序基准，与Arrays.sort对比。blocks16把数组分成16个一段分别排序，测排序网络这样的小区间内核。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private int[] ints;
+    private int[] smallInts;
+    private long[] longs;
+    private double[] doubles;
+    private RadixSort radixSort = new RadixSort();
+    private CountSort countSort = new CountSort();
+    private BucketSort bucketSort = new BucketSort();
+    private SortingNetwork sortingNetwork = new SortingNetwork();
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前复制一份int范围内的随机数
+     * @Date: 2021/3/10
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class Ints {
+        private int[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(PrimitiveSortBenchmark benchmark) {
+            elements = benchmark.ints.clone();
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前复制一份[0, size)之间的随机数，用于计数排序
+     * @Date: 2021/3/10
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class SmallInts {
+        private int[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(PrimitiveSortBenchmark benchmark) {
+            elements = benchmark.smallInts.clone();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Longs {
+        private long[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(PrimitiveSortBenchmark benchmark) {
+            elements = benchmark.longs.clone();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Doubles {
+        private double[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(PrimitiveSortBenchmark benchmark) {
+            elements = benchmark.doubles.clone();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        ints = BenchmarkData.randomInts(size, Integer.MAX_VALUE);
+        smallInts = BenchmarkData.randomInts(size, size);
+        longs = BenchmarkData.randomLongs(size);
+        doubles = BenchmarkData.randomDoubles(size);
+    }
+
+    @Benchmark
+    public int[] radixSortInts(Ints elements) {
+        radixSort.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public long[] radixSortLongs(Longs elements) {
+        radixSort.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public double[] radixSortDoubles(Doubles elements) {
+        radixSort.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public int[] countSortInts(SmallInts elements) {
+        countSort.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public double[] bucketSortDoubles(Doubles elements) {
+        bucketSort.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public int[] arraysSortInts(Ints elements) {
+        Arrays.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public double[] arraysSortDoubles(Doubles elements) {
+        Arrays.sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public int[] sortingNetworkBlocks16(Ints elements) {
+        int[] array = elements.elements;
+        for (int i = 0; i + 16 <= array.length; i += 16) {
+            sortingNetwork.sort(array, i, i + 16);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysSortBlocks16(Ints elements) {
+        int[] array = elements.elements;
+        for (int i = 0; i + 16 <= array.length; i += 16) {
+            Arrays.sort(array, i, i + 16);
+        }
+        return array;
+    }
+}
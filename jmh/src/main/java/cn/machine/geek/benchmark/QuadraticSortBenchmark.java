@@ -0,0 +1,68 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.BubbleSort;
+import cn.machine.geek.algorithm.sort.InsertionSort;
+import cn.machine.geek.algorithm.sort.SelectionSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: O(n^2)排序基准，规模超过50K时一次排序就要几十秒，所以只测到50K。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadraticSortBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int size;
+    @Param({"sorted", "reversed", "sawtooth", "random"})
+    private String order;
+    private Integer[] integers;
+    private Integer[] elements;
+
+    @Setup
+    public void setup() {
+        integers = BenchmarkData.ordered(order, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        elements = integers.clone();
+    }
+
+    @Benchmark
+    public Integer[] bubbleSort() {
+        new BubbleSort<Integer>().sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+
+    @Benchmark
+    public Integer[] selectionSort() {
+        new SelectionSort<Integer>().sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+
+    @Benchmark
+    public Integer[] insertionSort() {
+        new InsertionSort<Integer>().sort(elements, BenchmarkData.COMPARATOR);
+        return elements;
+    }
+}
@@ -0,0 +1,101 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.search.BinarySearch;
+import cn.machine.geek.algorithm.search.EytzingerSearch;
+import cn.machine.geek.algorithm.search.PrimitiveBinarySearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 有序数组搜索基准，每个实现都查询size个随机KEY，和通用版本的BinarySearch、Arrays.binarySearch对比
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private int[] sorted;
+    private int[] keys;
+    private Integer[] boxed;
+    private Integer[] boxedKeys;
+    private BinarySearch<Integer> binarySearch = new BinarySearch<>();
+    private PrimitiveBinarySearch primitiveBinarySearch = new PrimitiveBinarySearch();
+    private EytzingerSearch eytzingerSearch;
+
+    @Setup
+    public void setup() {
+        sorted = BenchmarkData.randomInts(size, Integer.MAX_VALUE);
+        Arrays.sort(sorted);
+        // 查询的KEY就是数组中的元素，每次都能找到
+        keys = BenchmarkData.randomInts(size, Integer.MAX_VALUE);
+        boxed = new Integer[size];
+        boxedKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = sorted[i];
+            boxedKeys[i] = keys[i];
+        }
+        eytzingerSearch = new EytzingerSearch(sorted);
+    }
+
+    @Benchmark
+    public void binarySearch(Blackhole blackhole) {
+        for (Integer key : boxedKeys) {
+            blackhole.consume(binarySearch.search(boxed, key, BenchmarkData.COMPARATOR));
+        }
+    }
+
+    @Benchmark
+    public void binarySearchLowerBound(Blackhole blackhole) {
+        for (Integer key : boxedKeys) {
+            blackhole.consume(binarySearch.lowerBound(boxed, key, BenchmarkData.COMPARATOR));
+        }
+    }
+
+    @Benchmark
+    public void primitiveLowerBound(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(primitiveBinarySearch.lowerBound(sorted, key));
+        }
+    }
+
+    @Benchmark
+    public void primitiveInterpolationLowerBound(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(primitiveBinarySearch.interpolationLowerBound(sorted, key));
+        }
+    }
+
+    @Benchmark
+    public void arraysBinarySearch(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(Arrays.binarySearch(sorted, key));
+        }
+    }
+
+    @Benchmark
+    public void eytzingerLowerBound(Blackhole blackhole) {
+        for (int key : keys) {
+            blackhole.consume(eytzingerSearch.lowerBound(key));
+        }
+    }
+}
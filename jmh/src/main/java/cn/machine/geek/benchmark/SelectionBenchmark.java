@@ -0,0 +1,76 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.PdqSort;
+import cn.machine.geek.algorithm.sort.QuickSelect;
+import cn.machine.geek.structure.heap.TopK;
+import cn.machine.geek.structure.list.ArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 取最大的TOP_K个元素：快速选择、部分排序、流式TopK与完整排序对比
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+    private static final int TOP_K = 100;
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private int k;
+    private Integer[] integers;
+    private Integer[] elements;
+
+    @Setup
+    public void setup() {
+        integers = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+        k = Math.min(TOP_K, size);
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+        elements = integers.clone();
+    }
+
+    @Benchmark
+    public Integer quickSelect() {
+        return new QuickSelect<Integer>().select(elements, k - 1, BenchmarkData.REVERSED);
+    }
+
+    @Benchmark
+    public Integer[] quickSelectPartialSort() {
+        new QuickSelect<Integer>().partialSort(elements, k, BenchmarkData.REVERSED);
+        return elements;
+    }
+
+    @Benchmark
+    public ArrayList<Integer> topK() {
+        TopK<Integer> topK = new TopK<>(k, BenchmarkData.COMPARATOR);
+        topK.offerAll(elements);
+        return topK.result();
+    }
+
+    @Benchmark
+    public Integer[] pdqSort() {
+        new PdqSort<Integer>().sort(elements, BenchmarkData.REVERSED);
+        return elements;
+    }
+}
@@ -0,0 +1,120 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.skiplist.LongLongSkipList;
+import cn.machine.geek.structure.skiplist.SkipList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 跳表基准，每次调用放入或查询size个KEY。内存占用在SkipListFootprintBenchmark中。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/23
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipListBenchmark {
+    // 区间查询每次取的元素个数
+    private static final int RANGE_LENGTH = 100;
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Integer[] keys;
+    private long[] longs;
+    private SkipList<Integer, Integer> list;
+    private LongLongSkipList primitiveList;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+        list = new SkipList<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            list.put(key, key);
+        }
+        longs = BenchmarkData.randomLongs(size);
+        primitiveList = new LongLongSkipList(size);
+        for (long key : longs) {
+            primitiveList.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public SkipList<Integer, Integer> skipListPut() {
+        SkipList<Integer, Integer> list = new SkipList<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            list.put(key, key);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void skipListGet(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(list.get(key));
+        }
+    }
+
+    @Benchmark
+    public void skipListRank(Blackhole blackhole) {
+        for (Integer key : keys) {
+            blackhole.consume(list.rank(key));
+        }
+    }
+
+    @Benchmark
+    public void skipListSelect(Blackhole blackhole) {
+        for (int i = 0, n = list.size(); i < keys.length; i++) {
+            blackhole.consume(list.select((int) ((i * 2654435761L) % n)));
+        }
+    }
+
+    /**
+     * @param blackhole
+     * @Author: MachineGeek
+     * @Description: 每次按下标取连续的RANGE_LENGTH个元素，一共访问size个元素
+     * @Date: 2021/3/23
+     * @Return: void
+     */
+    @Benchmark
+    public void skipListCursorRange(Blackhole blackhole) {
+        int n = list.size();
+        for (int i = 0; i < keys.length; i += RANGE_LENGTH) {
+            int from = (int) ((i * 2654435761L) % Math.max(1, n - RANGE_LENGTH));
+            SkipList<Integer, Integer>.Cursor cursor = list.cursor(from, Math.min(n, from + RANGE_LENGTH));
+            while (cursor.next()) {
+                blackhole.consume(cursor.value());
+            }
+        }
+    }
+
+    @Benchmark
+    public LongLongSkipList longLongSkipListPut() {
+        LongLongSkipList list = new LongLongSkipList();
+        for (long key : longs) {
+            list.put(key, key);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public void longLongSkipListGet(Blackhole blackhole) {
+        for (long key : longs) {
+            blackhole.consume(primitiveList.get(key));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.skiplist.LongLongSkipList;
+import cn.machine.geek.structure.skiplist.SkipList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 跳表内存占用基准，对比SkipList<Long, Long>和LongLongSkipList构建完成后保留的堆内存。
+ * 构建前后各做几次GC，已用堆的差值就是跳表本身的大小，put过程中的临时数组不计入。
+ * 结果看辅助计数器bytes和bytesPerMillion（每百万个元素的字节数），时间分数包含GC，没有意义。
+ * 每次测量只构建一次，JMH会把多次迭代的计数器相加，所以测量迭代固定为1次。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/23
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(1)
+public class SkipListFootprintBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private long[] keys;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 保留的字节数，作为辅助计数器输出到结果中
+     * @Date: 2021/3/23
+     * @Return:
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytes;
+        public double bytesPerMillion;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            bytes = 0;
+            bytesPerMillion = 0;
+        }
+
+        private void record(long bytes, int size) {
+            this.bytes = bytes;
+            this.bytesPerMillion = bytes * 1e6 / size;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomLongs(size);
+    }
+
+    @Benchmark
+    public SkipList<Long, Long> skipList(Footprint footprint) {
+        long before = usedMemory();
+        SkipList<Long, Long> list = new SkipList<>();
+        for (long key : keys) {
+            list.put(key, key);
+        }
+        footprint.record(usedMemory() - before, size);
+        return list;
+    }
+
+    @Benchmark
+    public LongLongSkipList longLongSkipList(Footprint footprint) {
+        long before = usedMemory();
+        LongLongSkipList list = new LongLongSkipList(size);
+        for (long key : keys) {
+            list.put(key, key);
+        }
+        footprint.record(usedMemory() - before, size);
+        return list;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,163 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.algorithm.sort.BucketSort;
+import cn.machine.geek.algorithm.sort.CountSort;
+import cn.machine.geek.algorithm.sort.HeapSort;
+import cn.machine.geek.algorithm.sort.MergeSort;
+import cn.machine.geek.algorithm.sort.PdqSort;
+import cn.machine.geek.algorithm.sort.QuickSort;
+import cn.machine.geek.algorithm.sort.RadixSort;
+import cn.machine.geek.algorithm.sort.ShellSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 排序算法基准，每次调用排序一份新复制的size个随机元素。O(n^2)的排序在QuadraticSortBenchmark中。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Integer[] integers;
+    private Integer[] fewUnique;
+    private Double[] doubles;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前复制一份随机数据
+     * @Date: 2021/3/1
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class Elements {
+        private Integer[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(SortBenchmark benchmark) {
+            elements = benchmark.integers.clone();
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前复制一份只有4种取值的数据
+     * @Date: 2021/3/1
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class FewUnique {
+        private Integer[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(SortBenchmark benchmark) {
+            elements = benchmark.fewUnique.clone();
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 每次调用前复制一份[0, 1)之间的随机小数
+     * @Date: 2021/3/1
+     * @Return:
+     */
+    @State(Scope.Thread)
+    public static class Doubles {
+        private Double[] elements;
+
+        @Setup(Level.Invocation)
+        public void copy(SortBenchmark benchmark) {
+            elements = benchmark.doubles.clone();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        integers = BenchmarkData.randomIntegers(size, size);
+        fewUnique = BenchmarkData.ordered("fewUnique", size);
+        double[] randomDoubles = BenchmarkData.randomDoubles(size);
+        doubles = new Double[size];
+        for (int i = 0; i < size; i++) {
+            doubles[i] = randomDoubles[i];
+        }
+    }
+
+    @Benchmark
+    public Integer[] shellSort(Elements elements) {
+        new ShellSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] heapSort(Elements elements) {
+        new HeapSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] mergeSort(Elements elements) {
+        new MergeSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] quickSort(Elements elements) {
+        new QuickSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] pdqSort(Elements elements) {
+        new PdqSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] quickSortFewUnique(FewUnique elements) {
+        new QuickSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] pdqSortFewUnique(FewUnique elements) {
+        new PdqSort<Integer>().sort(elements.elements, BenchmarkData.COMPARATOR);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] countSort(Elements elements) {
+        new CountSort().sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Integer[] radixSort(Elements elements) {
+        new RadixSort().sort(elements.elements);
+        return elements.elements;
+    }
+
+    @Benchmark
+    public Double[] bucketSort(Doubles elements) {
+        new BucketSort().sort(elements.elements);
+        return elements.elements;
+    }
+}
@@ -0,0 +1,68 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.set.TreeSet;
+import cn.machine.geek.structure.tree.AVLTree;
+import cn.machine.geek.structure.tree.RedBlackTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 平衡二叉树基准，每次调用添加size个随机元素。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private Integer[] keys;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.randomIntegers(size, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> redBlackTreeAdd() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public AVLTree<Integer> avlTreeAdd() {
+        AVLTree<Integer> tree = new AVLTree<>(BenchmarkData.COMPARATOR);
+        for (Integer key : keys) {
+            tree.add(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public TreeSet<Integer> treeSetAdd() {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (Integer key : keys) {
+            set.add(key);
+        }
+        return set;
+    }
+}
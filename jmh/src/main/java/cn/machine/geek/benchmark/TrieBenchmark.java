@@ -0,0 +1,170 @@
+package cn.machine.geek.benchmark;
+
+import cn.machine.geek.structure.trie.CompactTrie;
+import cn.machine.geek.structure.trie.RadixTree;
+import cn.machine.geek.structure.trie.Trie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 字典树基准，可变的Trie与只读的CompactTrie、路径压缩的RadixTree对比。
+ * paths是有长公共前缀的URL路径，路径压缩的效果更明显。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrieBenchmark {
+    // 自动补全的查询次数和每次返回的个数
+    private static final int COMPLETION_QUERIES = 1000;
+    private static final int COMPLETION_COUNT = 10;
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+    private String[] words;
+    private String[] paths;
+    private String[] prefixes;
+    private Trie<Integer> trie;
+    private Trie<Integer> pathTrie;
+    private CompactTrie<Integer> compactTrie;
+    private RadixTree<Integer> radixTree;
+    private RadixTree<Integer> pathRadixTree;
+
+    @Setup
+    public void setup() {
+        words = BenchmarkData.randomWords(size);
+        trie = new Trie<>();
+        Random random = new Random(BenchmarkData.SEED);
+        for (int i = 0; i < words.length; i++) {
+            trie.add(words[i], i, random.nextInt(size));
+        }
+        // 自动补全常见的1到3个字符的前缀
+        prefixes = new String[COMPLETION_QUERIES];
+        for (int i = 0; i < prefixes.length; i++) {
+            String word = words[random.nextInt(words.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(3));
+        }
+        compactTrie = new CompactTrie<>(trie);
+        paths = BenchmarkData.randomPaths(size);
+        pathTrie = new Trie<>();
+        for (int i = 0; i < paths.length; i++) {
+            pathTrie.add(paths[i], i);
+        }
+        radixTree = radixTree(words);
+        pathRadixTree = radixTree(paths);
+    }
+
+    @Benchmark
+    public Trie<Integer> trieAdd() {
+        Trie<Integer> trie = new Trie<>();
+        for (int i = 0; i < words.length; i++) {
+            trie.add(words[i], i);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public void trieGet(Blackhole blackhole) {
+        for (String word : words) {
+            blackhole.consume(trie.get(word));
+        }
+    }
+
+    @Benchmark
+    public void trieGetPaths(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(pathTrie.get(path));
+        }
+    }
+
+    /**
+     * @param blackhole
+     * @Author: MachineGeek
+     * @Description: COMPLETION_QUERIES次自动补全，与size无关
+     * @Date: 2021/3/20
+     * @Return: void
+     */
+    @Benchmark
+    public void trieTopK(final Blackhole blackhole) {
+        for (String prefix : prefixes) {
+            trie.topK(prefix, COMPLETION_COUNT, new Trie.Visitor<Integer>() {
+                @Override
+                protected boolean operate(String key, Integer value) {
+                    blackhole.consume(value);
+                    return false;
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public void trieCursor(Blackhole blackhole) {
+        for (String prefix : prefixes) {
+            Trie<Integer>.Cursor cursor = trie.cursor(prefix);
+            for (int i = 0; i < COMPLETION_COUNT && cursor.next(); i++) {
+                blackhole.consume(cursor.value());
+            }
+        }
+    }
+
+    @Benchmark
+    public CompactTrie<Integer> compactTrieBuild() {
+        return new CompactTrie<>(trie);
+    }
+
+    @Benchmark
+    public void compactTrieGet(Blackhole blackhole) {
+        for (String word : words) {
+            blackhole.consume(compactTrie.get(word));
+        }
+    }
+
+    @Benchmark
+    public RadixTree<Integer> radixTreeAdd() {
+        return radixTree(words);
+    }
+
+    @Benchmark
+    public void radixTreeGet(Blackhole blackhole) {
+        for (String word : words) {
+            blackhole.consume(radixTree.get(word));
+        }
+    }
+
+    @Benchmark
+    public RadixTree<Integer> radixTreeAddPaths() {
+        return radixTree(paths);
+    }
+
+    @Benchmark
+    public void radixTreeGetPaths(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(pathRadixTree.get(path));
+        }
+    }
+
+    private static RadixTree<Integer> radixTree(String[] keys) {
+        RadixTree<Integer> tree = new RadixTree<>();
+        for (int i = 0; i < keys.length; i++) {
+            tree.add(keys[i], i);
+        }
+        return tree;
+    }
+}
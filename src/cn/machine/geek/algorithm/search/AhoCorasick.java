@@ -0,0 +1,276 @@
+package cn.machine.geek.algorithm.search;
+
+import cn.machine.geek.structure.trie.Trie;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * @Author: MachineGeek
+ * @Description: AC自动机（多模式串匹配），一次扫描文本就能找出字典树中所有单词的所有出现位置
+ * 1.模式串中出现过的字符压缩成连续的编号，没有出现过的字符直接回到根状态，不占用转移表。
+ * 2.构建时沿失配指针把缺失的转移补全成确定性自动机，转移表是一个int数组，每个字符只需要一次查表，没有失配回退的循环。
+ * 3.outputs记录沿失配指针遇到的第一个单词状态，没有匹配的位置只比较一次。
+ * 构建完成后不再修改，可以被多个线程同时使用，每次扫描使用独立的Matcher保存状态。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/17
+ */
+public class AhoCorasick<V> {
+    private static final int BUFFER_SIZE = 8192;
+    private static final long MAX_TABLE_SIZE = Integer.MAX_VALUE - 8;
+    // 字符的编号，从1开始，0表示不在任何模式串中
+    private int[] classes = new int[Character.MAX_VALUE + 1];
+    private int alphabet;
+    // transitions[state * alphabet + class - 1]是下一个状态
+    private int[] transitions;
+    private int[] fails;
+    // 在这个状态结束的单词编号，没有时为-1
+    private int[] words;
+    // 沿失配指针遇到的第一个有单词的状态（包括自己），没有时为0
+    private int[] outputs;
+    private String[] keys;
+    private Object[] values;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 匹配结果的回调，返回true时停止扫描。
+     * @Date: 2021/3/17
+     * @Return:
+     */
+    public static abstract class Visitor<V> {
+        boolean stop;
+
+        protected abstract boolean operate(long start, String key, V value);
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 流式扫描的状态，文本可以分成多段依次输入，跨段的匹配也能找到，start是从第一段开始计算的位置。
+     * @Date: 2021/3/17
+     * @Return:
+     */
+    public class Matcher {
+        private int state;
+        private long position;
+
+        public void feed(CharSequence text, Visitor<V> visitor) {
+            for (int i = 0; i < text.length() && !visitor.stop; i++) {
+                step(text.charAt(i), visitor);
+            }
+        }
+
+        public void feed(char[] chars, int offset, int length, Visitor<V> visitor) {
+            for (int i = offset, end = offset + length; i < end && !visitor.stop; i++) {
+                step(chars[i], visitor);
+            }
+        }
+
+        /**
+         * @param buffer
+         * @param visitor
+         * @Author: MachineGeek
+         * @Description: 消费buffer中剩余的字符，停止扫描时buffer的位置在最后一个匹配的字符之后。
+         * @Date: 2021/3/17
+         * @Return: void
+         */
+        public void feed(CharBuffer buffer, Visitor<V> visitor) {
+            if (buffer.hasArray()) {
+                int start = buffer.arrayOffset() + buffer.position();
+                long before = position;
+                feed(buffer.array(), start, buffer.remaining(), visitor);
+                buffer.position(buffer.position() + (int) (position - before));
+                return;
+            }
+            while (buffer.hasRemaining() && !visitor.stop) {
+                step(buffer.get(), visitor);
+            }
+        }
+
+        public long position() {
+            return position;
+        }
+
+        public void reset() {
+            state = 0;
+            position = 0;
+        }
+
+        private void step(char ch, Visitor<V> visitor) {
+            int type = classes[ch];
+            state = type == 0 ? 0 : transitions[state * alphabet + type - 1];
+            position++;
+            if (outputs[state] != 0) {
+                report(visitor);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void report(Visitor<V> visitor) {
+            for (int output = outputs[state]; output != 0 && !visitor.stop; output = outputs[fails[output]]) {
+                String key = keys[words[output]];
+                visitor.stop = visitor.operate(position - key.length(), key, (V) values[words[output]]);
+            }
+        }
+    }
+
+    public AhoCorasick(Trie<V> trie) {
+        if (trie == null) {
+            throw new RuntimeException("Trie must not be null");
+        }
+        final ArrayList<String> keyList = new ArrayList<>();
+        final ArrayList<Object> valueList = new ArrayList<>();
+        trie.traversal(new Trie.Visitor<V>() {
+            @Override
+            protected boolean operate(String key, V value) {
+                keyList.add(key);
+                valueList.add(value);
+                return false;
+            }
+        });
+        keys = keyList.toArray(new String[0]);
+        values = valueList.toArray();
+        build();
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 先插入所有模式串得到goto树，再按层序计算失配指针并补全转移。
+     * 按层序处理时失配状态比当前状态浅，它的转移已经补全，缺失的转移直接复制失配状态的转移即可。
+     * @Date: 2021/3/17
+     * @Return: void
+     */
+    private void build() {
+        long total = 1;
+        for (String key : keys) {
+            for (int i = 0; i < key.length(); i++) {
+                char ch = key.charAt(i);
+                if (classes[ch] == 0) {
+                    classes[ch] = ++alphabet;
+                }
+            }
+            total += key.length();
+        }
+        if (total * alphabet > MAX_TABLE_SIZE) {
+            throw new RuntimeException("Too many patterns for the transition table");
+        }
+        transitions = new int[(int) total * alphabet];
+        Arrays.fill(transitions, -1);
+        words = new int[(int) total];
+        Arrays.fill(words, -1);
+        int states = 1;
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            int state = 0;
+            for (int j = 0; j < key.length(); j++) {
+                int index = state * alphabet + classes[key.charAt(j)] - 1;
+                if (transitions[index] < 0) {
+                    transitions[index] = states++;
+                }
+                state = transitions[index];
+            }
+            words[state] = i;
+        }
+        transitions = Arrays.copyOf(transitions, states * alphabet);
+        words = Arrays.copyOf(words, states);
+        fails = new int[states];
+        outputs = new int[states];
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+        for (int type = 0; type < alphabet; type++) {
+            int next = transitions[type];
+            if (next < 0) {
+                transitions[type] = 0;
+            } else {
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int fail = fails[state];
+            outputs[state] = words[state] >= 0 ? state : outputs[fail];
+            for (int type = 0; type < alphabet; type++) {
+                int index = state * alphabet + type;
+                int next = transitions[index];
+                if (next < 0) {
+                    transitions[index] = transitions[fail * alphabet + type];
+                } else {
+                    fails[next] = transitions[fail * alphabet + type];
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    public Matcher matcher() {
+        return new Matcher();
+    }
+
+    /**
+     * @param text
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 扫描文本，按结束位置的顺序回调所有匹配，结束位置相同时长的在前。
+     * @Date: 2021/3/17
+     * @Return: void
+     */
+    public void search(CharSequence text, Visitor<V> visitor) {
+        if (text == null || visitor == null) {
+            return;
+        }
+        new Matcher().feed(text, visitor);
+    }
+
+    /**
+     * @param reader
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 分块读取并扫描，跨块的匹配同样能找到。
+     * @Date: 2021/3/17
+     * @Return: void
+     */
+    public void search(Reader reader, Visitor<V> visitor) {
+        if (reader == null || visitor == null) {
+            return;
+        }
+        Matcher matcher = new Matcher();
+        char[] buffer = new char[BUFFER_SIZE];
+        try {
+            int read;
+            while (!visitor.stop && (read = reader.read(buffer)) >= 0) {
+                matcher.feed(buffer, 0, read, visitor);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param text
+     * @Author: MachineGeek
+     * @Description: 文本中是否出现任意一个单词
+     * @Date: 2021/3/17
+     * @Return: boolean
+     */
+    public boolean matches(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int type = classes[text.charAt(i)];
+            state = type == 0 ? 0 : transitions[state * alphabet + type - 1];
+            if (outputs[state] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+}
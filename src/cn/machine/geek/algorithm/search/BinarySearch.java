@@ -24,9 +24,9 @@ public class BinarySearch<E> {
             // 如果要查找的元素比中间元素大，排除左边一半。
             if (value > 0) {
                 left = mid + 1;
-                // 如果要查找的元素比中间元素小，排除左边一半。
+                // 如果要查找的元素比中间元素小，排除右边一半（right是开区间，不能减一，否则会漏掉元素）。
             } else if (value < 0) {
-                right = mid - 1;
+                right = mid;
                 // 元素相等，返回中间索引下标
             } else {
                 return mid;
@@ -35,4 +35,83 @@ public class BinarySearch<E> {
         // 找不到就返回负数
         return -1;
     }
+
+    /**
+     * @param elements
+     * @param element
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 第一个不小于element的下标，所有元素都小于element时返回elements.length
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int lowerBound(E[] elements, E element, Comparator<E> comparator) {
+        check(elements, comparator);
+        return lowerBound(elements, 0, elements.length, element, comparator);
+    }
+
+    /**
+     * @param elements
+     * @param element
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 第一个大于element的下标，所有元素都不大于element时返回elements.length
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int upperBound(E[] elements, E element, Comparator<E> comparator) {
+        check(elements, comparator);
+        return upperBound(elements, 0, elements.length, element, comparator);
+    }
+
+    /**
+     * @param elements
+     * @param element
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 等于element的元素所在的区间[result[0], result[1])，不存在时两个下标相等，都是插入位置。
+     * @Date: 2021/3/16
+     * @Return: int[]
+     */
+    public int[] equalRange(E[] elements, E element, Comparator<E> comparator) {
+        check(elements, comparator);
+        int lower = lowerBound(elements, 0, elements.length, element, comparator);
+        // 从lower开始倍增步长找到上界所在的范围，相等的元素少时只需要比较几次
+        int from = lower, to = lower + 1;
+        while (to <= elements.length && comparator.compare(elements[to - 1], element) <= 0) {
+            from = to;
+            to = (int) Math.min(lower + ((long) (to - lower) << 1), elements.length + 1L);
+        }
+        return new int[]{lower, upperBound(elements, from, Math.min(to, elements.length), element, comparator)};
+    }
+
+    private int lowerBound(E[] elements, int left, int right, E element, Comparator<E> comparator) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (comparator.compare(elements[mid], element) < 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    private int upperBound(E[] elements, int left, int right, E element, Comparator<E> comparator) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (comparator.compare(elements[mid], element) <= 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    private void check(E[] elements, Comparator<E> comparator) {
+        if (elements == null || comparator == null) {
+            throw new RuntimeException("Elements and comparator must not be null");
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package cn.machine.geek.algorithm.search;
+
+/**
+ * @Author: MachineGeek
+ * @Description: Eytzinger布局（按层序存放的隐式二叉搜索树）上的二分搜索
+ * 有序数组的二分搜索前几次访问的位置相距很远，每次都可能缓存未命中；按层序存放后节点k的孩子是2k和2k+1，
+ * 树的前几层挤在同一段内存里，一直在缓存中，越往下访问的位置越集中，硬件预取器也能跟上。
+ * 下标从1开始，layout[0]不使用。ranks保存每个位置在原有序数组中的下标，用于返回和普通二分搜索一致的结果。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/16
+ */
+public class EytzingerSearch {
+    private int[] layout;
+    private int[] ranks;
+    private int size;
+
+    public EytzingerSearch(int[] sorted) {
+        if (sorted == null) {
+            throw new RuntimeException("Elements must not be null");
+        }
+        size = sorted.length;
+        layout = new int[size + 1];
+        ranks = new int[size + 1];
+        build(sorted);
+    }
+
+    /**
+     * @param sorted
+     * @Author: MachineGeek
+     * @Description: 中序遍历隐式树，依次填入有序数组的元素，中序遍历的顺序就是有序的顺序。
+     * @Date: 2021/3/16
+     * @Return: void
+     */
+    private void build(int[] sorted) {
+        int index = 0;
+        int k = 1;
+        // 迭代中序遍历：先一路向左，没有左孩子时访问节点，再转到右子树
+        while (index < size) {
+            while (k <= size) {
+                k <<= 1;
+            }
+            // 回到最后一个存在的节点（去掉末尾连续的1再右移一位）
+            k >>= Integer.numberOfTrailingZeros(~k) + 1;
+            layout[k] = sorted[index];
+            ranks[k] = index++;
+            k = (k << 1) | 1;
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个不小于key的元素在原有序数组中的下标，所有元素都小于key时返回size
+     * 向下走时记录每一步是否向右，最后一次向左的位置就是答案：k的二进制末尾的1是最后一段连续的向右，全部去掉后再右移一位。
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int lowerBound(int key) {
+        int k = 1;
+        while (k <= size) {
+            k = (k << 1) | (layout[k] < key ? 1 : 0);
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? size : ranks[k];
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个大于key的元素在原有序数组中的下标，所有元素都不大于key时返回size
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int upperBound(int key) {
+        int k = 1;
+        while (k <= size) {
+            k = (k << 1) | (layout[k] <= key ? 1 : 0);
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k == 0 ? size : ranks[k];
+    }
+
+    public boolean contains(int key) {
+        int k = 1;
+        while (k <= size) {
+            k = (k << 1) | (layout[k] < key ? 1 : 0);
+        }
+        k >>= Integer.numberOfTrailingZeros(~k) + 1;
+        return k != 0 && layout[k] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+}
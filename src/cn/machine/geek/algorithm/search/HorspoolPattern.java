@@ -0,0 +1,102 @@
+package cn.machine.geek.algorithm.search;
+
+import java.util.Arrays;
+
+/**
+ * @Author: MachineGeek
+ * @Description: Boyer-Moore-Horspool搜索
+ * 每次比较窗口最后一个字符，再按这个字符在模式串中（不含最后一个位置）最后出现的位置把窗口向右移动，没有出现时直接移动整个模式串的长度。
+ * 字符的跳跃表只按低8位索引，低8位相同的字符取最小的跳跃距离，结果仍然正确，只是少跳了一些。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/18
+ */
+public class HorspoolPattern extends SearchPattern {
+    private static final int TABLE_SIZE = 256;
+    private int[] charShifts = new int[TABLE_SIZE];
+    private int[] byteShifts = new int[TABLE_SIZE];
+
+    public HorspoolPattern(String pattern) {
+        super(pattern);
+        int last = chars.length - 1;
+        Arrays.fill(charShifts, chars.length);
+        // 越靠后的位置距离越小，后写入的覆盖前面的，保证取到最小值
+        for (int i = 0; i < last; i++) {
+            charShifts[chars[i] & 0xFF] = last - i;
+        }
+        last = bytes.length - 1;
+        Arrays.fill(byteShifts, bytes.length);
+        for (int i = 0; i < last; i++) {
+            byteShifts[bytes[i] & 0xFF] = last - i;
+        }
+    }
+
+    @Override
+    int search(CharSequence text, int from, Matches matches) {
+        int last = chars.length - 1;
+        char tail = chars[last];
+        for (int i = from, end = text.length() - last; i < end; ) {
+            char ch = text.charAt(i + last);
+            if (ch == tail) {
+                int j = 0;
+                while (j < last && text.charAt(i + j) == chars[j]) {
+                    j++;
+                }
+                if (j == last) {
+                    if (matches == null) {
+                        return i;
+                    }
+                    // 跳跃表不包含最后一个位置，至少移动一步，重叠的匹配也能找到
+                    matches.add(i);
+                }
+            }
+            i += charShifts[ch & 0xFF];
+        }
+        return -1;
+    }
+
+    @Override
+    int search(char[] text, int from, int to, Matches matches) {
+        int last = chars.length - 1;
+        char tail = chars[last];
+        for (int i = from, end = to - last; i < end; ) {
+            char ch = text[i + last];
+            if (ch == tail) {
+                int j = 0;
+                while (j < last && text[i + j] == chars[j]) {
+                    j++;
+                }
+                if (j == last) {
+                    if (matches == null) {
+                        return i;
+                    }
+                    matches.add(i);
+                }
+            }
+            i += charShifts[ch & 0xFF];
+        }
+        return -1;
+    }
+
+    @Override
+    int search(byte[] text, int from, int to, Matches matches) {
+        int last = bytes.length - 1;
+        byte tail = bytes[last];
+        for (int i = from, end = to - last; i < end; ) {
+            byte value = text[i + last];
+            if (value == tail) {
+                int j = 0;
+                while (j < last && text[i + j] == bytes[j]) {
+                    j++;
+                }
+                if (j == last) {
+                    if (matches == null) {
+                        return i;
+                    }
+                    matches.add(i);
+                }
+            }
+            i += byteShifts[value & 0xFF];
+        }
+        return -1;
+    }
+}
@@ -3,6 +3,7 @@ package cn.machine.geek.algorithm.search;
 /**
  * @Author: MachineGeek
  * @Description: KMP搜索
+ * 同一个模式串需要搜索多次时使用KmpPattern或者SearchPattern.compile，只构建一次next数组。
  * @Email: 794763733@qq.com
  * @Date: 2021/2/28
  */
@@ -17,43 +18,7 @@ public class KMP {
         if (tlen == 0 || plen == 0 || plen > tlen) {
             return -1;
         }
-        // 获取字符数组
-        char[] tChars = text.toCharArray();
-        char[] pChars = pattern.toCharArray();
-        // 获取公共长度匹配数组
-        int[] next = getNext(pChars);
-        // 初始下标
-        int ti = 0, pi = 0, tmax = tlen - plen;
-        while (pi < plen && ti - pi <= tmax) {
-            if (pi < 0 || tChars[ti] == pChars[pi]) {
-                ti++;
-                pi++;
-            } else {
-                pi = next[pi];
-            }
-        }
-        return pi == plen ? ti - pi : -1;
-    }
-
-    private static int[] getNext(char[] pattern) {
-        // 创建next数组
-        int[] next = new int[pattern.length];
-        // 初始化
-        int i = 0;
-        int n = next[i] = -1;
-        while (i < pattern.length - 1) {
-            if (n < 0 || pattern[i] == pattern[n]) {
-                i++;
-                n++;
-                if (pattern[i] == pattern[n]) {
-                    next[i] = next[n];
-                } else {
-                    next[i] = n;
-                }
-            } else {
-                n = next[n];
-            }
-        }
-        return next;
+        // 直接在字符串上搜索，不复制字符数组
+        return new KmpPattern(pattern).indexOf(text, 0);
     }
 }
@@ -0,0 +1,206 @@
+package cn.machine.geek.algorithm.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 预编译的KMP模式串
+ * next[i]是模式串第i个字符失配后继续比较的位置，-1表示从文本的下一个字符重新开始；
+ * next[length]是整个模式串的最长公共前后缀长度，匹配成功后从这里继续，可以找到重叠的匹配，也可以跨数据块流式匹配。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/18
+ */
+public class KmpPattern extends SearchPattern {
+    private int[] charNext;
+    private int[] byteNext;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 匹配结果的回调，start是匹配的第一个字节从第一个数据块开始计算的位置，返回true时停止。
+     * @Date: 2021/3/18
+     * @Return:
+     */
+    public static abstract class Visitor {
+        boolean stop;
+
+        protected abstract boolean operate(long start);
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按字节流式匹配的状态，数据块可以任意切分，跨块的匹配也能找到。
+     * @Date: 2021/3/18
+     * @Return:
+     */
+    public class Matcher {
+        private int matched;
+        private long position;
+
+        public void feed(byte[] text, int offset, int length, Visitor visitor) {
+            check(text, offset, offset + length, text == null ? 0 : text.length);
+            for (int i = offset, end = offset + length; i < end && !visitor.stop; i++) {
+                step(text[i], visitor);
+            }
+        }
+
+        /**
+         * @param buffer
+         * @param visitor
+         * @Author: MachineGeek
+         * @Description: 消费buffer中剩余的字节，停止时buffer的位置在最后一个匹配的字节之后。
+         * @Date: 2021/3/18
+         * @Return: void
+         */
+        public void feed(ByteBuffer buffer, Visitor visitor) {
+            if (buffer.hasArray()) {
+                long before = position;
+                int start = buffer.arrayOffset() + buffer.position();
+                feed(buffer.array(), start, buffer.remaining(), visitor);
+                buffer.position(buffer.position() + (int) (position - before));
+                return;
+            }
+            while (buffer.hasRemaining() && !visitor.stop) {
+                step(buffer.get(), visitor);
+            }
+        }
+
+        public long position() {
+            return position;
+        }
+
+        public void reset() {
+            matched = 0;
+            position = 0;
+        }
+
+        private void step(byte value, Visitor visitor) {
+            int j = matched;
+            while (j >= 0 && bytes[j] != value) {
+                j = byteNext[j];
+            }
+            position++;
+            if (++j == bytes.length) {
+                visitor.stop = visitor.operate(position - j);
+                j = byteNext[j];
+            }
+            matched = j;
+        }
+    }
+
+    public KmpPattern(String pattern) {
+        super(pattern);
+        charNext = next(chars);
+        byteNext = next(bytes);
+    }
+
+    /**
+     * @param pattern
+     * @Author: MachineGeek
+     * @Description: 先求每个前缀的最长公共前后缀borders，再把失配后必然再次失配的跳转合并。
+     * @Date: 2021/3/18
+     * @Return: int[]
+     */
+    private static int[] next(char[] pattern) {
+        int[] borders = new int[pattern.length + 1];
+        borders[0] = -1;
+        for (int i = 1; i <= pattern.length; i++) {
+            int n = borders[i - 1];
+            while (n >= 0 && pattern[n] != pattern[i - 1]) {
+                n = borders[n];
+            }
+            borders[i] = n + 1;
+        }
+        int[] next = new int[pattern.length + 1];
+        next[0] = -1;
+        for (int i = 1; i <= pattern.length; i++) {
+            // 失配字符和跳转后的字符相同时一定还会失配，直接继续跳
+            int n = borders[i];
+            next[i] = i < pattern.length && pattern[i] == pattern[n] ? next[n] : n;
+        }
+        return next;
+    }
+
+    private static int[] next(byte[] pattern) {
+        int[] borders = new int[pattern.length + 1];
+        borders[0] = -1;
+        for (int i = 1; i <= pattern.length; i++) {
+            int n = borders[i - 1];
+            while (n >= 0 && pattern[n] != pattern[i - 1]) {
+                n = borders[n];
+            }
+            borders[i] = n + 1;
+        }
+        int[] next = new int[pattern.length + 1];
+        next[0] = -1;
+        for (int i = 1; i <= pattern.length; i++) {
+            int n = borders[i];
+            next[i] = i < pattern.length && pattern[i] == pattern[n] ? next[n] : n;
+        }
+        return next;
+    }
+
+    public Matcher matcher() {
+        return new Matcher();
+    }
+
+    @Override
+    int search(CharSequence text, int from, Matches matches) {
+        int length = chars.length;
+        int j = 0;
+        for (int i = from, to = text.length(); i < to; i++) {
+            char ch = text.charAt(i);
+            while (j >= 0 && chars[j] != ch) {
+                j = charNext[j];
+            }
+            if (++j == length) {
+                if (matches == null) {
+                    return i - length + 1;
+                }
+                // 从最长公共前后缀继续，重叠的匹配也能找到
+                matches.add(i - length + 1);
+                j = charNext[length];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int search(char[] text, int from, int to, Matches matches) {
+        int length = chars.length;
+        int j = 0;
+        for (int i = from; i < to; i++) {
+            char ch = text[i];
+            while (j >= 0 && chars[j] != ch) {
+                j = charNext[j];
+            }
+            if (++j == length) {
+                if (matches == null) {
+                    return i - length + 1;
+                }
+                matches.add(i - length + 1);
+                j = charNext[length];
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int search(byte[] text, int from, int to, Matches matches) {
+        int length = bytes.length;
+        int j = 0;
+        for (int i = from; i < to; i++) {
+            byte value = text[i];
+            while (j >= 0 && bytes[j] != value) {
+                j = byteNext[j];
+            }
+            if (++j == length) {
+                if (matches == null) {
+                    return i - length + 1;
+                }
+                matches.add(i - length + 1);
+                j = byteNext[length];
+            }
+        }
+        return -1;
+    }
+}
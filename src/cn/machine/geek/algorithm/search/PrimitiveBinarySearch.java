@@ -0,0 +1,230 @@
+package cn.machine.geek.algorithm.search;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 基本类型数组的二分搜索
+ * 无分支版本：每一轮都把区间长度减半，只根据比较结果选择新的起点，选择可以编译成条件传送指令，
+ * 循环次数只和数组长度有关，不会因为分支预测失败而变慢。
+ * 插值搜索：按key在首尾元素之间的比例估计位置，均匀分布时期望比较次数为O(loglogN)，
+ * 分布不均匀时估计的次数有上限，超过后改用二分搜索，最坏仍然是O(logN)。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/15
+ */
+public class PrimitiveBinarySearch {
+    // 区间小于这个长度时插值估计不再划算
+    private static final int INTERPOLATION_THRESHOLD = 16;
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个不小于key的下标，所有元素都小于key时返回elements.length
+     * @Date: 2021/3/15
+     * @Return: int
+     */
+    public int lowerBound(int[] elements, int key) {
+        check(elements);
+        return lowerBound(elements, 0, elements.length, key);
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个大于key的下标，所有元素都不大于key时返回elements.length
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int upperBound(int[] elements, int key) {
+        check(elements);
+        int base = 0;
+        int length = elements.length;
+        if (length == 0) {
+            return 0;
+        }
+        while (length > 1) {
+            int half = length >>> 1;
+            base = elements[base + half - 1] <= key ? base + half : base;
+            length -= half;
+        }
+        return base + (elements[base] <= key ? 1 : 0);
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 等于key的元素所在的区间[result[0], result[1])，不存在时两个下标相等，都是插入位置。
+     * @Date: 2021/3/16
+     * @Return: int[]
+     */
+    public int[] equalRange(int[] elements, int key) {
+        return new int[]{lowerBound(elements, key), upperBound(elements, key)};
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 插值搜索，返回值和lowerBound相同。
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int interpolationLowerBound(int[] elements, int key) {
+        check(elements);
+        int left = 0;
+        int right = elements.length;
+        // 均匀分布时几次就能找到，超过logN次说明分布不均匀
+        int probes = 32 - Integer.numberOfLeadingZeros(right);
+        // 不变式：答案在[left, right]中
+        while (right - left > INTERPOLATION_THRESHOLD) {
+            if (probes-- == 0) {
+                return lowerBound(elements, left, right, key);
+            }
+            int low = elements[left];
+            int high = elements[right - 1];
+            if (low >= key) {
+                return left;
+            }
+            if (high < key) {
+                return right;
+            }
+            // 这里low < key <= high，估计位置在[left, right - 1]中
+            int mid = left + (int) (((double) key - low) / ((double) high - low) * (right - 1 - left));
+            mid = Math.max(left, Math.min(mid, right - 1));
+            if (elements[mid] < key) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return lowerBound(elements, left, right, key);
+    }
+
+    private int lowerBound(int[] elements, int base, int end, int key) {
+        int length = end - base;
+        if (length == 0) {
+            return base;
+        }
+        // 不变式：答案在[base, base + length]中
+        while (length > 1) {
+            int half = length >>> 1;
+            base = elements[base + half - 1] < key ? base + half : base;
+            length -= half;
+        }
+        return base + (elements[base] < key ? 1 : 0);
+    }
+
+    private void check(int[] elements) {
+        if (elements == null) {
+            throw new RuntimeException("Elements must not be null");
+        }
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个不小于key的下标，所有元素都小于key时返回elements.length
+     * @Date: 2021/3/15
+     * @Return: int
+     */
+    public int lowerBound(long[] elements, long key) {
+        check(elements);
+        return lowerBound(elements, 0, elements.length, key);
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 第一个大于key的下标，所有元素都不大于key时返回elements.length
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int upperBound(long[] elements, long key) {
+        check(elements);
+        int base = 0;
+        int length = elements.length;
+        if (length == 0) {
+            return 0;
+        }
+        while (length > 1) {
+            int half = length >>> 1;
+            base = elements[base + half - 1] <= key ? base + half : base;
+            length -= half;
+        }
+        return base + (elements[base] <= key ? 1 : 0);
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 等于key的元素所在的区间[result[0], result[1])，不存在时两个下标相等，都是插入位置。
+     * @Date: 2021/3/16
+     * @Return: int[]
+     */
+    public int[] equalRange(long[] elements, long key) {
+        return new int[]{lowerBound(elements, key), upperBound(elements, key)};
+    }
+
+    /**
+     * @param elements
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 插值搜索，返回值和lowerBound相同。
+     * @Date: 2021/3/16
+     * @Return: int
+     */
+    public int interpolationLowerBound(long[] elements, long key) {
+        check(elements);
+        int left = 0;
+        int right = elements.length;
+        // 均匀分布时几次就能找到，超过logN次说明分布不均匀
+        int probes = 32 - Integer.numberOfLeadingZeros(right);
+        // 不变式：答案在[left, right]中
+        while (right - left > INTERPOLATION_THRESHOLD) {
+            if (probes-- == 0) {
+                return lowerBound(elements, left, right, key);
+            }
+            long low = elements[left];
+            long high = elements[right - 1];
+            if (low >= key) {
+                return left;
+            }
+            if (high < key) {
+                return right;
+            }
+            // 这里low < key <= high，估计位置在[left, right - 1]中
+            int mid = left + (int) (((double) key - low) / ((double) high - low) * (right - 1 - left));
+            mid = Math.max(left, Math.min(mid, right - 1));
+            if (elements[mid] < key) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return lowerBound(elements, left, right, key);
+    }
+
+    private int lowerBound(long[] elements, int base, int end, long key) {
+        int length = end - base;
+        if (length == 0) {
+            return base;
+        }
+        // 不变式：答案在[base, base + length]中
+        while (length > 1) {
+            int half = length >>> 1;
+            base = elements[base + half - 1] < key ? base + half : base;
+            length -= half;
+        }
+        return base + (elements[base] < key ? 1 : 0);
+    }
+
+    private void check(long[] elements) {
+        if (elements == null) {
+            throw new RuntimeException("Elements must not be null");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package cn.machine.geek.algorithm.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 预编译的单模式串搜索，编译一次可以在多个文本中重复使用，文本不需要复制。
+ * compile按模式串长度选择实现：
+ * 1.很短的模式串Horspool每次最多只能跳过几个字符，使用KMP。
+ * 2.中等长度使用Horspool，按窗口最后一个字符跳跃，平均比较次数远小于文本长度。
+ * 3.很长的模式串Horspool的最坏情况O(NM)代价太大，使用Two-Way，最坏O(N)并且只需要常数额外空间。
+ * byte[]版本按UTF-8编码搜索，返回的是字节下标。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/18
+ */
+public abstract class SearchPattern {
+    // 短于这个长度使用KMP
+    private static final int HORSPOOL_THRESHOLD = 4;
+    // 长于这个长度使用Two-Way
+    private static final int TWO_WAY_THRESHOLD = 256;
+    final String pattern;
+    final char[] chars;
+    final byte[] bytes;
+
+    SearchPattern(String pattern) {
+        if (pattern == null || pattern.length() == 0) {
+            throw new RuntimeException("Pattern must not be empty");
+        }
+        this.pattern = pattern;
+        chars = pattern.toCharArray();
+        bytes = pattern.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param pattern
+     * @Author: MachineGeek
+     * @Description: 按模式串长度选择搜索算法
+     * @Date: 2021/3/18
+     * @Return: cn.machine.geek.algorithm.search.SearchPattern
+     */
+    public static SearchPattern compile(String pattern) {
+        if (pattern == null || pattern.length() < HORSPOOL_THRESHOLD) {
+            return new KmpPattern(pattern);
+        }
+        if (pattern.length() <= TWO_WAY_THRESHOLD) {
+            return new HorspoolPattern(pattern);
+        }
+        return new TwoWayPattern(pattern);
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    public int indexOf(CharSequence text) {
+        return indexOf(text, 0);
+    }
+
+    /**
+     * @param text
+     * @param from
+     * @Author: MachineGeek
+     * @Description: 从from开始第一次出现的位置，找不到返回-1
+     * @Date: 2021/3/18
+     * @Return: int
+     */
+    public int indexOf(CharSequence text, int from) {
+        check(text, from, text == null ? 0 : text.length(), text == null ? 0 : text.length());
+        return search(text, from, null);
+    }
+
+    /**
+     * @param text
+     * @param from
+     * @param to
+     * @Author: MachineGeek
+     * @Description: 在text[from, to)中第一次出现的位置，找不到返回-1
+     * @Date: 2021/3/18
+     * @Return: int
+     */
+    public int indexOf(char[] text, int from, int to) {
+        check(text, from, to, text == null ? 0 : text.length);
+        return search(text, from, to, null);
+    }
+
+    /**
+     * @param text
+     * @param from
+     * @param to
+     * @Author: MachineGeek
+     * @Description: 在UTF-8编码的text[from, to)中第一次出现的字节下标，找不到返回-1
+     * @Date: 2021/3/18
+     * @Return: int
+     */
+    public int indexOf(byte[] text, int from, int to) {
+        check(text, from, to, text == null ? 0 : text.length);
+        return search(text, from, to, null);
+    }
+
+    /**
+     * @param text
+     * @Author: MachineGeek
+     * @Description: 所有出现的位置，包括互相重叠的。只扫描一遍文本，匹配之后沿用各个算法自己的状态继续，
+     * 不会每次从匹配位置的下一个字符重新开始。
+     * @Date: 2021/3/18
+     * @Return: int[]
+     */
+    public int[] findAll(CharSequence text) {
+        check(text, 0, 0, 0);
+        Matches matches = new Matches();
+        search(text, 0, matches);
+        return matches.toArray();
+    }
+
+    public int[] findAll(char[] text) {
+        check(text, 0, 0, 0);
+        Matches matches = new Matches();
+        search(text, 0, text.length, matches);
+        return matches.toArray();
+    }
+
+    public int[] findAll(byte[] text) {
+        check(text, 0, 0, 0);
+        Matches matches = new Matches();
+        search(text, 0, text.length, matches);
+        return matches.toArray();
+    }
+
+    /**
+     * @param text
+     * @param from
+     * @param matches
+     * @Author: MachineGeek
+     * @Description: 从from开始搜索，matches为null时返回第一次出现的位置，否则把所有位置放入matches并返回-1。
+     * 参数已经检查过。
+     * @Date: 2021/3/18
+     * @Return: int
+     */
+    abstract int search(CharSequence text, int from, Matches matches);
+
+    abstract int search(char[] text, int from, int to, Matches matches);
+
+    abstract int search(byte[] text, int from, int to, Matches matches);
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按出现顺序收集匹配的位置
+     * @Date: 2021/3/18
+     * @Return:
+     */
+    static final class Matches {
+        private int[] positions = new int[8];
+        private int count;
+
+        void add(int index) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count << 1);
+            }
+            positions[count++] = index;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, count);
+        }
+    }
+
+    static void check(Object text, int from, int to, int length) {
+        if (text == null) {
+            throw new RuntimeException("Text must not be null");
+        }
+        if (from < 0 || from > to || to > length) {
+            throw new RuntimeException("Index out of range");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package cn.machine.geek.algorithm.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 字节缓冲区上的SWAR（寄存器内并行）子串搜索
+ * 一次读取8个字节作为long，和模式串的第一个字节、最后一个字节分别异或，两个结果都为0的字节就是首尾都相同的候选位置，
+ * 8个候选位置只需要几条整数指令就能排除，只有首尾都相同的位置才逐字节比较中间部分。
+ * 适合在内存映射的大文件中查找，文件按窗口映射，相邻窗口重叠模式串长度减一个字节，跨窗口的匹配也能找到。
+ * 匹配位置按批回调，避免每个匹配一次调用。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/19
+ */
+public class SwarSearch {
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+    // 每次映射的文件大小
+    private static final int WINDOW_SIZE = 1 << 30;
+    private static final int BATCH_SIZE = 1024;
+    private byte[] pattern;
+    private ByteBuffer patternView;
+    // 第一个和最后一个字节复制到long的每个字节
+    private long first;
+    private long last;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按批回调匹配位置，offsets[0, count)有效，数组会被复用，返回true时停止。
+     * @Date: 2021/3/19
+     * @Return:
+     */
+    public static abstract class Visitor {
+        boolean stop;
+
+        protected abstract boolean operate(long[] offsets, int count);
+    }
+
+    public SwarSearch(String pattern) {
+        this(pattern == null ? null : pattern.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public SwarSearch(byte[] pattern) {
+        if (pattern == null || pattern.length == 0) {
+            throw new RuntimeException("Pattern must not be empty");
+        }
+        this.pattern = pattern.clone();
+        patternView = ByteBuffer.wrap(this.pattern).order(ByteOrder.LITTLE_ENDIAN);
+        first = (pattern[0] & 0xFFL) * ONES;
+        last = (pattern[pattern.length - 1] & 0xFFL) * ONES;
+    }
+
+    /**
+     * @param buffer
+     * @param from
+     * @param to
+     * @Author: MachineGeek
+     * @Description: buffer[from, to)中第一次出现的位置（绝对下标），找不到返回-1，不修改buffer的position和字节序。
+     * @Date: 2021/3/19
+     * @Return: int
+     */
+    public int indexOf(ByteBuffer buffer, int from, int to) {
+        int[] offsets = new int[1];
+        return find(buffer, from, to, offsets) == 0 ? -1 : offsets[0];
+    }
+
+    /**
+     * @param buffer
+     * @param from
+     * @param to
+     * @param offsets
+     * @Author: MachineGeek
+     * @Description: 从from开始查找，最多把offsets.length个匹配位置依次写入offsets，返回写入的个数。
+     * 个数等于offsets.length时可能还有更多匹配，从最后一个位置加一继续查找。
+     * @Date: 2021/3/19
+     * @Return: int
+     */
+    public int find(ByteBuffer buffer, int from, int to, int[] offsets) {
+        if (buffer == null || offsets == null) {
+            throw new RuntimeException("Buffer and offsets must not be null");
+        }
+        if (from < 0 || from > to || to > buffer.limit()) {
+            throw new RuntimeException("Index out of range");
+        }
+        // 小端序下低地址的字节在long的低位，最低的候选位置就是最低的非零字节
+        ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int length = pattern.length;
+        int count = 0;
+        // 候选位置必须小于end
+        int end = to - length + 1;
+        int i = from;
+        for (; i + Long.BYTES <= end && count < offsets.length; i += Long.BYTES) {
+            long candidates = zeroBytes((view.getLong(i) ^ first) | (view.getLong(i + length - 1) ^ last));
+            while (candidates != 0) {
+                int index = i + (Long.numberOfTrailingZeros(candidates) >>> 3);
+                if (matches(view, index)) {
+                    offsets[count++] = index;
+                    if (count == offsets.length) {
+                        return count;
+                    }
+                }
+                candidates &= candidates - 1;
+            }
+        }
+        for (; i < end && count < offsets.length; i++) {
+            if (view.get(i) == pattern[0] && view.get(i + length - 1) == pattern[length - 1] && matches(view, i)) {
+                offsets[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param file
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按窗口映射文件并查找所有匹配，offsets是文件中的字节位置。
+     * @Date: 2021/3/19
+     * @Return: void
+     */
+    public void search(File file, Visitor visitor) {
+        if (file == null || visitor == null) {
+            throw new RuntimeException("File and visitor must not be null");
+        }
+        try (RandomAccessFile access = new RandomAccessFile(file, "r");
+             FileChannel channel = access.getChannel()) {
+            long size = channel.size();
+            int[] batch = new int[BATCH_SIZE];
+            long[] offsets = new long[BATCH_SIZE];
+            int overlap = pattern.length - 1;
+            for (long base = 0; base + pattern.length <= size && !visitor.stop; base += WINDOW_SIZE) {
+                int mapped = (int) Math.min(size - base, (long) WINDOW_SIZE + overlap);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, mapped);
+                // 只多映射overlap个字节，起点在下一个窗口中的匹配自然留给下一个窗口
+                int from = 0;
+                while (!visitor.stop) {
+                    int count = find(buffer, from, mapped, batch);
+                    if (count == 0) {
+                        break;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        offsets[i] = base + batch[i];
+                    }
+                    visitor.stop = visitor.operate(offsets, count);
+                    if (count < batch.length) {
+                        break;
+                    }
+                    from = batch[count - 1] + 1;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param view
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 首尾字节已经相同，比较中间部分，能读8个字节时按long比较。
+     * @Date: 2021/3/19
+     * @Return: boolean
+     */
+    private boolean matches(ByteBuffer view, int index) {
+        int i = 1;
+        int end = pattern.length - 1;
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            if (view.getLong(index + i) != patternView.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < end; i++) {
+            if (view.get(index + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 值为0的字节最高位置1，其它位都为0。先加0x7F使非零的低7位向最高位进位，再并上原来的最高位，取反后只剩全零的字节。
+     * @Date: 2021/3/19
+     * @Return: long
+     */
+    private static long zeroBytes(long value) {
+        return ~(((value & LOW_BITS) + LOW_BITS) | value | LOW_BITS);
+    }
+}
@@ -0,0 +1,254 @@
+package cn.machine.geek.algorithm.search;
+
+import java.util.Arrays;
+
+/**
+ * @Author: MachineGeek
+ * @Description: Two-Way搜索（Crochemore-Perrin）
+ * 预处理时求出模式串的临界分解x = u v，搜索时先从左到右比较v，失配时按已比较的长度跳跃；v匹配后再从右到左比较u，
+ * u也匹配就找到了，否则按周期跳跃。模式串以周期为循环时记住已经匹配的前缀，不重复比较，最坏O(N)。
+ * 和Horspool一样先看窗口最后一个字符，它不是模式串最后一个字符时直接按跳跃表移动，随机文本上平均也能跳过大部分字符。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/18
+ */
+public class TwoWayPattern extends SearchPattern {
+    private static final int TABLE_SIZE = 256;
+    // 临界位置，u = x[0, critical]
+    private int charCritical;
+    private int charPeriod;
+    private boolean charPeriodic;
+    private int byteCritical;
+    private int bytePeriod;
+    private boolean bytePeriodic;
+    // 窗口最后一个字符到它在模式串中最后出现位置的距离，按低8位索引，取最小值
+    private int[] charShifts = new int[TABLE_SIZE];
+    private int[] byteShifts = new int[TABLE_SIZE];
+
+    public TwoWayPattern(String pattern) {
+        super(pattern);
+        int[] values = new int[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            values[i] = chars[i];
+        }
+        int[] factorization = factorize(values);
+        charCritical = factorization[0];
+        charPeriod = factorization[1];
+        charPeriodic = factorization[2] != 0;
+        values = new int[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            values[i] = bytes[i] & 0xFF;
+        }
+        factorization = factorize(values);
+        byteCritical = factorization[0];
+        bytePeriod = factorization[1];
+        bytePeriodic = factorization[2] != 0;
+        Arrays.fill(charShifts, chars.length);
+        for (int i = 0; i < chars.length; i++) {
+            charShifts[chars[i] & 0xFF] = chars.length - 1 - i;
+        }
+        Arrays.fill(byteShifts, bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            byteShifts[bytes[i] & 0xFF] = bytes.length - 1 - i;
+        }
+    }
+
+    /**
+     * @param pattern
+     * @Author: MachineGeek
+     * @Description: 两种字符顺序下的最大后缀中较长的那个给出临界分解，返回{临界位置, 跳跃距离, 是否周期}。
+     * 前缀u在距离为周期的位置重复出现时按周期跳跃，否则可以跳过max(|u|, |v|) + 1。
+     * @Date: 2021/3/18
+     * @Return: int[]
+     */
+    private static int[] factorize(int[] pattern) {
+        int[] forward = maximalSuffix(pattern, false);
+        int[] reversed = maximalSuffix(pattern, true);
+        int critical, period;
+        if (forward[0] > reversed[0]) {
+            critical = forward[0];
+            period = forward[1];
+        } else {
+            critical = reversed[0];
+            period = reversed[1];
+        }
+        boolean periodic = true;
+        for (int i = 0; i <= critical; i++) {
+            if (pattern[i] != pattern[i + period]) {
+                periodic = false;
+                break;
+            }
+        }
+        if (!periodic) {
+            period = Math.max(critical + 1, pattern.length - critical - 1) + 1;
+        }
+        return new int[]{critical, period, periodic ? 1 : 0};
+    }
+
+    /**
+     * @param pattern
+     * @param reversed
+     * @Author: MachineGeek
+     * @Description: 字典序最大的后缀的起点减一以及这个后缀的周期，reversed为true时使用相反的字符顺序。
+     * @Date: 2021/3/18
+     * @Return: int[]
+     */
+    private static int[] maximalSuffix(int[] pattern, boolean reversed) {
+        int suffix = -1, j = 0, k = 1, period = 1;
+        while (j + k < pattern.length) {
+            int a = pattern[j + k];
+            int b = pattern[suffix + k];
+            if (reversed ? a > b : a < b) {
+                j += k;
+                k = 1;
+                period = j - suffix;
+            } else if (a == b) {
+                if (k != period) {
+                    k++;
+                } else {
+                    j += period;
+                    k = 1;
+                }
+            } else {
+                suffix = j;
+                j = suffix + 1;
+                k = period = 1;
+            }
+        }
+        return new int[]{suffix, period};
+    }
+
+    @Override
+    int search(CharSequence text, int from, Matches matches) {
+        int length = chars.length;
+        int critical = charCritical;
+        int period = charPeriod;
+        // 周期模式下已经确认匹配的前缀长度减一
+        int memory = -1;
+        for (int j = from, end = text.length() - length; j <= end; ) {
+            int shift = charShifts[text.charAt(j + length - 1) & 0xFF];
+            if (shift > 0) {
+                // 已经记住匹配的前缀时，跳跃距离小于周期的位置不可能匹配
+                if (memory >= 0 && shift < period) {
+                    shift = length - period;
+                }
+                memory = -1;
+                j += shift;
+                continue;
+            }
+            int i = charPeriodic ? Math.max(critical, memory) + 1 : critical + 1;
+            while (i < length && chars[i] == text.charAt(i + j)) {
+                i++;
+            }
+            if (i < length) {
+                j += i - critical;
+                memory = -1;
+                continue;
+            }
+            int low = charPeriodic ? memory : -1;
+            i = critical;
+            while (i > low && chars[i] == text.charAt(i + j)) {
+                i--;
+            }
+            if (i <= low) {
+                if (matches == null) {
+                    return j;
+                }
+                // 匹配之后和u失配一样按周期移动，周期模式下记住已经匹配的前缀，不从头比较
+                matches.add(j);
+            }
+            j += period;
+            if (charPeriodic) {
+                memory = length - period - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int search(char[] text, int from, int to, Matches matches) {
+        int length = chars.length;
+        int critical = charCritical;
+        int period = charPeriod;
+        int memory = -1;
+        for (int j = from, end = to - length; j <= end; ) {
+            int shift = charShifts[text[j + length - 1] & 0xFF];
+            if (shift > 0) {
+                if (memory >= 0 && shift < period) {
+                    shift = length - period;
+                }
+                memory = -1;
+                j += shift;
+                continue;
+            }
+            int i = charPeriodic ? Math.max(critical, memory) + 1 : critical + 1;
+            while (i < length && chars[i] == text[i + j]) {
+                i++;
+            }
+            if (i < length) {
+                j += i - critical;
+                memory = -1;
+                continue;
+            }
+            int low = charPeriodic ? memory : -1;
+            i = critical;
+            while (i > low && chars[i] == text[i + j]) {
+                i--;
+            }
+            if (i <= low) {
+                if (matches == null) {
+                    return j;
+                }
+                matches.add(j);
+            }
+            j += period;
+            if (charPeriodic) {
+                memory = length - period - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int search(byte[] text, int from, int to, Matches matches) {
+        int length = bytes.length;
+        int critical = byteCritical;
+        int period = bytePeriod;
+        int memory = -1;
+        for (int j = from, end = to - length; j <= end; ) {
+            int shift = byteShifts[text[j + length - 1] & 0xFF];
+            if (shift > 0) {
+                if (memory >= 0 && shift < period) {
+                    shift = length - period;
+                }
+                memory = -1;
+                j += shift;
+                continue;
+            }
+            int i = bytePeriodic ? Math.max(critical, memory) + 1 : critical + 1;
+            while (i < length && bytes[i] == text[i + j]) {
+                i++;
+            }
+            if (i < length) {
+                j += i - critical;
+                memory = -1;
+                continue;
+            }
+            int low = bytePeriodic ? memory : -1;
+            i = critical;
+            while (i > low && bytes[i] == text[i + j]) {
+                i--;
+            }
+            if (i <= low) {
+                if (matches == null) {
+                    return j;
+                }
+                matches.add(j);
+            }
+            j += period;
+            if (bytePeriodic) {
+                memory = length - period - 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,6 @@
 package cn.machine.geek.algorithm.sort;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -7,10 +8,21 @@ import java.util.List;
 /**
  * @Author: MachineGeek
  * @Description: 桶排序（数值版）
+ * Double[]版本要求元素在[0, 1)之间。
+ * 基本类型数组版本按最小值和最大值把元素均匀分到N个桶中，桶用计数数组和一个缓冲数组表示，桶内插入排序，适合分布比较均匀的数据。
+ * 包含NaN、无穷、所有元素数值相等，或者分布不均匀使某个桶超过MAX_BUCKET_SIZE个元素时退化为基数排序，避免桶内插入排序变成O(n^2)。
+ * 计数数组和缓冲数组保存在对象中重复使用，所以同一个对象不能被多个线程同时使用。
  * @Email: 794763733@qq.com
  * @Date: 2021/2/24
  */
 public class BucketSort {
+    // 桶内插入排序的元素个数上限，均匀分布时最大的桶远小于这个值
+    private static final int MAX_BUCKET_SIZE = 64;
+    private int[] counts;
+    private double[] doubleBuffer;
+    private float[] floatBuffer;
+    private RadixSort radixSort;
+
     public void sort(Double[] elements) {
         if (elements == null || elements.length < 2) {
             return;
@@ -37,4 +49,205 @@ public class BucketSort {
             }
         }
     }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序double数组
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(double[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        double max = elements[0];
+        double min = elements[0];
+        for (int i = 0; i < length; i++) {
+            double element = elements[i];
+            if (element != element) {
+                radixSort().sort(elements);
+                return;
+            }
+            if (element > max) {
+                max = element;
+            }
+            if (element < min) {
+                min = element;
+            }
+        }
+        double range = max - min;
+        if (!(range > 0) || Double.isInfinite(range)) {
+            radixSort().sort(elements);
+            return;
+        }
+        // 映射到[0, length - 1]
+        double factor = (length - 1) / range;
+        int[] counts = counts(length);
+        for (int i = 0; i < length; i++) {
+            counts[bucket(elements[i], min, factor, length)]++;
+        }
+        if (skewed(counts, length)) {
+            radixSort().sort(elements);
+            return;
+        }
+        // 转换成每个桶的起始位置
+        int offset = 0;
+        for (int i = 0; i < length; i++) {
+            int count = counts[i];
+            counts[i] = offset;
+            offset += count;
+        }
+        if (doubleBuffer == null || doubleBuffer.length < length) {
+            doubleBuffer = new double[length];
+        }
+        for (int i = 0; i < length; i++) {
+            double element = elements[i];
+            doubleBuffer[counts[bucket(element, min, factor, length)]++] = element;
+        }
+        System.arraycopy(doubleBuffer, 0, elements, 0, length);
+        // 放置完成后counts[i]是第i个桶的结束位置
+        int begin = 0;
+        for (int i = 0; i < length; i++) {
+            int end = counts[i];
+            for (int j = begin + 1; j < end; j++) {
+                double element = elements[j];
+                int k = j;
+                while (k > begin && Double.compare(element, elements[k - 1]) < 0) {
+                    elements[k] = elements[k - 1];
+                    k--;
+                }
+                elements[k] = element;
+            }
+            begin = end;
+        }
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序float数组
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(float[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        float max = elements[0];
+        float min = elements[0];
+        for (int i = 0; i < length; i++) {
+            float element = elements[i];
+            if (element != element) {
+                radixSort().sort(elements);
+                return;
+            }
+            if (element > max) {
+                max = element;
+            }
+            if (element < min) {
+                min = element;
+            }
+        }
+        // 用double计算，避免float相减溢出
+        double range = (double) max - min;
+        if (!(range > 0) || Double.isInfinite(range)) {
+            radixSort().sort(elements);
+            return;
+        }
+        double factor = (length - 1) / range;
+        int[] counts = counts(length);
+        for (int i = 0; i < length; i++) {
+            counts[bucket(elements[i], min, factor, length)]++;
+        }
+        if (skewed(counts, length)) {
+            radixSort().sort(elements);
+            return;
+        }
+        int offset = 0;
+        for (int i = 0; i < length; i++) {
+            int count = counts[i];
+            counts[i] = offset;
+            offset += count;
+        }
+        if (floatBuffer == null || floatBuffer.length < length) {
+            floatBuffer = new float[length];
+        }
+        for (int i = 0; i < length; i++) {
+            float element = elements[i];
+            floatBuffer[counts[bucket(element, min, factor, length)]++] = element;
+        }
+        System.arraycopy(floatBuffer, 0, elements, 0, length);
+        int begin = 0;
+        for (int i = 0; i < length; i++) {
+            int end = counts[i];
+            for (int j = begin + 1; j < end; j++) {
+                float element = elements[j];
+                int k = j;
+                while (k > begin && Float.compare(element, elements[k - 1]) < 0) {
+                    elements[k] = elements[k - 1];
+                    k--;
+                }
+                elements[k] = element;
+            }
+            begin = end;
+        }
+    }
+
+    /**
+     * @param element
+     * @param min
+     * @param factor
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 计算元素所在的桶
+     * @Date: 2021/3/10
+     * @Return: int
+     */
+    private int bucket(double element, double min, double factor, int length) {
+        int bucket = (int) ((element - min) * factor);
+        return bucket < length ? bucket : length - 1;
+    }
+
+    /**
+     * @param counts
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 是否有桶超过MAX_BUCKET_SIZE个元素
+     * @Date: 2021/3/10
+     * @Return: boolean
+     */
+    private boolean skewed(int[] counts, int length) {
+        for (int i = 0; i < length; i++) {
+            if (counts[i] > MAX_BUCKET_SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 获取清零后的计数数组
+     * @Date: 2021/3/10
+     * @Return: int[]
+     */
+    private int[] counts(int length) {
+        if (counts == null || counts.length < length) {
+            counts = new int[length];
+        } else {
+            Arrays.fill(counts, 0, length, 0);
+        }
+        return counts;
+    }
+
+    private RadixSort radixSort() {
+        if (radixSort == null) {
+            radixSort = new RadixSort();
+        }
+        return radixSort;
+    }
 }
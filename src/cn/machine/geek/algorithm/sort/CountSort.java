@@ -1,12 +1,21 @@
 package cn.machine.geek.algorithm.sort;
 
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
 /**
  * @Author: MachineGeek
- * @Description: 计数排序(Integer数值版)
+ * @Description: 计数排序(数值版)
+ * 适合取值范围不大的整数，计数数组和缓冲数组保存在对象中重复使用，所以同一个对象不能被多个线程同时使用。
  * @Email: 794763733@qq.com
  * @Date: 2021/2/24
  */
 public class CountSort {
+    // 取值范围超过这个大小时拒绝排序
+    private static final long MAX_RANGE = Integer.MAX_VALUE - 8;
+    private int[] counts;
+    private Object[] objectBuffer;
+
     public void sort(Integer[] elements) {
         if (elements == null || elements.length < 2) {
             return;
@@ -42,4 +51,139 @@ public class CountSort {
             elements[i] = integers[i];
         }
     }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序int数组，基本类型没有稳定性的问题，统计完直接按次数写回，不需要缓冲数组。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(int[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int max = elements[0];
+        int min = elements[0];
+        for (int i = 1; i < elements.length; i++) {
+            if (elements[i] > max) {
+                max = elements[i];
+            }
+            if (elements[i] < min) {
+                min = elements[i];
+            }
+        }
+        int[] counts = counts(min, max);
+        for (int i = 0; i < elements.length; i++) {
+            counts[elements[i] - min]++;
+        }
+        int index = 0;
+        int range = max - min;
+        for (int i = 0; i <= range; i++) {
+            for (int count = counts[i]; count > 0; count--) {
+                elements[index++] = min + i;
+            }
+        }
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序long数组，取值范围必须能放进计数数组。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(long[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        long max = elements[0];
+        long min = elements[0];
+        for (int i = 1; i < elements.length; i++) {
+            if (elements[i] > max) {
+                max = elements[i];
+            }
+            if (elements[i] < min) {
+                min = elements[i];
+            }
+        }
+        int[] counts = counts(min, max);
+        for (int i = 0; i < elements.length; i++) {
+            counts[(int) (elements[i] - min)]++;
+        }
+        int index = 0;
+        int range = (int) (max - min);
+        for (int i = 0; i <= range; i++) {
+            for (int count = counts[i]; count > 0; count--) {
+                elements[index++] = min + i;
+            }
+        }
+    }
+
+    /**
+     * @param elements
+     * @param extractor
+     * @Author: MachineGeek
+     * @Description: 按int类型的KEY排序对象，排序是稳定的。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public <E> void sortByInt(E[] elements, ToIntFunction<? super E> extractor) {
+        if (elements == null || extractor == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        int max = extractor.applyAsInt(elements[0]);
+        int min = max;
+        for (int i = 1; i < length; i++) {
+            int key = extractor.applyAsInt(elements[i]);
+            if (key > max) {
+                max = key;
+            }
+            if (key < min) {
+                min = key;
+            }
+        }
+        int[] counts = counts(min, max);
+        for (int i = 0; i < length; i++) {
+            counts[extractor.applyAsInt(elements[i]) - min]++;
+        }
+        // 转换成每个KEY的起始位置，从前往后放置保证稳定
+        int offset = 0;
+        int range = max - min;
+        for (int i = 0; i <= range; i++) {
+            int count = counts[i];
+            counts[i] = offset;
+            offset += count;
+        }
+        if (objectBuffer == null || objectBuffer.length < length) {
+            objectBuffer = new Object[length];
+        }
+        for (int i = 0; i < length; i++) {
+            objectBuffer[counts[extractor.applyAsInt(elements[i]) - min]++] = elements[i];
+        }
+        System.arraycopy(objectBuffer, 0, elements, 0, length);
+        Arrays.fill(objectBuffer, 0, length, null);
+    }
+
+    /**
+     * @param min
+     * @param max
+     * @Author: MachineGeek
+     * @Description: 获取清零后的计数数组，长度不够时才重新分配
+     * @Date: 2021/3/10
+     * @Return: int[]
+     */
+    private int[] counts(long min, long max) {
+        long range = max - min + 1;
+        if (range <= 0 || range > MAX_RANGE) {
+            throw new RuntimeException("Value range is too large for count sort");
+        }
+        if (counts == null || counts.length < range) {
+            counts = new int[(int) range];
+        } else {
+            Arrays.fill(counts, 0, (int) range, 0);
+        }
+        return counts;
+    }
 }
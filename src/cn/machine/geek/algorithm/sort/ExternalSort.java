@@ -0,0 +1,627 @@
+package cn.machine.geek.algorithm.sort;
+
+import cn.machine.geek.structure.heap.BinaryHeap;
+import cn.machine.geek.util.Serializer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 外部排序，用于排序放不进堆内存的数据
+ * 1.生成片段：按内存预算分批读入记录，用TimSort排序后写入临时文件，可以多个线程同时排序和写入。
+ * 2.多路归并：用BinaryHeap维护每个片段的当前记录，每次取出最小的记录写出；片段数超过fanIn时先分组归并成更大的片段。
+ * 记录文件的格式是连续的[记录长度][记录]，读写通过带缓冲的FileChannel进行。临时片段可以按块压缩，块格式为[原始长度][压缩长度][数据]。
+ * 内存预算包括读写缓冲区：归并时同时打开fanIn个读取器和一个写入器，缓冲区大小按预算和打开的个数计算，预算不够时减小fanIn；
+ * 生成片段时扣除一个读取器和parallelism个写入器的缓冲区后，剩下的预算用来缓存记录。
+ * 预算只是估算：每个缓冲区和每批记录至少MIN_BUFFER_SIZE字节，比缓冲区长的单条记录会临时扩大缓冲区，记录在堆中的大小按序列化长度加固定开销估计。
+ * 排序是稳定的。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/13
+ */
+public class ExternalSort<E> {
+    // 读写缓冲区大小的上限和下限
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+    // 估算每条记录除序列化字节以外在堆中占用的空间
+    private static final int RECORD_OVERHEAD = 64;
+    private static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    private static final int DEFAULT_FAN_IN = 64;
+    private Serializer<E> serializer;
+    private Comparator<E> comparator;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private int parallelism = 1;
+    private int fanIn = DEFAULT_FAN_IN;
+    private boolean compress;
+    private File temporaryDirectory;
+
+    public ExternalSort(Serializer<E> serializer, Comparator<E> comparator) {
+        if (serializer == null || comparator == null) {
+            throw new RuntimeException("Serializer and comparator must not be null");
+        }
+        this.serializer = serializer;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @param memoryBudget
+     * @Author: MachineGeek
+     * @Description: 排序占用内存的上限（字节），包括生成片段时缓存的记录和所有读写缓冲区
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new RuntimeException("Memory budget must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @param parallelism
+     * @Author: MachineGeek
+     * @Description: 同时生成片段的线程数，每个线程分到memoryBudget / parallelism的内存
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new RuntimeException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param fanIn
+     * @Author: MachineGeek
+     * @Description: 一次归并最多打开的片段数，内存预算放不下这么多缓冲区时实际会更少
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void setFanIn(int fanIn) {
+        if (fanIn < 2) {
+            throw new RuntimeException("Fan in must be at least 2");
+        }
+        this.fanIn = fanIn;
+    }
+
+    /**
+     * @param compress
+     * @Author: MachineGeek
+     * @Description: 是否压缩临时片段
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * @param temporaryDirectory
+     * @Author: MachineGeek
+     * @Description: 临时片段所在的目录，为null时使用系统临时目录
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void setTemporaryDirectory(File temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * @param input
+     * @param output
+     * @Author: MachineGeek
+     * @Description: 排序input中的记录写入output，两个文件都是RecordWriter写出的未压缩格式。
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    public void sort(File input, File output) {
+        if (input == null || output == null) {
+            throw new RuntimeException("Input and output must not be null");
+        }
+        List<File> temporaries = new ArrayList<>();
+        int fanIn = mergeFanIn();
+        int bufferSize = bufferSize(Math.max(fanIn, parallelism) + 1);
+        try {
+            List<File> runs = createRuns(input, temporaries, bufferSize);
+            // 分组归并，直到片段数不超过fanIn
+            while (runs.size() > fanIn) {
+                List<File> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<File> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    File run = temporaryFile(temporaries);
+                    merge(group, compress, run, compress, bufferSize);
+                    for (File file : group) {
+                        delete(file);
+                    }
+                    merged.add(run);
+                }
+                runs = merged;
+            }
+            if (runs.size() == 1 && !compress) {
+                Files.move(runs.get(0).toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, compress, output, false, bufferSize);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (File file : temporaries) {
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 实际的归并路数，保证fanIn + 1个最小的缓冲区不超过内存预算，至少为2
+     * @Date: 2021/3/13
+     * @Return: int
+     */
+    private int mergeFanIn() {
+        long streams = memoryBudget / ((long) MIN_BUFFER_SIZE * buffersPerStream());
+        return (int) Math.max(2, Math.min(fanIn, streams - 1));
+    }
+
+    /**
+     * @param streams
+     * @Author: MachineGeek
+     * @Description: 同时打开streams个读写器时每个缓冲区的大小，在[MIN_BUFFER_SIZE, BUFFER_SIZE]之间。
+     * 两个阶段使用同样的大小，压缩块的长度不会超过读取时的缓冲区。
+     * @Date: 2021/3/13
+     * @Return: int
+     */
+    private int bufferSize(int streams) {
+        long size = memoryBudget / ((long) streams * buffersPerStream());
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(BUFFER_SIZE, size));
+    }
+
+    // 压缩时每个读写器除了缓冲区还有一个同样大小的压缩数组
+    private int buffersPerStream() {
+        return compress ? 2 : 1;
+    }
+
+    /**
+     * @param input
+     * @param temporaries
+     * @param bufferSize
+     * @Author: MachineGeek
+     * @Description: 生成有序片段。主线程读入记录，排序和写出交给线程池，信号量限制同时在内存中的批次数。
+     * 输入的读取器和每个线程的写入器的缓冲区先从预算中扣除。
+     * @Date: 2021/3/13
+     * @Return: java.util.List<java.io.File>
+     */
+    @SuppressWarnings("unchecked")
+    private List<File> createRuns(File input, List<File> temporaries, final int bufferSize) throws IOException {
+        long buffers = (long) (parallelism + 1) * bufferSize * buffersPerStream();
+        long batchBudget = Math.max(MIN_BUFFER_SIZE, (memoryBudget - buffers) / parallelism);
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        final Semaphore semaphore = new Semaphore(parallelism);
+        List<Future<File>> futures = new ArrayList<>();
+        List<File> runs = new ArrayList<>();
+        try (RecordReader<E> reader = new RecordReader<>(input, serializer, false, bufferSize)) {
+            while (true) {
+                semaphore.acquireUninterruptibly();
+                Object[] batch = new Object[1024];
+                int count = 0;
+                long bytes = 0;
+                E record;
+                while (bytes < batchBudget && (record = reader.read()) != null) {
+                    if (count == batch.length) {
+                        batch = Arrays.copyOf(batch, count + (count >> 1));
+                    }
+                    batch[count++] = record;
+                    bytes += reader.recordLength() + RECORD_OVERHEAD;
+                }
+                if (count == 0) {
+                    semaphore.release();
+                    break;
+                }
+                final E[] elements = (E[]) Arrays.copyOf(batch, count);
+                final File run = temporaryFile(temporaries);
+                if (executor == null) {
+                    writeRun(elements, run, bufferSize);
+                    semaphore.release();
+                    runs.add(run);
+                    continue;
+                }
+                futures.add(executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws IOException {
+                        try {
+                            writeRun(elements, run, bufferSize);
+                            return run;
+                        } finally {
+                            semaphore.release();
+                        }
+                    }
+                }));
+            }
+            for (Future<File> future : futures) {
+                runs.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * @param elements
+     * @param run
+     * @param bufferSize
+     * @Author: MachineGeek
+     * @Description: 排序一批记录并写入片段文件
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    private void writeRun(E[] elements, File run, int bufferSize) throws IOException {
+        new TimSort<E>().sort(elements, comparator);
+        try (RecordWriter<E> writer = new RecordWriter<>(run, serializer, compress, bufferSize)) {
+            for (E element : elements) {
+                writer.write(element);
+            }
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 归并时每个片段的读取位置，index用来在记录相等时保持片段的先后顺序
+     * @Date: 2021/3/13
+     * @Return:
+     */
+    private static class Cursor<E> {
+        private RecordReader<E> reader;
+        private E current;
+        private int index;
+    }
+
+    /**
+     * @param runs
+     * @param compressed
+     * @param output
+     * @param compressOutput
+     * @param bufferSize
+     * @Author: MachineGeek
+     * @Description: 多路归并。BinaryHeap是最大堆，比较器取反后堆顶是当前最小的记录。
+     * @Date: 2021/3/13
+     * @Return: void
+     */
+    private void merge(List<File> runs, boolean compressed, File output, boolean compressOutput, int bufferSize) throws IOException {
+        BinaryHeap<Cursor<E>> heap = new BinaryHeap<>(new Comparator<Cursor<E>>() {
+            @Override
+            public int compare(Cursor<E> o1, Cursor<E> o2) {
+                int result = comparator.compare(o2.current, o1.current);
+                return result != 0 ? result : o2.index - o1.index;
+            }
+        });
+        List<RecordReader<E>> readers = new ArrayList<>();
+        try (RecordWriter<E> writer = new RecordWriter<>(output, serializer, compressOutput, bufferSize)) {
+            for (int i = 0; i < runs.size(); i++) {
+                RecordReader<E> reader = new RecordReader<>(runs.get(i), serializer, compressed, bufferSize);
+                readers.add(reader);
+                E first = reader.read();
+                if (first != null) {
+                    Cursor<E> cursor = new Cursor<>();
+                    cursor.reader = reader;
+                    cursor.current = first;
+                    cursor.index = i;
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                Cursor<E> top = heap.get();
+                writer.write(top.current);
+                E next = top.reader.read();
+                if (next == null) {
+                    heap.remove();
+                } else {
+                    // 堆顶对象不变，只是值变大了，重新下滤
+                    top.current = next;
+                    heap.replace(top);
+                }
+            }
+        } finally {
+            for (RecordReader<E> reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private File temporaryFile(List<File> temporaries) throws IOException {
+        File file = File.createTempFile("run", ".sort", temporaryDirectory);
+        temporaries.add(file);
+        return file;
+    }
+
+    private void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 记录写入器，记录格式为[长度][序列化字节]，compress为true时按块压缩。
+     * @Date: 2021/3/13
+     * @Return:
+     */
+    public static class RecordWriter<E> implements Closeable {
+        private FileChannel channel;
+        private Serializer<E> serializer;
+        private ByteBuffer buffer;
+        private Deflater deflater;
+        private byte[] compressed;
+
+        public RecordWriter(File file, Serializer<E> serializer, boolean compress) throws IOException {
+            this(file, serializer, compress, BUFFER_SIZE);
+        }
+
+        public RecordWriter(File file, Serializer<E> serializer, boolean compress, int bufferSize) throws IOException {
+            if (bufferSize <= 0) {
+                throw new RuntimeException("Buffer size must be positive");
+            }
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.serializer = serializer;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            if (compress) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                compressed = new byte[bufferSize];
+            }
+        }
+
+        public void write(E element) throws IOException {
+            byte[] bytes = serializer.serialize(element);
+            int length = Integer.BYTES + bytes.length;
+            // 压缩时记录不跨块，块满了先写出
+            if (buffer.remaining() < length) {
+                flushBlock();
+                if (buffer.capacity() < length) {
+                    buffer = ByteBuffer.allocate(length);
+                }
+            }
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void flushBlock() throws IOException {
+            buffer.flip();
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                return;
+            }
+            if (deflater == null) {
+                writeFully(buffer);
+            } else {
+                int rawLength = buffer.remaining();
+                deflater.reset();
+                deflater.setInput(buffer.array(), 0, rawLength);
+                deflater.finish();
+                int length = 2 * Integer.BYTES;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length << 1);
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                ByteBuffer block = ByteBuffer.wrap(compressed, 0, length);
+                block.putInt(0, rawLength);
+                block.putInt(Integer.BYTES, length - 2 * Integer.BYTES);
+                writeFully(block);
+            }
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            try {
+                flushBlock();
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 记录读取器，读到文件末尾时read返回null。
+     * @Date: 2021/3/13
+     * @Return:
+     */
+    public static class RecordReader<E> implements Closeable {
+        private FileChannel channel;
+        private Serializer<E> serializer;
+        private ByteBuffer buffer;
+        private Inflater inflater;
+        private ByteBuffer header;
+        private byte[] compressed;
+        private int recordLength;
+
+        public RecordReader(File file, Serializer<E> serializer, boolean compressed) throws IOException {
+            this(file, serializer, compressed, BUFFER_SIZE);
+        }
+
+        public RecordReader(File file, Serializer<E> serializer, boolean compressed, int bufferSize) throws IOException {
+            if (bufferSize <= 0) {
+                throw new RuntimeException("Buffer size must be positive");
+            }
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.serializer = serializer;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            // 初始为空
+            buffer.flip();
+            if (compressed) {
+                inflater = new Inflater();
+                header = ByteBuffer.allocate(2 * Integer.BYTES);
+                this.compressed = new byte[bufferSize];
+            }
+        }
+
+        public E read() throws IOException {
+            if (!ensure(Integer.BYTES)) {
+                if (buffer.hasRemaining()) {
+                    throw new RuntimeException("Truncated record file");
+                }
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length < 0 || !ensure(length)) {
+                throw new RuntimeException("Truncated record file");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            recordLength = length;
+            return serializer.deserialize(bytes);
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 最后一条记录序列化后的长度
+         * @Date: 2021/3/13
+         * @Return: int
+         */
+        int recordLength() {
+            return recordLength;
+        }
+
+        /**
+         * @param length
+         * @Author: MachineGeek
+         * @Description: 保证缓冲区中至少有length个字节可读，到达文件末尾时返回false
+         * @Date: 2021/3/13
+         * @Return: boolean
+         */
+        private boolean ensure(int length) throws IOException {
+            if (buffer.remaining() >= length) {
+                return true;
+            }
+            if (inflater != null) {
+                // 记录不跨块，当前块读完才读下一块
+                return !buffer.hasRemaining() && readBlock() && buffer.remaining() >= length;
+            }
+            buffer.compact();
+            if (buffer.capacity() < length) {
+                buffer.flip();
+                buffer = ByteBuffer.allocate(length).put(buffer);
+            }
+            while (buffer.position() < length) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= length;
+        }
+
+        private boolean readBlock() throws IOException {
+            header.clear();
+            if (!readFully(header)) {
+                return false;
+            }
+            int rawLength = header.getInt(0);
+            int compressedLength = header.getInt(Integer.BYTES);
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            if (!readFully(ByteBuffer.wrap(compressed, 0, compressedLength))) {
+                throw new RuntimeException("Truncated record file");
+            }
+            if (buffer.capacity() < rawLength) {
+                buffer = ByteBuffer.allocate(rawLength);
+            }
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                int length = 0;
+                while (length < rawLength) {
+                    int inflated = inflater.inflate(buffer.array(), length, rawLength - length);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new RuntimeException("Corrupted record block");
+                    }
+                    length += inflated;
+                }
+            } catch (DataFormatException e) {
+                throw new RuntimeException(e);
+            }
+            buffer.clear();
+            buffer.limit(rawLength);
+            return true;
+        }
+
+        /**
+         * @param target
+         * @Author: MachineGeek
+         * @Description: 读满target，一个字节都没有读到就到达文件末尾时返回false
+         * @Date: 2021/3/13
+         * @Return: boolean
+         */
+        private boolean readFully(ByteBuffer target) throws IOException {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) {
+                    if (target.position() == 0) {
+                        return false;
+                    }
+                    throw new RuntimeException("Truncated record file");
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel == null) {
+                return;
+            }
+            if (inflater != null) {
+                inflater.end();
+            }
+            channel.close();
+            channel = null;
+        }
+    }
+}
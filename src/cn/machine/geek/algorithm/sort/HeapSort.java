@@ -10,67 +10,88 @@ import java.util.Comparator;
  */
 public class HeapSort<E> {
     public void sort(E[] elements, Comparator<E> comparator) {
-        if (elements == null || comparator == null || elements.length < 2) {
+        if (elements == null) {
+            return;
+        }
+        sort(elements, 0, elements.length, comparator);
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 排序elements[left, right)，堆的下标相对于left计算。
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    public void sort(E[] elements, int left, int right, Comparator<E> comparator) {
+        if (elements == null || comparator == null || right - left < 2) {
             return;
         }
         // 批量建堆
-        heapify(elements, comparator);
+        heapify(elements, left, right - left, comparator);
         // 堆的长度
-        int heapLength = elements.length;
+        int heapLength = right - left;
         while (heapLength > 1) {
             // 把堆顶交换到最后
-            E temp = elements[--heapLength];
-            elements[heapLength] = elements[0];
-            elements[0] = temp;
+            E temp = elements[left + --heapLength];
+            elements[left + heapLength] = elements[left];
+            elements[left] = temp;
             // 下滤
-            siftDown(elements, heapLength, comparator, 0);
+            siftDown(elements, left, heapLength, comparator, 0);
         }
     }
 
     /**
      * @param elements
+     * @param left
+     * @param size
      * @param comparator
      * @Author: MachineGeek
      * @Description: 批量建堆
      * @Date: 2021/2/23
      * @Return: void
      */
-    private void heapify(E[] elements, Comparator<E> comparator) {
-        for (int i = (elements.length >> 1) - 1; i >= 0; i--) {
-            siftDown(elements, elements.length, comparator, i);
+    private void heapify(E[] elements, int left, int size, Comparator<E> comparator) {
+        for (int i = (size >> 1) - 1; i >= 0; i--) {
+            siftDown(elements, left, size, comparator, i);
         }
     }
 
     /**
      * @param elements
+     * @param left
+     * @param size
      * @param comparator
      * @param index
      * @Author: MachineGeek
-     * @Description: 下滤
+     * @Description: 下滤，index是相对于left的下标
      * @Date: 2021/2/23
      * @Return: void
      */
-    private void siftDown(E[] elements, int size, Comparator<E> comparator, int index) {
-        E temp = elements[index];
+    private void siftDown(E[] elements, int left, int size, Comparator<E> comparator, int index) {
+        E temp = elements[left + index];
         // 如果index小于floor(size/2)，则说明存在子节点。
         int half = size >> 1;
         while (index < half) {
             // 左子节点
             int childIndex = (index << 1) + 1;
             // 如果右子节点存在，并且比左子节点大，则取右子节点。
-            if (childIndex + 1 < size && comparator.compare(elements[childIndex], elements[childIndex + 1]) < 0) {
+            if (childIndex + 1 < size && comparator.compare(elements[left + childIndex], elements[left + childIndex + 1]) < 0) {
                 childIndex = childIndex + 1;
             }
             // 如果index大于子节点则退出循环
-            if (comparator.compare(temp, elements[childIndex]) >= 0) {
+            if (comparator.compare(temp, elements[left + childIndex]) >= 0) {
                 break;
             }
             // 叶子节点覆盖当前节点
-            elements[index] = elements[childIndex];
+            elements[left + index] = elements[left + childIndex];
             // 进入子节点循环
             index = childIndex;
         }
         // 找到最后的索引放入值
-        elements[index] = temp;
+        elements[left + index] = temp;
     }
 }
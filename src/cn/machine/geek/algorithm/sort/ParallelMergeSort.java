@@ -0,0 +1,277 @@
+package cn.machine.geek.algorithm.sort;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并行归并排序，基于ForkJoinPool。
+ * 两半并行排序后再并行合并，原数组和缓冲数组交替作为合并的目标，整个排序只分配一个缓冲数组。
+ * 排序是稳定的。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/9
+ */
+public class ParallelMergeSort<E> {
+    // 小于这个长度时顺序排序
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    // 小于这个长度时顺序合并
+    private static final int MERGE_THRESHOLD = 1 << 13;
+    // 小于这个长度时插入排序
+    private static final int INSERTION_THRESHOLD = 32;
+    private ForkJoinPool pool;
+
+    public ParallelMergeSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelMergeSort(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new RuntimeException("Pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void sort(E[] elements, Comparator<E> comparator) {
+        if (elements == null || comparator == null || elements.length < 2) {
+            return;
+        }
+        E[] buffer = (E[]) new Object[elements.length];
+        // 每个任务至少处理SEQUENTIAL_THRESHOLD个元素，任务数量大约是并行度的4倍
+        int granularity = Math.max(elements.length / (pool.getParallelism() << 2), SEQUENTIAL_THRESHOLD);
+        pool.invoke(new SortTask(elements, buffer, 0, elements.length, false, granularity, comparator));
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 排序任务，把elements[left, right)排好序，toBuffer为true时结果放在buffer中，否则放在elements中。
+     * @Date: 2021/3/9
+     * @Return:
+     */
+    private class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private E[] elements;
+        private E[] buffer;
+        private int left;
+        private int right;
+        private boolean toBuffer;
+        private int granularity;
+        private Comparator<E> comparator;
+
+        SortTask(E[] elements, E[] buffer, int left, int right, boolean toBuffer, int granularity, Comparator<E> comparator) {
+            this.elements = elements;
+            this.buffer = buffer;
+            this.left = left;
+            this.right = right;
+            this.toBuffer = toBuffer;
+            this.granularity = granularity;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (right - left <= granularity) {
+                divide(elements, buffer, left, right, comparator);
+                if (toBuffer) {
+                    System.arraycopy(elements, left, buffer, left, right - left);
+                }
+                return;
+            }
+            int mid = (left + right) >>> 1;
+            // 两半的结果放到另一个数组中，再合并回目标数组
+            invokeAll(new SortTask(elements, buffer, left, mid, !toBuffer, granularity, comparator),
+                    new SortTask(elements, buffer, mid, right, !toBuffer, granularity, comparator));
+            E[] source = toBuffer ? elements : buffer;
+            E[] target = toBuffer ? buffer : elements;
+            new MergeTask(source, target, left, mid, mid, right, left, comparator).compute();
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 合并任务，把source[leftBegin, leftEnd)和source[rightBegin, rightEnd)合并到target[index, ...)中。
+     * 较长的一边取中间元素，在另一边二分查找切分点，切成两个互不相关的合并任务并行执行。
+     * @Date: 2021/3/9
+     * @Return:
+     */
+    private class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private E[] source;
+        private E[] target;
+        private int leftBegin;
+        private int leftEnd;
+        private int rightBegin;
+        private int rightEnd;
+        private int index;
+        private Comparator<E> comparator;
+
+        MergeTask(E[] source, E[] target, int leftBegin, int leftEnd, int rightBegin, int rightEnd, int index, Comparator<E> comparator) {
+            this.source = source;
+            this.target = target;
+            this.leftBegin = leftBegin;
+            this.leftEnd = leftEnd;
+            this.rightBegin = rightBegin;
+            this.rightEnd = rightEnd;
+            this.index = index;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLength = leftEnd - leftBegin;
+            int rightLength = rightEnd - rightBegin;
+            if (leftLength + rightLength <= MERGE_THRESHOLD) {
+                merge(source, leftBegin, leftEnd, source, rightBegin, rightEnd, target, index, comparator);
+                return;
+            }
+            int leftMid;
+            int rightMid;
+            if (leftLength >= rightLength) {
+                // 右边严格小于切分元素的部分放在前面，相等的元素左边在前，保证稳定。
+                leftMid = (leftBegin + leftEnd) >>> 1;
+                rightMid = lowerBound(source, rightBegin, rightEnd, source[leftMid], comparator);
+            } else {
+                // 左边小于等于切分元素的部分放在前面
+                rightMid = (rightBegin + rightEnd) >>> 1;
+                leftMid = upperBound(source, leftBegin, leftEnd, source[rightMid], comparator);
+            }
+            int midIndex = index + (leftMid - leftBegin) + (rightMid - rightBegin);
+            invokeAll(new MergeTask(source, target, leftBegin, leftMid, rightBegin, rightMid, index, comparator),
+                    new MergeTask(source, target, leftMid, leftEnd, rightMid, rightEnd, midIndex, comparator));
+        }
+    }
+
+    /**
+     * @param elements
+     * @param buffer
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 顺序归并排序elements[left, right)，借用buffer相同区间作为合并时的备份空间。
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void divide(E[] elements, E[] buffer, int left, int right, Comparator<E> comparator) {
+        if (right - left <= INSERTION_THRESHOLD) {
+            insertionSort(elements, left, right, comparator);
+            return;
+        }
+        int mid = (left + right) >>> 1;
+        divide(elements, buffer, left, mid, comparator);
+        divide(elements, buffer, mid, right, comparator);
+        // 两边已经整体有序就不需要合并
+        if (comparator.compare(elements[mid - 1], elements[mid]) <= 0) {
+            return;
+        }
+        // 备份左边，再合并回原数组
+        System.arraycopy(elements, left, buffer, left, mid - left);
+        merge(buffer, left, mid, elements, mid, right, elements, left, comparator);
+    }
+
+    /**
+     * @param leftSource
+     * @param leftBegin
+     * @param leftEnd
+     * @param rightSource
+     * @param rightBegin
+     * @param rightEnd
+     * @param target
+     * @param index
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 顺序合并两个有序区间到target[index, ...)中，左右相等时取左边，保证稳定。
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void merge(E[] leftSource, int leftBegin, int leftEnd, E[] rightSource, int rightBegin, int rightEnd,
+                       E[] target, int index, Comparator<E> comparator) {
+        while (leftBegin < leftEnd && rightBegin < rightEnd) {
+            if (comparator.compare(rightSource[rightBegin], leftSource[leftBegin]) < 0) {
+                target[index++] = rightSource[rightBegin++];
+            } else {
+                target[index++] = leftSource[leftBegin++];
+            }
+        }
+        while (leftBegin < leftEnd) {
+            target[index++] = leftSource[leftBegin++];
+        }
+        // 右边区间和目标区间重合时剩余元素已经在正确的位置上
+        if (rightSource != target) {
+            while (rightBegin < rightEnd) {
+                target[index++] = rightSource[rightBegin++];
+            }
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 插入排序
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void insertionSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        for (int i = left + 1; i < right; i++) {
+            E element = elements[i];
+            int j = i;
+            while (j > left && comparator.compare(element, elements[j - 1]) < 0) {
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            elements[j] = element;
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param element
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 第一个不小于element的下标
+     * @Date: 2021/3/9
+     * @Return: int
+     */
+    private int lowerBound(E[] elements, int left, int right, E element, Comparator<E> comparator) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (comparator.compare(elements[mid], element) < 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param element
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 第一个大于element的下标
+     * @Date: 2021/3/9
+     * @Return: int
+     */
+    private int upperBound(E[] elements, int left, int right, E element, Comparator<E> comparator) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (comparator.compare(elements[mid], element) <= 0) {
+                left = mid + 1;
+            } else {
+                right = mid;
+            }
+        }
+        return left;
+    }
+}
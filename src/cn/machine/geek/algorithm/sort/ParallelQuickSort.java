@@ -0,0 +1,352 @@
+package cn.machine.geek.algorithm.sort;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并行快速排序，基于ForkJoinPool。
+ * 使用三路切分（小于、等于、大于轴点），切分后两边并行排序。
+ * 区间很大时切分本身也是并行的：先分块统计各块小于和等于轴点的元素个数，求出每块的写入位置后并行写入缓冲数组，再并行拷贝回原数组。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/9
+ */
+public class ParallelQuickSort<E> {
+    // 小于这个长度时顺序排序
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    // 大于等于这个长度时并行切分
+    private static final int PARALLEL_PARTITION_THRESHOLD = 1 << 16;
+    // 并行切分时每块的最小长度
+    private static final int BLOCK_THRESHOLD = 1 << 14;
+    // 小于这个长度时插入排序
+    private static final int INSERTION_THRESHOLD = 32;
+    private ForkJoinPool pool;
+
+    public ParallelQuickSort() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelQuickSort(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new RuntimeException("Pool must not be null");
+        }
+        this.pool = pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void sort(E[] elements, Comparator<E> comparator) {
+        if (elements == null || comparator == null || elements.length < 2) {
+            return;
+        }
+        int parallelism = pool.getParallelism();
+        // 只有并行切分需要缓冲数组
+        E[] buffer = elements.length >= PARALLEL_PARTITION_THRESHOLD && parallelism > 1 ? (E[]) new Object[elements.length] : null;
+        int granularity = Math.max(elements.length / (parallelism << 2), SEQUENTIAL_THRESHOLD);
+        pool.invoke(new SortTask(elements, buffer, 0, elements.length, granularity, comparator));
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 排序任务，把elements[left, right)排好序。
+     * @Date: 2021/3/9
+     * @Return:
+     */
+    private class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private E[] elements;
+        private E[] buffer;
+        private int left;
+        private int right;
+        private int granularity;
+        private Comparator<E> comparator;
+
+        SortTask(E[] elements, E[] buffer, int left, int right, int granularity, Comparator<E> comparator) {
+            this.elements = elements;
+            this.buffer = buffer;
+            this.left = left;
+            this.right = right;
+            this.granularity = granularity;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (right - left <= granularity) {
+                quickSort(elements, left, right, comparator);
+                return;
+            }
+            E pivot = pivot(elements, left, right, comparator);
+            long bounds;
+            if (buffer != null && right - left >= PARALLEL_PARTITION_THRESHOLD) {
+                bounds = parallelPartition(elements, buffer, left, right, pivot, comparator);
+            } else {
+                bounds = partition(elements, left, right, pivot, comparator);
+            }
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterBegin = (int) bounds;
+            // 等于轴点的部分已经在最终位置上
+            invokeAll(new SortTask(elements, buffer, left, lessEnd, granularity, comparator),
+                    new SortTask(elements, buffer, greaterBegin, right, granularity, comparator));
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 并行切分的共享状态
+     * @Date: 2021/3/9
+     * @Return:
+     */
+    private class Partition {
+        private E[] elements;
+        private E[] buffer;
+        private int left;
+        private int right;
+        private int blockSize;
+        private E pivot;
+        private Comparator<E> comparator;
+        // 每块小于、等于轴点的元素个数
+        private int[] lessCounts;
+        private int[] equalCounts;
+        // 每块三部分在缓冲数组中的写入位置
+        private int[] lessOffsets;
+        private int[] equalOffsets;
+        private int[] greaterOffsets;
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 并行切分中单个块的任务，phase为0时统计，为1时写入缓冲数组，为2时拷贝回原数组。
+     * @Date: 2021/3/9
+     * @Return:
+     */
+    private class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private Partition partition;
+        private int block;
+        private int phase;
+
+        BlockTask(Partition partition, int block, int phase) {
+            this.partition = partition;
+            this.block = block;
+            this.phase = phase;
+        }
+
+        @Override
+        protected void compute() {
+            Partition p = partition;
+            int begin = p.left + block * p.blockSize;
+            int end = Math.min(begin + p.blockSize, p.right);
+            if (phase == 0) {
+                int less = 0;
+                int equal = 0;
+                for (int i = begin; i < end; i++) {
+                    int result = p.comparator.compare(p.elements[i], p.pivot);
+                    if (result < 0) {
+                        less++;
+                    } else if (result == 0) {
+                        equal++;
+                    }
+                }
+                p.lessCounts[block] = less;
+                p.equalCounts[block] = equal;
+            } else if (phase == 1) {
+                int less = p.lessOffsets[block];
+                int equal = p.equalOffsets[block];
+                int greater = p.greaterOffsets[block];
+                for (int i = begin; i < end; i++) {
+                    E element = p.elements[i];
+                    int result = p.comparator.compare(element, p.pivot);
+                    if (result < 0) {
+                        p.buffer[less++] = element;
+                    } else if (result == 0) {
+                        p.buffer[equal++] = element;
+                    } else {
+                        p.buffer[greater++] = element;
+                    }
+                }
+            } else if (end > begin) {
+                System.arraycopy(p.buffer, begin, p.elements, begin, end - begin);
+            }
+        }
+    }
+
+    /**
+     * @param elements
+     * @param buffer
+     * @param left
+     * @param right
+     * @param pivot
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 并行三路切分，返回值高32位是小于部分的结束下标，低32位是大于部分的开始下标。
+     * @Date: 2021/3/9
+     * @Return: long
+     */
+    private long parallelPartition(E[] elements, E[] buffer, int left, int right, E pivot, Comparator<E> comparator) {
+        int length = right - left;
+        int blocks = Math.max(2, Math.min(pool.getParallelism() << 2, length / BLOCK_THRESHOLD));
+        Partition p = new Partition();
+        p.elements = elements;
+        p.buffer = buffer;
+        p.left = left;
+        p.right = right;
+        p.blockSize = (length + blocks - 1) / blocks;
+        p.pivot = pivot;
+        p.comparator = comparator;
+        p.lessCounts = new int[blocks];
+        p.equalCounts = new int[blocks];
+        p.lessOffsets = new int[blocks];
+        p.equalOffsets = new int[blocks];
+        p.greaterOffsets = new int[blocks];
+        runBlocks(p, blocks, 0);
+        // 前缀和求出每块的写入位置
+        int totalLess = 0;
+        int totalEqual = 0;
+        for (int i = 0; i < blocks; i++) {
+            totalLess += p.lessCounts[i];
+            totalEqual += p.equalCounts[i];
+        }
+        int less = left;
+        int equal = left + totalLess;
+        int greater = equal + totalEqual;
+        for (int i = 0; i < blocks; i++) {
+            int begin = left + i * p.blockSize;
+            int blockLength = Math.max(0, Math.min(begin + p.blockSize, right) - begin);
+            p.lessOffsets[i] = less;
+            p.equalOffsets[i] = equal;
+            p.greaterOffsets[i] = greater;
+            less += p.lessCounts[i];
+            equal += p.equalCounts[i];
+            greater += blockLength - p.lessCounts[i] - p.equalCounts[i];
+        }
+        runBlocks(p, blocks, 1);
+        runBlocks(p, blocks, 2);
+        return ((long) (left + totalLess) << 32) | (left + totalLess + totalEqual);
+    }
+
+    /**
+     * @param partition
+     * @param blocks
+     * @param phase
+     * @Author: MachineGeek
+     * @Description: 并行执行所有块的某个阶段
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void runBlocks(Partition partition, int blocks, int phase) {
+        RecursiveAction[] tasks = new RecursiveAction[blocks];
+        for (int i = 0; i < blocks; i++) {
+            tasks[i] = new BlockTask(partition, i, phase);
+        }
+        RecursiveAction.invokeAll(tasks);
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 顺序快速排序，递归较短的一边，循环处理较长的一边，栈深度不超过logN。
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void quickSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        while (right - left > INSERTION_THRESHOLD) {
+            long bounds = partition(elements, left, right, pivot(elements, left, right, comparator), comparator);
+            int lessEnd = (int) (bounds >>> 32);
+            int greaterBegin = (int) bounds;
+            if (lessEnd - left < right - greaterBegin) {
+                quickSort(elements, left, lessEnd, comparator);
+                left = greaterBegin;
+            } else {
+                quickSort(elements, greaterBegin, right, comparator);
+                right = lessEnd;
+            }
+        }
+        insertionSort(elements, left, right, comparator);
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param pivot
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 顺序三路切分，返回值高32位是小于部分的结束下标，低32位是大于部分的开始下标。
+     * @Date: 2021/3/9
+     * @Return: long
+     */
+    private long partition(E[] elements, int left, int right, E pivot, Comparator<E> comparator) {
+        int less = left;
+        int index = left;
+        int greater = right;
+        while (index < greater) {
+            E element = elements[index];
+            int result = comparator.compare(element, pivot);
+            if (result < 0) {
+                elements[index++] = elements[less];
+                elements[less++] = element;
+            } else if (result > 0) {
+                elements[index] = elements[--greater];
+                elements[greater] = element;
+            } else {
+                index++;
+            }
+        }
+        return ((long) less << 32) | greater;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 随机取三个元素的中位数作为轴点
+     * @Date: 2021/3/9
+     * @Return: E
+     */
+    private E pivot(E[] elements, int left, int right, Comparator<E> comparator) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        E a = elements[random.nextInt(left, right)];
+        E b = elements[random.nextInt(left, right)];
+        E c = elements[random.nextInt(left, right)];
+        if (comparator.compare(a, b) > 0) {
+            E temp = a;
+            a = b;
+            b = temp;
+        }
+        if (comparator.compare(b, c) > 0) {
+            b = comparator.compare(a, c) > 0 ? a : c;
+        }
+        return b;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 插入排序
+     * @Date: 2021/3/9
+     * @Return: void
+     */
+    private void insertionSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        for (int i = left + 1; i < right; i++) {
+            E element = elements[i];
+            int j = i;
+            while (j > left && comparator.compare(element, elements[j - 1]) < 0) {
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            elements[j] = element;
+        }
+    }
+}
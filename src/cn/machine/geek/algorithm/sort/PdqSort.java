@@ -0,0 +1,297 @@
+package cn.machine.geek.algorithm.sort;
+
+import java.util.Comparator;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 模式消除快速排序（pattern-defeating quicksort）
+ * 1.轴点取三数中值，区间较大时取九数中值（ninther），不使用随机数。
+ * 2.如果区间前一个元素（上一次的轴点）不小于本次的轴点，说明区间里有大量和它相等的元素，把等于轴点的元素全部切到左边后直接跳过，重复元素多时接近线性。
+ * 3.小区间使用插入排序；切分时没有发生交换的区间先尝试有限次数的插入排序，已经有序的数据是线性的。
+ * 4.切分严重不平衡时打乱几个元素破坏特殊的输入模式，不平衡的次数超过logN时退化为堆排序，最坏时间复杂度为O(NlogN)。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/11
+ */
+public class PdqSort<E> {
+    // 小于这个长度时插入排序
+    private static final int INSERTION_THRESHOLD = 24;
+    // 大于这个长度时使用九数中值
+    private static final int NINTHER_THRESHOLD = 128;
+    // 尝试插入排序时最多移动的次数
+    private static final int PARTIAL_INSERTION_LIMIT = 8;
+    private HeapSort<E> heapSort = new HeapSort<>();
+
+    public void sort(E[] elements, Comparator<E> comparator) {
+        if (elements == null || comparator == null || elements.length < 2) {
+            return;
+        }
+        // 允许不平衡切分的次数
+        int badAllowed = 31 - Integer.numberOfLeadingZeros(elements.length);
+        pdqsort(elements, 0, elements.length, comparator, badAllowed, true);
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @param badAllowed
+     * @param leftmost
+     * @Author: MachineGeek
+     * @Description: 排序elements[left, right)，leftmost表示区间左边没有其它元素。递归较小的左边，循环处理右边。
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    private void pdqsort(E[] elements, int left, int right, Comparator<E> comparator, int badAllowed, boolean leftmost) {
+        while (true) {
+            int size = right - left;
+            if (size < INSERTION_THRESHOLD) {
+                if (leftmost) {
+                    insertionSort(elements, left, right, comparator);
+                } else {
+                    unguardedInsertionSort(elements, left, right, comparator);
+                }
+                return;
+            }
+            // 选出轴点放到left上
+            int half = size >> 1;
+            if (size > NINTHER_THRESHOLD) {
+                sort3(elements, left, left + half, right - 1, comparator);
+                sort3(elements, left + 1, left + half - 1, right - 2, comparator);
+                sort3(elements, left + 2, left + half + 1, right - 3, comparator);
+                sort3(elements, left + half - 1, left + half, left + half + 1, comparator);
+                swap(elements, left, left + half);
+            } else {
+                sort3(elements, left + half, left, right - 1, comparator);
+            }
+            // 前一个元素不小于轴点，说明没有比轴点小的元素，把等于轴点的元素都切到左边，只处理右边。
+            if (!leftmost && comparator.compare(elements[left - 1], elements[left]) >= 0) {
+                left = partitionLeft(elements, left, right, comparator) + 1;
+                continue;
+            }
+            long result = partitionRight(elements, left, right, comparator);
+            int pivot = (int) (result >> 1);
+            boolean alreadyPartitioned = (result & 1) != 0;
+            int leftSize = pivot - left;
+            int rightSize = right - (pivot + 1);
+            if (leftSize < (size >> 3) || rightSize < (size >> 3)) {
+                // 不平衡次数用完就交给堆排序
+                if (--badAllowed == 0) {
+                    heapSort.sort(elements, left, right, comparator);
+                    return;
+                }
+                breakPatterns(elements, left, pivot);
+                breakPatterns(elements, pivot + 1, right);
+            } else if (alreadyPartitioned
+                    && partialInsertionSort(elements, left, pivot, comparator)
+                    && partialInsertionSort(elements, pivot + 1, right, comparator)) {
+                return;
+            }
+            pdqsort(elements, left, pivot, comparator, badAllowed, leftmost);
+            left = pivot + 1;
+            leftmost = false;
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 以elements[left]为轴点切分，小于轴点的在左边，大于等于轴点的在右边。
+     * 返回值右移一位是轴点最后的位置，最低位为1表示切分时没有发生交换（区间可能已经有序）。
+     * @Date: 2021/3/11
+     * @Return: long
+     */
+    private long partitionRight(E[] elements, int left, int right, Comparator<E> comparator) {
+        E pivot = elements[left];
+        int first = left;
+        int last = right;
+        // 三数中值保证右边有不小于轴点的元素，这里不需要检查边界
+        while (comparator.compare(elements[++first], pivot) < 0) {
+        }
+        // 左边没有小于轴点的元素时右边的扫描需要检查边界
+        if (first - 1 == left) {
+            while (first < last && comparator.compare(elements[--last], pivot) >= 0) {
+            }
+        } else {
+            while (comparator.compare(elements[--last], pivot) >= 0) {
+            }
+        }
+        boolean alreadyPartitioned = first >= last;
+        while (first < last) {
+            swap(elements, first, last);
+            while (comparator.compare(elements[++first], pivot) < 0) {
+            }
+            while (comparator.compare(elements[--last], pivot) >= 0) {
+            }
+        }
+        int index = first - 1;
+        elements[left] = elements[index];
+        elements[index] = pivot;
+        return ((long) index << 1) | (alreadyPartitioned ? 1 : 0);
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 以elements[left]为轴点切分，小于等于轴点的在左边，大于轴点的在右边，返回轴点最后的位置。
+     * 只在已知没有小于轴点的元素时使用，左边的元素全部等于轴点，不需要再排序。
+     * @Date: 2021/3/11
+     * @Return: int
+     */
+    private int partitionLeft(E[] elements, int left, int right, Comparator<E> comparator) {
+        E pivot = elements[left];
+        int first = left;
+        int last = right;
+        while (comparator.compare(pivot, elements[--last]) < 0) {
+        }
+        if (last + 1 == right) {
+            while (first < last && comparator.compare(pivot, elements[++first]) >= 0) {
+            }
+        } else {
+            while (comparator.compare(pivot, elements[++first]) >= 0) {
+            }
+        }
+        while (first < last) {
+            swap(elements, first, last);
+            while (comparator.compare(pivot, elements[--last]) < 0) {
+            }
+            while (comparator.compare(pivot, elements[++first]) >= 0) {
+            }
+        }
+        elements[left] = elements[last];
+        elements[last] = pivot;
+        return last;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @Author: MachineGeek
+     * @Description: 交换几个固定位置的元素，打破导致不平衡切分的输入模式
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    private void breakPatterns(E[] elements, int left, int right) {
+        int size = right - left;
+        if (size < INSERTION_THRESHOLD) {
+            return;
+        }
+        int quarter = size >> 2;
+        swap(elements, left, left + quarter);
+        swap(elements, right - 1, right - quarter);
+        if (size > NINTHER_THRESHOLD) {
+            swap(elements, left + 1, left + quarter + 1);
+            swap(elements, left + 2, left + quarter + 2);
+            swap(elements, right - 2, right - quarter - 1);
+            swap(elements, right - 3, right - quarter - 2);
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 尝试插入排序，移动次数超过PARTIAL_INSERTION_LIMIT就放弃并返回false。
+     * @Date: 2021/3/11
+     * @Return: boolean
+     */
+    private boolean partialInsertionSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        int moves = 0;
+        for (int i = left + 1; i < right; i++) {
+            if (moves > PARTIAL_INSERTION_LIMIT) {
+                return false;
+            }
+            E element = elements[i];
+            int j = i;
+            while (j > left && comparator.compare(element, elements[j - 1]) < 0) {
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            elements[j] = element;
+            moves += i - j;
+        }
+        return true;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 插入排序
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    private void insertionSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        for (int i = left + 1; i < right; i++) {
+            E element = elements[i];
+            int j = i;
+            while (j > left && comparator.compare(element, elements[j - 1]) < 0) {
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            elements[j] = element;
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 不检查左边界的插入排序，要求elements[left - 1]不大于区间内的所有元素。
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    private void unguardedInsertionSort(E[] elements, int left, int right, Comparator<E> comparator) {
+        for (int i = left + 1; i < right; i++) {
+            E element = elements[i];
+            int j = i;
+            while (comparator.compare(element, elements[j - 1]) < 0) {
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            elements[j] = element;
+        }
+    }
+
+    /**
+     * @param elements
+     * @param a
+     * @param b
+     * @param c
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 排序三个位置上的元素，使elements[a] <= elements[b] <= elements[c]
+     * @Date: 2021/3/11
+     * @Return: void
+     */
+    private void sort3(E[] elements, int a, int b, int c, Comparator<E> comparator) {
+        if (comparator.compare(elements[b], elements[a]) < 0) {
+            swap(elements, a, b);
+        }
+        if (comparator.compare(elements[c], elements[b]) < 0) {
+            swap(elements, b, c);
+            if (comparator.compare(elements[b], elements[a]) < 0) {
+                swap(elements, a, b);
+            }
+        }
+    }
+
+    private void swap(E[] elements, int i, int j) {
+        E temp = elements[i];
+        elements[i] = elements[j];
+        elements[j] = temp;
+    }
+}
@@ -0,0 +1,72 @@
+package cn.machine.geek.algorithm.sort;
+
+import java.util.Comparator;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 快速选择
+ * 复用QuickSort的切分，每次只进入第k个元素所在的一边，平均时间复杂度为O(N)。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/14
+ */
+public class QuickSelect<E> {
+    private QuickSort<E> quickSort = new QuickSort<>();
+    private HeapSort<E> heapSort = new HeapSort<>();
+
+    /**
+     * @param elements
+     * @param k
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 重新排列数组，使elements[k]是排序后应该在第k位的元素，左边的元素都不大于它，右边的元素都不小于它（nth_element）。
+     * @Date: 2021/3/14
+     * @Return: E
+     */
+    public E select(E[] elements, int k, Comparator<E> comparator) {
+        if (elements == null || comparator == null) {
+            throw new RuntimeException("Elements and comparator must not be null");
+        }
+        if (k < 0 || k >= elements.length) {
+            throw new RuntimeException("Index out of bounds: " + k);
+        }
+        int left = 0;
+        int right = elements.length;
+        while (right - left > 1) {
+            int index = quickSort.index(elements, left, right, comparator);
+            if (index == k) {
+                break;
+            }
+            if (k < index) {
+                right = index;
+            } else {
+                left = index + 1;
+            }
+        }
+        return elements[k];
+    }
+
+    /**
+     * @param elements
+     * @param k
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 部分排序，使最小的k个元素按顺序排在数组前面，其余元素的顺序不确定。
+     * 先用快速选择把最小的k个元素换到前面，再对前k个元素堆排序，时间复杂度为O(N + klogk)。
+     * @Date: 2021/3/14
+     * @Return: void
+     */
+    public void partialSort(E[] elements, int k, Comparator<E> comparator) {
+        if (elements == null || comparator == null) {
+            throw new RuntimeException("Elements and comparator must not be null");
+        }
+        if (k <= 0) {
+            return;
+        }
+        if (k < elements.length) {
+            select(elements, k, comparator);
+        } else {
+            k = elements.length;
+        }
+        heapSort.sort(elements, 0, k, comparator);
+    }
+}
@@ -48,13 +48,15 @@ public class QuickSort<E> {
      * @Date: 2021/2/24
      * @Return: int
      */
-    private int index(E[] elements, int left, int right, Comparator<E> comparator) {
+    int index(E[] elements, int left, int right, Comparator<E> comparator) {
         // 获取一个随机数作为轴点
         int mid = (int) (left + (Math.random() * (right - left)));
         // 交换与左边第一个元素的位置
         E temp = elements[mid];
         elements[mid] = elements[left];
         elements[left] = temp;
+        // right是开区间，扫描前先指向最后一个元素
+        right--;
         // 左右指针只要不相撞就循环
         while (left < right) {
             // 从右往左扫描，小于轴点的值直接覆盖左边，同时自己也成为一个垃圾值。
@@ -1,12 +1,32 @@
 package cn.machine.geek.algorithm.sort;
 
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
 /**
  * @Author: MachineGeek
- * @Description: 基数排序（非负数值版）
+ * @Description: 基数排序
+ * Integer[]版本只支持非负数，按十进制位排序。
+ * 基本类型数组和按基本类型KEY排序对象的版本按字节做LSD排序（每趟256个桶），支持负数。
+ * 符号位取反后有符号整数就可以按无符号比较，浮点数的负数再把其余位也取反。
+ * 缓冲数组保存在对象中重复使用，所以同一个对象不能被多个线程同时使用。
  * @Email: 794763733@qq.com
  * @Date: 2021/2/24
  */
 public class RadixSort {
+    private static final int RADIX = 256;
+    private static final int MASK = RADIX - 1;
+    // 每一趟的桶计数，一次遍历统计所有趟
+    private int[] counts = new int[8 * RADIX];
+    private int[] intBuffer;
+    private long[] longBuffer;
+    private float[] floatBuffer;
+    private double[] doubleBuffer;
+    private Object[] objectBuffer;
+    private SortingNetwork sortingNetwork = new SortingNetwork();
+
     public void sort(Integer[] elements) {
         if (elements == null || elements.length < 2) {
             return;
@@ -18,12 +38,14 @@ public class RadixSort {
                 max = elements[i];
             }
         }
-        for (int i = 1; i <= max; i *= 10) {
-            countingSort(elements, i);
+        // 所有趟共用一个缓冲数组
+        Integer[] integers = new Integer[elements.length];
+        for (long i = 1; i <= max; i *= 10) {
+            countingSort(elements, integers, (int) i);
         }
     }
 
-    private void countingSort(Integer[] elements, int divider) {
+    private void countingSort(Integer[] elements, Integer[] integers, int divider) {
         int[] counts = new int[10];
         // 统计每个整数出现的个数
         for (int i = 0; i < elements.length; i++) {
@@ -34,13 +56,392 @@ public class RadixSort {
             counts[i] += counts[i - 1];
         }
         // 从后往前遍历元素，并放置合适的位置
-        Integer[] integers = new Integer[elements.length];
         for (int i = elements.length - 1; i >= 0; i--) {
             integers[--counts[elements[i] / divider % 10]] = elements[i];
         }
         // 赋值回去
-        for (int i = 0; i < elements.length; i++) {
-            elements[i] = integers[i];
+        System.arraycopy(integers, 0, elements, 0, elements.length);
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序int数组
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(int[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        // 很短的数组清零和扫描桶计数的代价比排序本身还大
+        if (length <= SortingNetwork.MAX_LENGTH) {
+            sortingNetwork.sort(elements, 0, length);
+            return;
+        }
+        Arrays.fill(counts, 0, 4 * RADIX, 0);
+        for (int i = 0; i < length; i++) {
+            int key = elements[i] ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < 4; pass++) {
+                counts[(pass << 8) + ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        if (intBuffer == null || intBuffer.length < length) {
+            intBuffer = new int[length];
+        }
+        int[] source = elements;
+        int[] target = intBuffer;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (((source[0] ^ Integer.MIN_VALUE) >>> shift) & MASK), length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                int element = source[i];
+                target[counts[base + (((element ^ Integer.MIN_VALUE) >>> shift) & MASK)]++] = element;
+            }
+            int[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序long数组
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(long[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        // 很短的数组清零和扫描桶计数的代价比排序本身还大
+        if (length <= SortingNetwork.MAX_LENGTH) {
+            sortingNetwork.sort(elements, 0, length);
+            return;
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < length; i++) {
+            long key = elements[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < 8; pass++) {
+                counts[(pass << 8) + (int) ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        if (longBuffer == null || longBuffer.length < length) {
+            longBuffer = new long[length];
+        }
+        long[] source = elements;
+        long[] target = longBuffer;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (int) (((source[0] ^ Long.MIN_VALUE) >>> shift) & MASK), length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                long element = source[i];
+                target[counts[base + (int) (((element ^ Long.MIN_VALUE) >>> shift) & MASK)]++] = element;
+            }
+            long[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序float数组，结果和Arrays.sort一致：-0.0在0.0之前，NaN在最后。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(float[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        Arrays.fill(counts, 0, 4 * RADIX, 0);
+        for (int i = 0; i < length; i++) {
+            int key = floatKey(elements[i]);
+            for (int pass = 0; pass < 4; pass++) {
+                counts[(pass << 8) + ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        if (floatBuffer == null || floatBuffer.length < length) {
+            floatBuffer = new float[length];
+        }
+        float[] source = elements;
+        float[] target = floatBuffer;
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (floatKey(source[0]) >>> shift) & MASK, length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                float element = source[i];
+                target[counts[base + ((floatKey(element) >>> shift) & MASK)]++] = element;
+            }
+            float[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 排序double数组，结果和Arrays.sort一致：-0.0在0.0之前，NaN在最后。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    public void sort(double[] elements) {
+        if (elements == null || elements.length < 2) {
+            return;
         }
+        int length = elements.length;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < length; i++) {
+            long key = doubleKey(elements[i]);
+            for (int pass = 0; pass < 8; pass++) {
+                counts[(pass << 8) + (int) ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        if (doubleBuffer == null || doubleBuffer.length < length) {
+            doubleBuffer = new double[length];
+        }
+        double[] source = elements;
+        double[] target = doubleBuffer;
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (int) ((doubleKey(source[0]) >>> shift) & MASK), length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                double element = source[i];
+                target[counts[base + (int) ((doubleKey(element) >>> shift) & MASK)]++] = element;
+            }
+            double[] temp = source;
+            source = target;
+            target = temp;
+        }
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+        }
+    }
+
+    /**
+     * @param elements
+     * @param extractor
+     * @Author: MachineGeek
+     * @Description: 按int类型的KEY排序对象，排序是稳定的。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void sortByInt(E[] elements, ToIntFunction<? super E> extractor) {
+        if (elements == null || extractor == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        Arrays.fill(counts, 0, 4 * RADIX, 0);
+        for (int i = 0; i < length; i++) {
+            int key = extractor.applyAsInt(elements[i]) ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < 4; pass++) {
+                counts[(pass << 8) + ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        Object[] source = elements;
+        Object[] target = objectBuffer(length);
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, ((extractor.applyAsInt((E) source[0]) ^ Integer.MIN_VALUE) >>> shift) & MASK, length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                Object element = source[i];
+                target[counts[base + (((extractor.applyAsInt((E) element) ^ Integer.MIN_VALUE) >>> shift) & MASK)]++] = element;
+            }
+            Object[] temp = source;
+            source = target;
+            target = temp;
+        }
+        finish(elements, source, target, length);
+    }
+
+    /**
+     * @param elements
+     * @param extractor
+     * @Author: MachineGeek
+     * @Description: 按long类型的KEY排序对象，排序是稳定的。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void sortByLong(E[] elements, ToLongFunction<? super E> extractor) {
+        if (elements == null || extractor == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < length; i++) {
+            long key = extractor.applyAsLong(elements[i]) ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < 8; pass++) {
+                counts[(pass << 8) + (int) ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        Object[] source = elements;
+        Object[] target = objectBuffer(length);
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (int) (((extractor.applyAsLong((E) source[0]) ^ Long.MIN_VALUE) >>> shift) & MASK), length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                Object element = source[i];
+                target[counts[base + (int) (((extractor.applyAsLong((E) element) ^ Long.MIN_VALUE) >>> shift) & MASK)]++] = element;
+            }
+            Object[] temp = source;
+            source = target;
+            target = temp;
+        }
+        finish(elements, source, target, length);
+    }
+
+    /**
+     * @param elements
+     * @param extractor
+     * @Author: MachineGeek
+     * @Description: 按double类型的KEY排序对象，排序是稳定的，KEY的顺序和Double.compare一致。
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void sortByDouble(E[] elements, ToDoubleFunction<? super E> extractor) {
+        if (elements == null || extractor == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < length; i++) {
+            long key = doubleKey(extractor.applyAsDouble(elements[i]));
+            for (int pass = 0; pass < 8; pass++) {
+                counts[(pass << 8) + (int) ((key >>> (pass << 3)) & MASK)]++;
+            }
+        }
+        Object[] source = elements;
+        Object[] target = objectBuffer(length);
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass << 3;
+            if (!offsets(pass, (int) ((doubleKey(extractor.applyAsDouble((E) source[0])) >>> shift) & MASK), length)) {
+                continue;
+            }
+            int base = pass << 8;
+            for (int i = 0; i < length; i++) {
+                Object element = source[i];
+                target[counts[base + (int) ((doubleKey(extractor.applyAsDouble((E) element)) >>> shift) & MASK)]++] = element;
+            }
+            Object[] temp = source;
+            source = target;
+            target = temp;
+        }
+        finish(elements, source, target, length);
+    }
+
+    /**
+     * @param pass
+     * @param digit
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 把某一趟的桶计数转换成每个桶的起始位置，如果所有元素都落在同一个桶里这一趟可以跳过，返回false。
+     * @Date: 2021/3/10
+     * @Return: boolean
+     */
+    private boolean offsets(int pass, int digit, int length) {
+        int base = pass << 8;
+        if (counts[base + digit] == length) {
+            return false;
+        }
+        int offset = 0;
+        for (int i = base; i < base + RADIX; i++) {
+            int count = counts[i];
+            counts[i] = offset;
+            offset += count;
+        }
+        return true;
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 获取对象缓冲数组
+     * @Date: 2021/3/10
+     * @Return: java.lang.Object[]
+     */
+    private Object[] objectBuffer(int length) {
+        if (objectBuffer == null || objectBuffer.length < length) {
+            objectBuffer = new Object[length];
+        }
+        return objectBuffer;
+    }
+
+    /**
+     * @param elements
+     * @param source
+     * @param target
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 结果拷贝回原数组，并清理缓冲数组中的引用
+     * @Date: 2021/3/10
+     * @Return: void
+     */
+    private void finish(Object[] elements, Object[] source, Object[] target, int length) {
+        if (source != elements) {
+            System.arraycopy(source, 0, elements, 0, length);
+            Arrays.fill(source, 0, length, null);
+        } else if (target != elements) {
+            Arrays.fill(target, 0, length, null);
+        }
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 把float转换成可以按无符号比较的KEY
+     * @Date: 2021/3/10
+     * @Return: int
+     */
+    static int floatKey(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 把double转换成可以按无符号比较的KEY
+     * @Date: 2021/3/10
+     * @Return: long
+     */
+    static long doubleKey(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
     }
 }
@@ -0,0 +1,97 @@
+package cn.machine.geek.algorithm.sort;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 排序网络（Batcher归并交换网络，适用于任意长度）
+ * 比较交换的位置只和长度有关，和数据无关，每次比较交换用min/max实现，没有依赖数据的分支，
+ * 适合排序很小的基本类型区间，不会因为分支预测失败而变慢。长度超过MAX_LENGTH时比较次数增长太快，不再适用。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/15
+ */
+public class SortingNetwork {
+    // 适用的最大长度
+    public static final int MAX_LENGTH = 32;
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @Author: MachineGeek
+     * @Description: 排序elements[left, right)
+     * @Date: 2021/3/15
+     * @Return: void
+     */
+    public void sort(int[] elements, int left, int right) {
+        int length = right - left;
+        if (length > MAX_LENGTH) {
+            throw new RuntimeException("Sorting network only supports up to " + MAX_LENGTH + " elements");
+        }
+        if (length < 2) {
+            return;
+        }
+        // Knuth 5.2.2 算法M
+        int t = 32 - Integer.numberOfLeadingZeros(length - 1);
+        for (int p = 1 << (t - 1); p > 0; p >>= 1) {
+            int q = 1 << (t - 1);
+            int r = 0;
+            int d = p;
+            while (true) {
+                for (int i = 0; i < length - d; i++) {
+                    if ((i & p) == r) {
+                        int a = elements[left + i];
+                        int b = elements[left + i + d];
+                        elements[left + i] = Math.min(a, b);
+                        elements[left + i + d] = Math.max(a, b);
+                    }
+                }
+                if (q == p) {
+                    break;
+                }
+                d = q - p;
+                q >>= 1;
+                r = p;
+            }
+        }
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @Author: MachineGeek
+     * @Description: 排序elements[left, right)
+     * @Date: 2021/3/15
+     * @Return: void
+     */
+    public void sort(long[] elements, int left, int right) {
+        int length = right - left;
+        if (length > MAX_LENGTH) {
+            throw new RuntimeException("Sorting network only supports up to " + MAX_LENGTH + " elements");
+        }
+        if (length < 2) {
+            return;
+        }
+        int t = 32 - Integer.numberOfLeadingZeros(length - 1);
+        for (int p = 1 << (t - 1); p > 0; p >>= 1) {
+            int q = 1 << (t - 1);
+            int r = 0;
+            int d = p;
+            while (true) {
+                for (int i = 0; i < length - d; i++) {
+                    if ((i & p) == r) {
+                        long a = elements[left + i];
+                        long b = elements[left + i + d];
+                        elements[left + i] = Math.min(a, b);
+                        elements[left + i + d] = Math.max(a, b);
+                    }
+                }
+                if (q == p) {
+                    break;
+                }
+                d = q - p;
+                q >>= 1;
+                r = p;
+            }
+        }
+    }
+}
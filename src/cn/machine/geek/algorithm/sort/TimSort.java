@@ -0,0 +1,599 @@
+package cn.machine.geek.algorithm.sort;
+
+import java.util.Comparator;
+
+/**
+ * @Author: MachineGeek
+ * @Description: TimSort，自适应的稳定归并排序
+ * 1.从左到右找出已经有序的片段（run），严格降序的片段原地翻转，太短的片段用二分插入排序补到最小长度。
+ * 2.片段压入栈中，按照栈顶几个片段的长度关系合并，保证合并的两个片段长度接近，栈深度是对数级别的。
+ * 3.合并时只把较短的片段复制到缓冲数组，缓冲数组最多为N/2，整个排序只按需扩容。
+ * 4.合并时一边连续胜出MIN_GALLOP次后进入飞奔模式，用指数查找加二分查找整块移动元素。
+ * 已经有序或逆序的数据是O(N)的。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/12
+ */
+public class TimSort<E> {
+    // 小于这个长度时直接二分插入排序，也是最小片段长度的上限
+    private static final int MIN_MERGE = 32;
+    // 进入飞奔模式的初始阈值
+    private static final int MIN_GALLOP = 7;
+    // 片段栈的深度，片段长度满足类似斐波那契数列的关系，49足够排序Integer.MAX_VALUE个元素
+    private static final int MAX_STACK = 49;
+
+    public void sort(E[] elements, Comparator<E> comparator) {
+        if (elements == null || comparator == null || elements.length < 2) {
+            return;
+        }
+        int length = elements.length;
+        if (length < MIN_MERGE) {
+            int runLength = countRunAndMakeAscending(elements, 0, length, comparator);
+            binarySort(elements, 0, length, runLength, comparator);
+            return;
+        }
+        Merger merger = new Merger(elements, comparator);
+        int minRun = minRunLength(length);
+        int left = 0;
+        int remaining = length;
+        do {
+            int runLength = countRunAndMakeAscending(elements, left, length, comparator);
+            // 片段太短，用二分插入排序补到minRun
+            if (runLength < minRun) {
+                int force = Math.min(remaining, minRun);
+                binarySort(elements, left, left + force, left + runLength, comparator);
+                runLength = force;
+            }
+            merger.pushRun(left, runLength);
+            merger.mergeCollapse();
+            left += runLength;
+            remaining -= runLength;
+        } while (remaining != 0);
+        merger.mergeForceCollapse();
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 一次排序的合并状态：片段栈、缓冲数组和飞奔阈值
+     * @Date: 2021/3/12
+     * @Return:
+     */
+    private class Merger {
+        private E[] elements;
+        private Comparator<E> comparator;
+        private int minGallop = MIN_GALLOP;
+        private E[] buffer;
+        private int[] runBase = new int[MAX_STACK];
+        private int[] runLength = new int[MAX_STACK];
+        private int stackSize;
+
+        Merger(E[] elements, Comparator<E> comparator) {
+            this.elements = elements;
+            this.comparator = comparator;
+            // 初始缓冲数组不超过N/2，不够时再扩容
+            int length = elements.length;
+            this.buffer = newBuffer(length < 512 ? length >>> 1 : 256);
+        }
+
+        private void pushRun(int base, int length) {
+            runBase[stackSize] = base;
+            runLength[stackSize] = length;
+            stackSize++;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 合并栈顶的片段，直到满足：
+         * runLength[i - 3] > runLength[i - 2] + runLength[i - 1]
+         * runLength[i - 2] > runLength[i - 1]
+         * @Date: 2021/3/12
+         * @Return: void
+         */
+        private void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+                        || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+                    if (runLength[n - 1] < runLength[n + 1]) {
+                        n--;
+                    }
+                } else if (runLength[n] > runLength[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 合并栈中剩余的所有片段
+         * @Date: 2021/3/12
+         * @Return: void
+         */
+        private void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * @param i
+         * @Author: MachineGeek
+         * @Description: 合并栈中第i个和第i+1个片段
+         * @Date: 2021/3/12
+         * @Return: void
+         */
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int length1 = runLength[i];
+            int base2 = runBase[i + 1];
+            int length2 = runLength[i + 1];
+            runLength[i] = length1 + length2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            stackSize--;
+            // 左边片段中不大于右边第一个元素的部分已经在正确的位置上
+            int skip = gallopRight(elements[base2], elements, base1, length1, 0, comparator);
+            base1 += skip;
+            length1 -= skip;
+            if (length1 == 0) {
+                return;
+            }
+            // 右边片段中不小于左边最后一个元素的部分也已经在正确的位置上
+            length2 = gallopLeft(elements[base1 + length1 - 1], elements, base2, length2, length2 - 1, comparator);
+            if (length2 == 0) {
+                return;
+            }
+            if (length1 <= length2) {
+                mergeLow(base1, length1, base2, length2);
+            } else {
+                mergeHigh(base1, length1, base2, length2);
+            }
+        }
+
+        /**
+         * @param base1
+         * @param length1
+         * @param base2
+         * @param length2
+         * @Author: MachineGeek
+         * @Description: 左边片段较短，复制到缓冲数组后从左往右合并
+         * @Date: 2021/3/12
+         * @Return: void
+         */
+        private void mergeLow(int base1, int length1, int base2, int length2) {
+            E[] elements = this.elements;
+            E[] buffer = ensureCapacity(length1);
+            System.arraycopy(elements, base1, buffer, 0, length1);
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int destination = base1;
+            // mergeAt保证右边第一个元素小于左边第一个元素
+            elements[destination++] = elements[cursor2++];
+            if (--length2 == 0) {
+                System.arraycopy(buffer, cursor1, elements, destination, length1);
+                return;
+            }
+            if (length1 == 1) {
+                System.arraycopy(elements, cursor2, elements, destination, length2);
+                elements[destination + length2] = buffer[cursor1];
+                return;
+            }
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                // 两边各自连续胜出的次数
+                int count1 = 0;
+                int count2 = 0;
+                do {
+                    if (comparator.compare(elements[cursor2], buffer[cursor1]) < 0) {
+                        elements[destination++] = elements[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        elements[destination++] = buffer[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+                // 飞奔模式，直到两边都不再连续胜出
+                do {
+                    count1 = gallopRight(elements[cursor2], buffer, cursor1, length1, 0, comparator);
+                    if (count1 != 0) {
+                        System.arraycopy(buffer, cursor1, elements, destination, count1);
+                        destination += count1;
+                        cursor1 += count1;
+                        length1 -= count1;
+                        if (length1 <= 1) {
+                            break outer;
+                        }
+                    }
+                    elements[destination++] = elements[cursor2++];
+                    if (--length2 == 0) {
+                        break outer;
+                    }
+                    count2 = gallopLeft(buffer[cursor1], elements, cursor2, length2, 0, comparator);
+                    if (count2 != 0) {
+                        System.arraycopy(elements, cursor2, elements, destination, count2);
+                        destination += count2;
+                        cursor2 += count2;
+                        length2 -= count2;
+                        if (length2 == 0) {
+                            break outer;
+                        }
+                    }
+                    elements[destination++] = buffer[cursor1++];
+                    if (--length1 == 1) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                // 飞奔没有收益，提高再次进入飞奔模式的门槛
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = minGallop < 1 ? 1 : minGallop;
+            if (length1 == 1) {
+                System.arraycopy(elements, cursor2, elements, destination, length2);
+                elements[destination + length2] = buffer[cursor1];
+            } else if (length1 == 0) {
+                throw new RuntimeException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(buffer, cursor1, elements, destination, length1);
+            }
+        }
+
+        /**
+         * @param base1
+         * @param length1
+         * @param base2
+         * @param length2
+         * @Author: MachineGeek
+         * @Description: 右边片段较短，复制到缓冲数组后从右往左合并
+         * @Date: 2021/3/12
+         * @Return: void
+         */
+        private void mergeHigh(int base1, int length1, int base2, int length2) {
+            E[] elements = this.elements;
+            E[] buffer = ensureCapacity(length2);
+            System.arraycopy(elements, base2, buffer, 0, length2);
+            int cursor1 = base1 + length1 - 1;
+            int cursor2 = length2 - 1;
+            int destination = base2 + length2 - 1;
+            // mergeAt保证左边最后一个元素大于右边最后一个元素
+            elements[destination--] = elements[cursor1--];
+            if (--length1 == 0) {
+                System.arraycopy(buffer, 0, elements, destination - (length2 - 1), length2);
+                return;
+            }
+            if (length2 == 1) {
+                destination -= length1;
+                cursor1 -= length1;
+                System.arraycopy(elements, cursor1 + 1, elements, destination + 1, length1);
+                elements[destination] = buffer[cursor2];
+                return;
+            }
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+                do {
+                    if (comparator.compare(buffer[cursor2], elements[cursor1]) < 0) {
+                        elements[destination--] = elements[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--length1 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        elements[destination--] = buffer[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--length2 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+                do {
+                    count1 = length1 - gallopRight(buffer[cursor2], elements, base1, length1, length1 - 1, comparator);
+                    if (count1 != 0) {
+                        destination -= count1;
+                        cursor1 -= count1;
+                        length1 -= count1;
+                        System.arraycopy(elements, cursor1 + 1, elements, destination + 1, count1);
+                        if (length1 == 0) {
+                            break outer;
+                        }
+                    }
+                    elements[destination--] = buffer[cursor2--];
+                    if (--length2 == 1) {
+                        break outer;
+                    }
+                    count2 = length2 - gallopLeft(elements[cursor1], buffer, 0, length2, length2 - 1, comparator);
+                    if (count2 != 0) {
+                        destination -= count2;
+                        cursor2 -= count2;
+                        length2 -= count2;
+                        System.arraycopy(buffer, cursor2 + 1, elements, destination + 1, count2);
+                        if (length2 <= 1) {
+                            break outer;
+                        }
+                    }
+                    elements[destination--] = elements[cursor1--];
+                    if (--length1 == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = minGallop < 1 ? 1 : minGallop;
+            if (length2 == 1) {
+                destination -= length1;
+                cursor1 -= length1;
+                System.arraycopy(elements, cursor1 + 1, elements, destination + 1, length1);
+                elements[destination] = buffer[cursor2];
+            } else if (length2 == 0) {
+                throw new RuntimeException("Comparison method violates its general contract");
+            } else {
+                System.arraycopy(buffer, 0, elements, destination - (length2 - 1), length2);
+            }
+        }
+
+        /**
+         * @param minCapacity
+         * @Author: MachineGeek
+         * @Description: 缓冲数组扩容到不小于minCapacity的2的幂，但不超过N/2
+         * @Date: 2021/3/12
+         * @Return: E[]
+         */
+        private E[] ensureCapacity(int minCapacity) {
+            if (buffer.length < minCapacity) {
+                int capacity = Integer.highestOneBit(minCapacity) << 1;
+                if (capacity < 0 || capacity > elements.length >>> 1) {
+                    capacity = Math.max(minCapacity, elements.length >>> 1);
+                }
+                buffer = newBuffer(capacity);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * @param key
+     * @param elements
+     * @param base
+     * @param length
+     * @param hint
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 在有序区间elements[base, base + length)中查找key的插入位置，有相等元素时返回最左边的位置。
+     * 从hint开始按1、3、7、15...的步长指数查找，再在最后一段中二分查找，返回相对于base的偏移。
+     * @Date: 2021/3/12
+     * @Return: int
+     */
+    private int gallopLeft(E key, E[] elements, int base, int length, int hint, Comparator<E> comparator) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (comparator.compare(key, elements[base + hint]) > 0) {
+            // 向右查找，直到elements[base + hint + lastOffset] < key <= elements[base + hint + offset]
+            int maxOffset = length - hint;
+            while (offset < maxOffset && comparator.compare(key, elements[base + hint + offset]) > 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                // 溢出
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        } else {
+            // 向左查找，直到elements[base + hint - offset] < key <= elements[base + hint - lastOffset]
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && comparator.compare(key, elements[base + hint - offset]) <= 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        }
+        // 在(lastOffset, offset]中二分查找
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (comparator.compare(key, elements[base + mid]) > 0) {
+                lastOffset = mid + 1;
+            } else {
+                offset = mid;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * @param key
+     * @param elements
+     * @param base
+     * @param length
+     * @param hint
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 和gallopLeft相同，但有相等元素时返回最右边的位置。
+     * @Date: 2021/3/12
+     * @Return: int
+     */
+    private int gallopRight(E key, E[] elements, int base, int length, int hint, Comparator<E> comparator) {
+        int lastOffset = 0;
+        int offset = 1;
+        if (comparator.compare(key, elements[base + hint]) < 0) {
+            // 向左查找，直到elements[base + hint - offset] <= key < elements[base + hint - lastOffset]
+            int maxOffset = hint + 1;
+            while (offset < maxOffset && comparator.compare(key, elements[base + hint - offset]) < 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            int temp = lastOffset;
+            lastOffset = hint - offset;
+            offset = hint - temp;
+        } else {
+            // 向右查找，直到elements[base + hint + lastOffset] <= key < elements[base + hint + offset]
+            int maxOffset = length - hint;
+            while (offset < maxOffset && comparator.compare(key, elements[base + hint + offset]) >= 0) {
+                lastOffset = offset;
+                offset = (offset << 1) + 1;
+                if (offset <= 0) {
+                    offset = maxOffset;
+                }
+            }
+            if (offset > maxOffset) {
+                offset = maxOffset;
+            }
+            lastOffset += hint;
+            offset += hint;
+        }
+        lastOffset++;
+        while (lastOffset < offset) {
+            int mid = lastOffset + ((offset - lastOffset) >>> 1);
+            if (comparator.compare(key, elements[base + mid]) < 0) {
+                offset = mid;
+            } else {
+                lastOffset = mid + 1;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 从left开始的有序片段的长度，严格降序的片段原地翻转成升序（严格降序才能保证稳定）。
+     * @Date: 2021/3/12
+     * @Return: int
+     */
+    private int countRunAndMakeAscending(E[] elements, int left, int right, Comparator<E> comparator) {
+        int runRight = left + 1;
+        if (runRight == right) {
+            return 1;
+        }
+        if (comparator.compare(elements[runRight++], elements[left]) < 0) {
+            while (runRight < right && comparator.compare(elements[runRight], elements[runRight - 1]) < 0) {
+                runRight++;
+            }
+            reverse(elements, left, runRight);
+        } else {
+            while (runRight < right && comparator.compare(elements[runRight], elements[runRight - 1]) >= 0) {
+                runRight++;
+            }
+        }
+        return runRight - left;
+    }
+
+    /**
+     * @param elements
+     * @param left
+     * @param right
+     * @param start
+     * @param comparator
+     * @Author: MachineGeek
+     * @Description: 二分插入排序elements[left, right)，elements[left, start)已经有序。
+     * @Date: 2021/3/12
+     * @Return: void
+     */
+    private void binarySort(E[] elements, int left, int right, int start, Comparator<E> comparator) {
+        if (start == left) {
+            start++;
+        }
+        for (; start < right; start++) {
+            E pivot = elements[start];
+            int low = left;
+            int high = start;
+            // 相等时继续向右，保证稳定
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (comparator.compare(pivot, elements[mid]) < 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            System.arraycopy(elements, low, elements, low + 1, start - low);
+            elements[low] = pivot;
+        }
+    }
+
+    private void reverse(E[] elements, int left, int right) {
+        right--;
+        while (left < right) {
+            E temp = elements[left];
+            elements[left++] = elements[right];
+            elements[right--] = temp;
+        }
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 最小片段长度，取length的高5位，剩余位不全为0时再加1，使length / minRun接近2的幂。
+     * @Date: 2021/3/12
+     * @Return: int
+     */
+    private int minRunLength(int length) {
+        int remainder = 0;
+        while (length >= MIN_MERGE) {
+            remainder |= (length & 1);
+            length >>= 1;
+        }
+        return length + remainder;
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 创建缓冲数组，泛型数组只能通过强制转换得到
+     * @Date: 2021/3/12
+     * @Return: E[]
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E[] newBuffer(int length) {
+        return (E[]) new Object[length];
+    }
+}
@@ -0,0 +1,131 @@
+package cn.machine.geek.structure.heap;
+
+import cn.machine.geek.structure.list.ArrayList;
+
+import java.util.Comparator;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 流式Top K
+ * 用容量为k的BinaryHeap保存当前最大的k个元素，堆顶是其中最小的元素，新元素比堆顶大时替换堆顶。
+ * 每个元素的时间复杂度为O(logk)，空间复杂度为O(k)，与输入的总量无关。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/14
+ */
+public class TopK<E> {
+    private int k;
+    private Comparator<E> comparator;
+    private BinaryHeap<E> heap;
+
+    /**
+     * @param k
+     * @param comparator 为null时使用元素的自然顺序
+     * @Author: MachineGeek
+     * @Description: 按comparator保留最大的k个元素
+     * @Date: 2021/3/14
+     * @Return:
+     */
+    public TopK(int k, final Comparator<E> comparator) {
+        if (k < 1) {
+            throw new RuntimeException("K must be positive");
+        }
+        this.k = k;
+        this.comparator = comparator;
+        // BinaryHeap是最大堆，比较器取反后堆顶是最小的元素
+        this.heap = new BinaryHeap<>(new Comparator<E>() {
+            @Override
+            public int compare(E o1, E o2) {
+                return TopK.this.compare(o2, o1);
+            }
+        });
+    }
+
+    public TopK(int k) {
+        this(k, null);
+    }
+
+    /**
+     * @param element
+     * @Author: MachineGeek
+     * @Description: 加入一个元素，返回它是否进入了当前的Top K
+     * @Date: 2021/3/14
+     * @Return: boolean
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new RuntimeException("Element must not be null");
+        }
+        if (heap.size() < k) {
+            heap.add(element);
+            return true;
+        }
+        if (compare(element, heap.get()) <= 0) {
+            return false;
+        }
+        heap.replace(element);
+        return true;
+    }
+
+    /**
+     * @param elements
+     * @Author: MachineGeek
+     * @Description: 批量加入元素
+     * @Date: 2021/3/14
+     * @Return: void
+     */
+    public void offerAll(E[] elements) {
+        for (E element : elements) {
+            offer(element);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 当前Top K中最小的元素，还没有元素时返回null
+     * @Date: 2021/3/14
+     * @Return: E
+     */
+    public E threshold() {
+        return heap.isEmpty() ? null : heap.get();
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 从大到小返回当前的Top K，不影响之后继续加入元素
+     * @Date: 2021/3/14
+     * @Return: cn.machine.geek.structure.list.ArrayList<E>
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<E> result() {
+        int size = heap.size();
+        Object[] elements = new Object[size];
+        // 依次取出堆顶，从后往前放
+        for (int i = size - 1; i >= 0; i--) {
+            elements[i] = heap.remove();
+        }
+        ArrayList<E> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add((E) elements[i]);
+            heap.add((E) elements[i]);
+        }
+        return result;
+    }
+
+    public void clear() {
+        heap.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E e1, E e2) {
+        if (comparator != null) {
+            return comparator.compare(e1, e2);
+        }
+        return ((Comparable<E>) e1).compareTo(e2);
+    }
+}
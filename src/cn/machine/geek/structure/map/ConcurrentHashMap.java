@@ -0,0 +1,1305 @@
+package cn.machine.geek.structure.map;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并发哈希表(桶级锁版本)
+ * 空桶通过CAS放入，非空桶锁住桶的头节点；链表桶的读取不加锁；
+ * 冲突严重的桶转为红黑树桶，树节点同时串成链表，红黑树桶的读取也不加锁，写线程调整树时读线程沿链表查找；
+ * 扩容时多个线程按区间领取桶协同迁移，迁移完成的桶放置转发节点。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/3
+ */
+public class ConcurrentHashMap<K, V> {
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    private volatile Transfer<K, V> transfer;
+    private volatile int threshold;
+    private final LongAdder count = new LongAdder();
+    private final Object resizeLock = new Object();
+    private static final int DEFAULT_SIZE = 1 << 4;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    // 链表长度达到该值时转为红黑树桶
+    private static final int TREEIFY_THRESHOLD = 8;
+    // 扩容拆分后红黑树桶元素个数小于等于该值时退化为链表桶，删除时按树的形状判断
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    // 表长度小于该值时优先扩容而不是树化
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+    // 每个线程一次领取的最少桶数
+    private static final int MIN_TRANSFER_STRIDE = 16;
+    private static final int MOVED = -1;
+    private static final int TREEBIN = -2;
+    private static final int HASH_BITS = 0x7fffffff;
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 链表节点
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 转发节点，表示该桶已经迁移到新表
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    static final class ForwardingNode<K, V> extends Node<K, V> {
+        final Transfer<K, V> transfer;
+
+        ForwardingNode(Transfer<K, V> transfer) {
+            super(MOVED, null, null, null);
+            this.transfer = transfer;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 红黑树桶中的节点，同时按插入顺序通过next和prev串成链表。
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    static final class TreeNode<K, V> extends Node<K, V> {
+        TreeNode<K, V> parent;
+        TreeNode<K, V> left;
+        TreeNode<K, V> right;
+        // 删除时需要把节点从next链表中摘下
+        TreeNode<K, V> prev;
+        boolean red;
+
+        TreeNode(int hash, K key, V value, Node<K, V> next, TreeNode<K, V> parent) {
+            super(hash, key, value, next);
+            this.parent = parent;
+        }
+
+        /**
+         * @param hash
+         * @param key
+         * @Author: MachineGeek
+         * @Description: 在以当前节点为根的子树中查找KEY，hash和Comparable都分不出大小时先查右子树再查左子树。
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        TreeNode<K, V> findTreeNode(int hash, K key) {
+            TreeNode<K, V> node = this;
+            while (node != null) {
+                TreeNode<K, V> left = node.left;
+                TreeNode<K, V> right = node.right;
+                TreeNode<K, V> result;
+                int cmp;
+                if (node.hash > hash) {
+                    node = left;
+                } else if (node.hash < hash) {
+                    node = right;
+                } else if (key.equals(node.key)) {
+                    return node;
+                } else if (left == null) {
+                    node = right;
+                } else if (right == null) {
+                    node = left;
+                } else if ((cmp = RedBlackBin.compareKeys(key, node.key)) != 0) {
+                    node = cmp < 0 ? left : right;
+                } else if ((result = right.findTreeNode(hash, key)) != null) {
+                    return result;
+                } else {
+                    node = left;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 红黑树桶，写操作已经持有桶锁，调整树结构时再加写锁。
+     * 读操作不加锁：没有写线程时登记为读者在树上查找，写线程持有或等待写锁时沿next链表线性查找，
+     * 写线程等到读者都离开后才旋转节点，链表上的节点在调整树的过程中始终可见。
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    static final class TreeBin<K, V> extends Node<K, V> {
+        TreeNode<K, V> root;
+        volatile TreeNode<K, V> first;
+        volatile Thread waiter;
+        volatile int lockState;
+        // lockState的取值：写锁、等待写锁、每个读者加READER
+        private static final int WRITER = 1;
+        private static final int WAITER = 2;
+        private static final int READER = 4;
+        @SuppressWarnings("unchecked")
+        private static final AtomicIntegerFieldUpdater<TreeBin<?, ?>> LOCK_STATE = AtomicIntegerFieldUpdater.newUpdater((Class<TreeBin<?, ?>>) (Class<?>) TreeBin.class, "lockState");
+
+        /**
+         * @param first
+         * @Author: MachineGeek
+         * @Description: 用一条树节点链表建立红黑树桶
+         * @Date: 2021/3/3
+         * @Return:
+         */
+        TreeBin(TreeNode<K, V> first) {
+            super(TREEBIN, null, null, null);
+            this.first = first;
+            TreeNode<K, V> root = null;
+            for (TreeNode<K, V> node = first; node != null; node = (TreeNode<K, V>) node.next) {
+                node.left = null;
+                node.right = null;
+                if (root == null) {
+                    node.parent = null;
+                    node.red = false;
+                    root = node;
+                    continue;
+                }
+                TreeNode<K, V> parent = root;
+                while (true) {
+                    int dir = direction(parent, node.hash, node.key);
+                    TreeNode<K, V> child = dir <= 0 ? parent.left : parent.right;
+                    if (child == null) {
+                        node.parent = parent;
+                        if (dir <= 0) {
+                            parent.left = node;
+                        } else {
+                            parent.right = node;
+                        }
+                        root = balanceInsertion(root, node);
+                        break;
+                    }
+                    parent = child;
+                }
+            }
+            this.root = root;
+        }
+
+        /**
+         * @param hash
+         * @param key
+         * @Author: MachineGeek
+         * @Description: 查找节点，不加锁。
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.Node<K,V>
+         */
+        Node<K, V> find(int hash, K key) {
+            Node<K, V> node = first;
+            while (node != null) {
+                int state = lockState;
+                if ((state & (WAITER | WRITER)) != 0) {
+                    // 写线程正在或者准备调整树，沿链表查找
+                    if (node.hash == hash && key.equals(node.key)) {
+                        return node;
+                    }
+                    node = node.next;
+                } else if (LOCK_STATE.compareAndSet(this, state, state + READER)) {
+                    TreeNode<K, V> result;
+                    try {
+                        TreeNode<K, V> r = root;
+                        result = r == null ? null : r.findTreeNode(hash, key);
+                    } finally {
+                        // 最后一个读者离开时唤醒等待的写线程
+                        Thread w;
+                        if (LOCK_STATE.getAndAdd(this, -READER) == (READER | WAITER) && (w = waiter) != null) {
+                            LockSupport.unpark(w);
+                        }
+                    }
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param hash
+         * @param key
+         * @param value
+         * @Author: MachineGeek
+         * @Description: 放入元素，KEY已存在时返回已存在的节点，调用方需要持有桶锁。
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        TreeNode<K, V> putTreeVal(int hash, K key, V value) {
+            boolean searched = false;
+            TreeNode<K, V> parent = root;
+            if (parent == null) {
+                first = root = new TreeNode<>(hash, key, value, null, null);
+                return null;
+            }
+            while (true) {
+                int dir;
+                if (parent.hash > hash) {
+                    dir = -1;
+                } else if (parent.hash < hash) {
+                    dir = 1;
+                } else if (key.equals(parent.key)) {
+                    return parent;
+                } else if ((dir = RedBlackBin.compareKeys(key, parent.key)) == 0) {
+                    // 分不出大小时两边子树都可能有相等的KEY，只完整查找一次
+                    if (!searched) {
+                        TreeNode<K, V> result;
+                        searched = true;
+                        if ((parent.left != null && (result = parent.left.findTreeNode(hash, key)) != null) || (parent.right != null && (result = parent.right.findTreeNode(hash, key)) != null)) {
+                            return result;
+                        }
+                    }
+                    dir = tieBreakOrder(key, parent.key);
+                }
+                TreeNode<K, V> child = dir <= 0 ? parent.left : parent.right;
+                if (child == null) {
+                    // 先挂到链表头部，读线程沿链表查找时能看到
+                    TreeNode<K, V> f = first;
+                    TreeNode<K, V> node = new TreeNode<>(hash, key, value, f, parent);
+                    first = node;
+                    if (f != null) {
+                        f.prev = node;
+                    }
+                    if (dir <= 0) {
+                        parent.left = node;
+                    } else {
+                        parent.right = node;
+                    }
+                    // 父节点是黑色时只是挂上一个红色叶子，不影响树上的读者；否则需要加写锁调整
+                    if (!parent.red) {
+                        node.red = true;
+                    } else {
+                        lockRoot();
+                        try {
+                            root = balanceInsertion(root, node);
+                        } finally {
+                            unlockRoot();
+                        }
+                    }
+                    return null;
+                }
+                parent = child;
+            }
+        }
+
+        /**
+         * @param node
+         * @Author: MachineGeek
+         * @Description: 删除节点，调用方需要持有桶锁。返回true表示树太小，节点只从链表中摘下，需要调用方退化为链表桶。
+         * 删除有两个子节点的节点时与后继节点交换位置而不是交换KEY，树上的读者拿到的节点不会变成别的KEY。
+         * @Date: 2021/3/3
+         * @Return: boolean
+         */
+        boolean removeTreeNode(TreeNode<K, V> node) {
+            TreeNode<K, V> next = (TreeNode<K, V>) node.next;
+            TreeNode<K, V> pred = node.prev;
+            if (pred == null) {
+                first = next;
+            } else {
+                pred.next = next;
+            }
+            if (next != null) {
+                next.prev = pred;
+            }
+            if (first == null) {
+                root = null;
+                return true;
+            }
+            TreeNode<K, V> r = root;
+            if (r == null || r.right == null || r.left == null || r.left.left == null) {
+                return true;
+            }
+            lockRoot();
+            try {
+                TreeNode<K, V> replacement;
+                TreeNode<K, V> left = node.left;
+                TreeNode<K, V> right = node.right;
+                if (left != null && right != null) {
+                    // 与后继节点交换位置和颜色
+                    TreeNode<K, V> successor = right;
+                    while (successor.left != null) {
+                        successor = successor.left;
+                    }
+                    boolean color = successor.red;
+                    successor.red = node.red;
+                    node.red = color;
+                    TreeNode<K, V> successorRight = successor.right;
+                    TreeNode<K, V> parent = node.parent;
+                    if (successor == right) {
+                        node.parent = successor;
+                        successor.right = node;
+                    } else {
+                        TreeNode<K, V> successorParent = successor.parent;
+                        if ((node.parent = successorParent) != null) {
+                            if (successor == successorParent.left) {
+                                successorParent.left = node;
+                            } else {
+                                successorParent.right = node;
+                            }
+                        }
+                        if ((successor.right = right) != null) {
+                            right.parent = successor;
+                        }
+                    }
+                    node.left = null;
+                    if ((node.right = successorRight) != null) {
+                        successorRight.parent = node;
+                    }
+                    if ((successor.left = left) != null) {
+                        left.parent = successor;
+                    }
+                    if ((successor.parent = parent) == null) {
+                        r = successor;
+                    } else if (node == parent.left) {
+                        parent.left = successor;
+                    } else {
+                        parent.right = successor;
+                    }
+                    replacement = successorRight != null ? successorRight : node;
+                } else if (left != null) {
+                    replacement = left;
+                } else if (right != null) {
+                    replacement = right;
+                } else {
+                    replacement = node;
+                }
+                if (replacement != node) {
+                    TreeNode<K, V> parent = replacement.parent = node.parent;
+                    if (parent == null) {
+                        r = replacement;
+                    } else if (node == parent.left) {
+                        parent.left = replacement;
+                    } else {
+                        parent.right = replacement;
+                    }
+                    node.left = node.right = node.parent = null;
+                }
+                root = node.red ? r : balanceDeletion(r, replacement);
+                // 没有子节点时节点自己充当替代节点，调整完再从父节点上摘下
+                if (node == replacement) {
+                    TreeNode<K, V> parent = node.parent;
+                    if (parent != null) {
+                        if (node == parent.left) {
+                            parent.left = null;
+                        } else if (node == parent.right) {
+                            parent.right = null;
+                        }
+                        node.parent = null;
+                    }
+                }
+            } finally {
+                unlockRoot();
+            }
+            return false;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 加写锁，桶锁保证同一时间只有一个写线程。
+         * @Date: 2021/3/3
+         * @Return: void
+         */
+        private void lockRoot() {
+            if (!LOCK_STATE.compareAndSet(this, 0, WRITER)) {
+                contendedLock();
+            }
+        }
+
+        private void unlockRoot() {
+            lockState = 0;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 有读者时设置WAITER阻止新的读者进入树，然后等待最后一个读者唤醒。
+         * @Date: 2021/3/3
+         * @Return: void
+         */
+        private void contendedLock() {
+            boolean waiting = false;
+            while (true) {
+                int state = lockState;
+                if ((state & ~WAITER) == 0) {
+                    if (LOCK_STATE.compareAndSet(this, state, WRITER)) {
+                        if (waiting) {
+                            waiter = null;
+                        }
+                        return;
+                    }
+                } else if ((state & WAITER) == 0) {
+                    if (LOCK_STATE.compareAndSet(this, state, state | WAITER)) {
+                        waiting = true;
+                        waiter = Thread.currentThread();
+                    }
+                } else if (waiting) {
+                    LockSupport.park(this);
+                }
+            }
+        }
+
+        /**
+         * @param node
+         * @param hash
+         * @param key
+         * @Author: MachineGeek
+         * @Description: 插入时KEY应该放在节点的哪一边，小于等于0为左边。
+         * @Date: 2021/3/3
+         * @Return: int
+         */
+        private static <K, V> int direction(TreeNode<K, V> node, int hash, K key) {
+            int dir;
+            if (node.hash > hash) {
+                return -1;
+            } else if (node.hash < hash) {
+                return 1;
+            } else if ((dir = RedBlackBin.compareKeys(key, node.key)) != 0) {
+                return dir;
+            }
+            return tieBreakOrder(key, node.key);
+        }
+
+        /**
+         * @param key1
+         * @param key2
+         * @Author: MachineGeek
+         * @Description: hash相同又不能比较的KEY按类名和identityHashCode决定顺序，不返回0。
+         * @Date: 2021/3/3
+         * @Return: int
+         */
+        private static int tieBreakOrder(Object key1, Object key2) {
+            int dir = key1.getClass().getName().compareTo(key2.getClass().getName());
+            if (dir == 0) {
+                dir = System.identityHashCode(key1) <= System.identityHashCode(key2) ? -1 : 1;
+            }
+            return dir;
+        }
+
+        /**
+         * @param root
+         * @param node
+         * @Author: MachineGeek
+         * @Description: 红黑树添加节点后的处理
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        private static <K, V> TreeNode<K, V> balanceInsertion(TreeNode<K, V> root, TreeNode<K, V> node) {
+            node.red = true;
+            while (true) {
+                TreeNode<K, V> parent = node.parent;
+                TreeNode<K, V> grandParent;
+                // 如果是根节点直接染黑返回
+                if (parent == null) {
+                    node.red = false;
+                    return node;
+                }
+                // 如果父节点是黑色不用处理
+                if (!parent.red || (grandParent = parent.parent) == null) {
+                    return root;
+                }
+                if (parent == grandParent.left) {
+                    TreeNode<K, V> uncle = grandParent.right;
+                    // 如果叔父节点是红色，需要向上染色
+                    if (uncle != null && uncle.red) {
+                        uncle.red = false;
+                        parent.red = false;
+                        grandParent.red = true;
+                        node = grandParent;
+                        continue;
+                    }
+                    // LR先对父节点左旋变成LL
+                    if (node == parent.right) {
+                        node = parent;
+                        root = rotateLeft(root, node);
+                        parent = node.parent;
+                        grandParent = parent == null ? null : parent.parent;
+                    }
+                    if (parent != null) {
+                        parent.red = false;
+                        if (grandParent != null) {
+                            grandParent.red = true;
+                            root = rotateRight(root, grandParent);
+                        }
+                    }
+                } else {
+                    TreeNode<K, V> uncle = grandParent.left;
+                    if (uncle != null && uncle.red) {
+                        uncle.red = false;
+                        parent.red = false;
+                        grandParent.red = true;
+                        node = grandParent;
+                        continue;
+                    }
+                    // RL先对父节点右旋变成RR
+                    if (node == parent.left) {
+                        node = parent;
+                        root = rotateRight(root, node);
+                        parent = node.parent;
+                        grandParent = parent == null ? null : parent.parent;
+                    }
+                    if (parent != null) {
+                        parent.red = false;
+                        if (grandParent != null) {
+                            grandParent.red = true;
+                            root = rotateLeft(root, grandParent);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param root
+         * @param node
+         * @Author: MachineGeek
+         * @Description: 红黑树删除节点后的处理，node是替代节点（没有子节点时是被删除的节点自己）。
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        private static <K, V> TreeNode<K, V> balanceDeletion(TreeNode<K, V> root, TreeNode<K, V> node) {
+            while (true) {
+                TreeNode<K, V> parent;
+                if (node == null || node == root) {
+                    return root;
+                } else if ((parent = node.parent) == null) {
+                    node.red = false;
+                    return node;
+                } else if (node.red) {
+                    // 替代节点是红色，染黑后直接返回
+                    node.red = false;
+                    return root;
+                } else if (node == parent.left) {
+                    TreeNode<K, V> brother = parent.right;
+                    // 如果右边的兄弟节点为红色，则对父节点左旋，重新赋值兄弟节点
+                    if (brother != null && brother.red) {
+                        brother.red = false;
+                        parent.red = true;
+                        root = rotateLeft(root, parent);
+                        brother = (parent = node.parent) == null ? null : parent.right;
+                    }
+                    if (brother == null) {
+                        node = parent;
+                        continue;
+                    }
+                    TreeNode<K, V> nephewLeft = brother.left;
+                    TreeNode<K, V> nephewRight = brother.right;
+                    // 兄弟节点没有红色子节点，兄弟节点染红后继续处理父节点
+                    if ((nephewRight == null || !nephewRight.red) && (nephewLeft == null || !nephewLeft.red)) {
+                        brother.red = true;
+                        node = parent;
+                        continue;
+                    }
+                    // 如果兄弟的右子节点是黑色，兄弟先进行一次右旋
+                    if (nephewRight == null || !nephewRight.red) {
+                        if (nephewLeft != null) {
+                            nephewLeft.red = false;
+                        }
+                        brother.red = true;
+                        root = rotateRight(root, brother);
+                        brother = (parent = node.parent) == null ? null : parent.right;
+                    }
+                    if (brother != null) {
+                        brother.red = parent != null && parent.red;
+                        if (brother.right != null) {
+                            brother.right.red = false;
+                        }
+                    }
+                    if (parent != null) {
+                        parent.red = false;
+                        root = rotateLeft(root, parent);
+                    }
+                    node = root;
+                } else {
+                    TreeNode<K, V> brother = parent.left;
+                    // 如果左边的兄弟节点为红色，则对父节点右旋，重新赋值兄弟节点
+                    if (brother != null && brother.red) {
+                        brother.red = false;
+                        parent.red = true;
+                        root = rotateRight(root, parent);
+                        brother = (parent = node.parent) == null ? null : parent.left;
+                    }
+                    if (brother == null) {
+                        node = parent;
+                        continue;
+                    }
+                    TreeNode<K, V> nephewLeft = brother.left;
+                    TreeNode<K, V> nephewRight = brother.right;
+                    if ((nephewLeft == null || !nephewLeft.red) && (nephewRight == null || !nephewRight.red)) {
+                        brother.red = true;
+                        node = parent;
+                        continue;
+                    }
+                    // 如果兄弟的左子节点是黑色，兄弟先进行一次左旋
+                    if (nephewLeft == null || !nephewLeft.red) {
+                        if (nephewRight != null) {
+                            nephewRight.red = false;
+                        }
+                        brother.red = true;
+                        root = rotateLeft(root, brother);
+                        brother = (parent = node.parent) == null ? null : parent.left;
+                    }
+                    if (brother != null) {
+                        brother.red = parent != null && parent.red;
+                        if (brother.left != null) {
+                            brother.left.red = false;
+                        }
+                    }
+                    if (parent != null) {
+                        parent.red = false;
+                        root = rotateRight(root, parent);
+                    }
+                    node = root;
+                }
+            }
+        }
+
+        /**
+         * @param root
+         * @param node
+         * @Author: MachineGeek
+         * @Description: 对节点进行左旋
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        private static <K, V> TreeNode<K, V> rotateLeft(TreeNode<K, V> root, TreeNode<K, V> node) {
+            TreeNode<K, V> right = node.right;
+            if (right == null) {
+                return root;
+            }
+            if ((node.right = right.left) != null) {
+                node.right.parent = node;
+            }
+            TreeNode<K, V> parent = right.parent = node.parent;
+            if (parent == null) {
+                root = right;
+                right.red = false;
+            } else if (parent.left == node) {
+                parent.left = right;
+            } else {
+                parent.right = right;
+            }
+            right.left = node;
+            node.parent = right;
+            return root;
+        }
+
+        /**
+         * @param root
+         * @param node
+         * @Author: MachineGeek
+         * @Description: 对节点进行右旋
+         * @Date: 2021/3/3
+         * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.TreeNode<K,V>
+         */
+        private static <K, V> TreeNode<K, V> rotateRight(TreeNode<K, V> root, TreeNode<K, V> node) {
+            TreeNode<K, V> left = node.left;
+            if (left == null) {
+                return root;
+            }
+            if ((node.left = left.right) != null) {
+                node.left.parent = node;
+            }
+            TreeNode<K, V> parent = left.parent = node.parent;
+            if (parent == null) {
+                root = left;
+                left.red = false;
+            } else if (parent.right == node) {
+                parent.right = left;
+            } else {
+                parent.left = left;
+            }
+            left.right = node;
+            node.parent = left;
+            return root;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 一次扩容的状态，线程从transferIndex往下按区间领取桶。
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    static final class Transfer<K, V> {
+        final AtomicReferenceArray<Node<K, V>> table;
+        final AtomicReferenceArray<Node<K, V>> nextTable;
+        final AtomicInteger transferIndex;
+        final AtomicInteger finished = new AtomicInteger();
+        final ForwardingNode<K, V> forwarding;
+        final int stride;
+
+        Transfer(AtomicReferenceArray<Node<K, V>> table, AtomicReferenceArray<Node<K, V>> nextTable) {
+            this.table = table;
+            this.nextTable = nextTable;
+            this.transferIndex = new AtomicInteger(table.length());
+            this.forwarding = new ForwardingNode<>(this);
+            this.stride = Math.max(MIN_TRANSFER_STRIDE, table.length() / (NCPU << 3));
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/3
+     * @Return:
+     */
+    public static abstract class Visitor<K, V> {
+        boolean stop;
+
+        protected abstract boolean operate(K key, V value);
+    }
+
+    public ConcurrentHashMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    public ConcurrentHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new RuntimeException("Expected size must not be negative");
+        }
+        int capacity = DEFAULT_SIZE;
+        while (capacity < expectedSize / DEFAULT_LOAD_FACTOR && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+        threshold = threshold(capacity);
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 元素个数（并发修改时为近似值）
+     * @Date: 2021/3/3
+     * @Return: int
+     */
+    public int size() {
+        long n = count.sum();
+        return n < 0 ? 0 : (n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n);
+    }
+
+    public boolean isEmpty() {
+        return count.sum() <= 0;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素，不加锁。
+     * @Date: 2021/3/3
+     * @Return: V
+     */
+    public V get(K key) {
+        checkKey(key);
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> node = tab.get((tab.length() - 1) & hash);
+            if (node == null) {
+                return null;
+            }
+            // 已迁移的桶去新表中查找
+            if (node.hash == MOVED) {
+                tab = ((ForwardingNode<K, V>) node).transfer.nextTable;
+                continue;
+            }
+            if (node.hash == TREEBIN) {
+                Node<K, V> found = ((TreeBin<K, V>) node).find(hash, key);
+                return found == null ? null : found.value;
+            }
+            while (node != null) {
+                if (node.hash == hash && key.equals(node.key)) {
+                    return node.value;
+                }
+                node = node.next;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 是否包含KEY
+     * @Date: 2021/3/3
+     * @Return: boolean
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入元素
+     * @Date: 2021/3/3
+     * @Return: V
+     */
+    public V put(K key, V value) {
+        return putValue(key, value, false);
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: KEY不存在时才放入元素
+     * @Date: 2021/3/3
+     * @Return: V
+     */
+    public V putIfAbsent(K key, V value) {
+        return putValue(key, value, true);
+    }
+
+    private V putValue(K key, V value, boolean onlyIfAbsent) {
+        checkKey(key);
+        checkValue(value);
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = (tab.length() - 1) & hash;
+            Node<K, V> first = tab.get(index);
+            if (first == null) {
+                // 空桶直接CAS放入，不加锁
+                if (tab.compareAndSet(index, null, new Node<>(hash, key, value, null))) {
+                    addCount(1);
+                    return null;
+                }
+                continue;
+            }
+            if (first.hash == MOVED) {
+                tab = helpTransfer(((ForwardingNode<K, V>) first).transfer);
+                continue;
+            }
+            V old = null;
+            int binCount = 0;
+            synchronized (first) {
+                // 加锁期间桶的头节点被替换，重新查找
+                if (tab.get(index) != first) {
+                    continue;
+                }
+                if (first.hash == TREEBIN) {
+                    TreeNode<K, V> node = ((TreeBin<K, V>) first).putTreeVal(hash, key, value);
+                    if (node != null) {
+                        old = node.value;
+                        if (!onlyIfAbsent) {
+                            node.value = value;
+                        }
+                    }
+                } else {
+                    Node<K, V> node = first;
+                    binCount = 1;
+                    while (true) {
+                        if (node.hash == hash && key.equals(node.key)) {
+                            old = node.value;
+                            if (!onlyIfAbsent) {
+                                node.value = value;
+                            }
+                            break;
+                        }
+                        if (node.next == null) {
+                            node.next = new Node<>(hash, key, value, null);
+                            break;
+                        }
+                        node = node.next;
+                        binCount++;
+                    }
+                }
+            }
+            if (binCount >= TREEIFY_THRESHOLD) {
+                treeifyBin(tab, index);
+            }
+            if (old == null) {
+                addCount(1);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除元素
+     * @Date: 2021/3/3
+     * @Return: V
+     */
+    public V remove(K key) {
+        checkKey(key);
+        int hash = spread(key.hashCode());
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = (tab.length() - 1) & hash;
+            Node<K, V> first = tab.get(index);
+            if (first == null) {
+                return null;
+            }
+            if (first.hash == MOVED) {
+                tab = helpTransfer(((ForwardingNode<K, V>) first).transfer);
+                continue;
+            }
+            V old = null;
+            synchronized (first) {
+                if (tab.get(index) != first) {
+                    continue;
+                }
+                if (first.hash == TREEBIN) {
+                    TreeBin<K, V> bin = (TreeBin<K, V>) first;
+                    TreeNode<K, V> root = bin.root;
+                    TreeNode<K, V> node = root == null ? null : root.findTreeNode(hash, key);
+                    if (node != null) {
+                        old = node.value;
+                        // 树太小时退化为链表桶
+                        if (bin.removeTreeNode(node)) {
+                            tab.set(index, untreeify(bin.first));
+                        }
+                    }
+                } else {
+                    Node<K, V> prev = null;
+                    for (Node<K, V> node = first; node != null; prev = node, node = node.next) {
+                        if (node.hash == hash && key.equals(node.key)) {
+                            old = node.value;
+                            if (prev == null) {
+                                tab.set(index, node.next);
+                            } else {
+                                prev.next = node.next;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            if (old != null) {
+                addCount(-1);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 是否包含VALUE
+     * @Date: 2021/3/3
+     * @Return: boolean
+     */
+    public boolean containsValue(final V value) {
+        checkValue(value);
+        final boolean[] found = new boolean[1];
+        traversal(new Visitor<K, V>() {
+            @Override
+            protected boolean operate(K key, V v) {
+                return found[0] = value.equals(v);
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空表
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    public void clear() {
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        int i = 0;
+        while (i < tab.length()) {
+            Node<K, V> first = tab.get(i);
+            if (first == null) {
+                i++;
+            } else if (first.hash == MOVED) {
+                tab = helpTransfer(((ForwardingNode<K, V>) first).transfer);
+                i = 0;
+            } else {
+                long removed = 0;
+                synchronized (first) {
+                    if (tab.get(i) == first) {
+                        Node<K, V> node = first.hash == TREEBIN ? ((TreeBin<K, V>) first).first : first;
+                        for (; node != null; node = node.next) {
+                            removed++;
+                        }
+                        tab.set(i++, null);
+                    }
+                }
+                if (removed > 0) {
+                    addCount(-removed);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 遍历（弱一致性，不会抛出并发修改异常）
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    public void traversal(Visitor<K, V> visitor) {
+        if (visitor == null) {
+            return;
+        }
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        for (int i = 0; i < tab.length() && !visitor.stop; i++) {
+            traversal(tab, i, visitor);
+        }
+    }
+
+    private void traversal(AtomicReferenceArray<Node<K, V>> tab, int index, Visitor<K, V> visitor) {
+        Node<K, V> node = tab.get(index);
+        if (node == null) {
+            return;
+        }
+        // 已迁移的桶在新表中拆分到了index和index + n两个位置
+        if (node.hash == MOVED) {
+            AtomicReferenceArray<Node<K, V>> nextTab = ((ForwardingNode<K, V>) node).transfer.nextTable;
+            traversal(nextTab, index, visitor);
+            if (!visitor.stop) {
+                traversal(nextTab, index + tab.length(), visitor);
+            }
+            return;
+        }
+        // 红黑树桶沿链表遍历，不需要加锁
+        if (node.hash == TREEBIN) {
+            node = ((TreeBin<K, V>) node).first;
+        }
+        while (node != null && !visitor.stop) {
+            visitor.stop = visitor.operate(node.key, node.value);
+            node = node.next;
+        }
+    }
+
+    /**
+     * @param delta
+     * @Author: MachineGeek
+     * @Description: 更新元素个数，超过阈值时触发扩容。
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    private void addCount(long delta) {
+        count.add(delta);
+        if (delta > 0 && count.sum() > threshold) {
+            tryResize(table, false);
+        }
+    }
+
+    /**
+     * @param tab
+     * @param force
+     * @Author: MachineGeek
+     * @Description: 对调用方看到的表发起扩容（已经在扩容则协助迁移）。
+     * 切换表和创建迁移都在resizeLock中进行，tab已经被替换说明扩容刚刚完成，不能再对全是转发节点的旧表发起迁移。
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    private void tryResize(AtomicReferenceArray<Node<K, V>> tab, boolean force) {
+        Transfer<K, V> t = transfer;
+        if (t == null) {
+            synchronized (resizeLock) {
+                t = transfer;
+                if (t == null && tab == table && (force || count.sum() > threshold) && tab.length() < MAXIMUM_CAPACITY) {
+                    t = transfer = new Transfer<>(tab, new AtomicReferenceArray<>(tab.length() << 1));
+                }
+            }
+        }
+        if (t != null) {
+            helpTransfer(t);
+        }
+    }
+
+    /**
+     * @param t
+     * @Author: MachineGeek
+     * @Description: 协助迁移，返回新表。
+     * @Date: 2021/3/3
+     * @Return: java.util.concurrent.atomic.AtomicReferenceArray<cn.machine.geek.structure.map.ConcurrentHashMap.Node<K,V>>
+     */
+    private AtomicReferenceArray<Node<K, V>> helpTransfer(Transfer<K, V> t) {
+        int n = t.table.length();
+        while (true) {
+            int end = t.transferIndex.get();
+            if (end <= 0) {
+                break;
+            }
+            // 领取[start, end)区间的桶
+            int start = Math.max(0, end - t.stride);
+            if (!t.transferIndex.compareAndSet(end, start)) {
+                continue;
+            }
+            for (int i = end - 1; i >= start; i--) {
+                transferBin(t, i);
+            }
+            // 最后一个完成迁移的线程负责切换表
+            if (t.finished.addAndGet(end - start) == n) {
+                synchronized (resizeLock) {
+                    threshold = threshold(t.nextTable.length());
+                    table = t.nextTable;
+                    transfer = null;
+                }
+            }
+        }
+        return t.nextTable;
+    }
+
+    /**
+     * @param t
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 把一个桶拆分成高低两个桶放到新表中，旧表放置转发节点。
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    private void transferBin(Transfer<K, V> t, int index) {
+        AtomicReferenceArray<Node<K, V>> tab = t.table;
+        int n = tab.length();
+        while (true) {
+            Node<K, V> first = tab.get(index);
+            if (first == null) {
+                if (tab.compareAndSet(index, null, t.forwarding)) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (first) {
+                if (tab.get(index) != first) {
+                    continue;
+                }
+                Node<K, V> low = null;
+                Node<K, V> high = null;
+                if (first.hash == TREEBIN) {
+                    // 复制树节点按哈希位拆成两条链表，元素少的一边退化为链表桶
+                    TreeBin<K, V> bin = (TreeBin<K, V>) first;
+                    TreeNode<K, V> lowHead = null, lowTail = null, highHead = null, highTail = null;
+                    int lowCount = 0, highCount = 0;
+                    for (Node<K, V> node = bin.first; node != null; node = node.next) {
+                        TreeNode<K, V> copy = new TreeNode<>(node.hash, node.key, node.value, null, null);
+                        if ((node.hash & n) == 0) {
+                            if ((copy.prev = lowTail) == null) {
+                                lowHead = copy;
+                            } else {
+                                lowTail.next = copy;
+                            }
+                            lowTail = copy;
+                            lowCount++;
+                        } else {
+                            if ((copy.prev = highTail) == null) {
+                                highHead = copy;
+                            } else {
+                                highTail.next = copy;
+                            }
+                            highTail = copy;
+                            highCount++;
+                        }
+                    }
+                    low = lowCount <= UNTREEIFY_THRESHOLD ? untreeify(lowHead) : new TreeBin<>(lowHead);
+                    high = highCount <= UNTREEIFY_THRESHOLD ? untreeify(highHead) : new TreeBin<>(highHead);
+                } else {
+                    // 复制节点而不是修改旧链表，正在读旧链表的线程不受影响
+                    for (Node<K, V> node = first; node != null; node = node.next) {
+                        if ((node.hash & n) == 0) {
+                            low = new Node<>(node.hash, node.key, node.value, low);
+                        } else {
+                            high = new Node<>(node.hash, node.key, node.value, high);
+                        }
+                    }
+                }
+                t.nextTable.set(index, low);
+                t.nextTable.set(index + n, high);
+                tab.set(index, t.forwarding);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param tab
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 把链表桶转换为红黑树桶
+     * @Date: 2021/3/3
+     * @Return: void
+     */
+    private void treeifyBin(AtomicReferenceArray<Node<K, V>> tab, int index) {
+        if (tab.length() < MIN_TREEIFY_CAPACITY) {
+            tryResize(tab, true);
+            return;
+        }
+        Node<K, V> first = tab.get(index);
+        if (first == null || first.hash < 0) {
+            return;
+        }
+        synchronized (first) {
+            if (tab.get(index) == first) {
+                TreeNode<K, V> head = null, tail = null;
+                for (Node<K, V> node = first; node != null; node = node.next) {
+                    TreeNode<K, V> copy = new TreeNode<>(node.hash, node.key, node.value, null, null);
+                    if ((copy.prev = tail) == null) {
+                        head = copy;
+                    } else {
+                        tail.next = copy;
+                    }
+                    tail = copy;
+                }
+                tab.set(index, new TreeBin<>(head));
+            }
+        }
+    }
+
+    /**
+     * @param first
+     * @Author: MachineGeek
+     * @Description: 把红黑树桶的节点链表复制为普通链表
+     * @Date: 2021/3/3
+     * @Return: cn.machine.geek.structure.map.ConcurrentHashMap.Node<K,V>
+     */
+    private Node<K, V> untreeify(Node<K, V> first) {
+        Node<K, V> head = null, tail = null;
+        for (Node<K, V> node = first; node != null; node = node.next) {
+            Node<K, V> copy = new Node<>(node.hash, node.key, node.value, null);
+            if (tail == null) {
+                head = copy;
+            } else {
+                tail.next = copy;
+            }
+            tail = copy;
+        }
+        return head;
+    }
+
+    private void checkKey(K key) {
+        if (key == null) {
+            throw new RuntimeException("Key must not be null");
+        }
+    }
+
+    private void checkValue(V value) {
+        if (value == null) {
+            throw new RuntimeException("Value must not be null");
+        }
+    }
+
+    private static int threshold(int capacity) {
+        return (int) (capacity * DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param hashCode
+     * @Author: MachineGeek
+     * @Description: 混合高低位，并保证结果非负（负数留给特殊节点）
+     * @Date: 2021/3/3
+     * @Return: int
+     */
+    static int spread(int hashCode) {
+        return (hashCode ^ (hashCode >>> 16)) & HASH_BITS;
+    }
+}
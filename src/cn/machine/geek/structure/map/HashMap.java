@@ -1,8 +1,11 @@
 package cn.machine.geek.structure.map;
 
+import java.util.AbstractMap;
 import java.util.LinkedList;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * @Author: MachineGeek
@@ -15,6 +18,19 @@ public class HashMap<K, V> {
     private Node<K, V>[] table;
     private static final int DEFAULT_SIZE = 1 << 4;
     private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    // 渐进式扩容：扩容时保留旧表，每次操作只迁移少量桶
+    private boolean incremental;
+    private Node<K, V>[] oldTable;
+    // 旧表中下一个待迁移的桶，小于它的桶都已经迁移到新表
+    private int rehashIndex;
+    // 每次操作最多迁移的非空桶个数
+    private static final int REHASH_STEP = 1;
+    // 每次操作最多访问的空桶个数
+    private static final int REHASH_EMPTY_VISITS = 10;
+    // 批量获取时每组的KEY个数
+    private static final int GET_BATCH = 32;
+    // 表的长度小于它时整个表基本都在缓存中，批量获取退化为逐个查找
+    private static final int GET_BATCH_MIN_CAPACITY = 1 << 16;
 
     /**
      * @Author: MachineGeek
@@ -22,20 +38,10 @@ public class HashMap<K, V> {
      * @Date: 2021/1/5
      * @Return:
      */
-    public class Node<K, V> {
-        private K key;
-        private V value;
-        private int hashCode;
-        private Node<K, V> parent;
-        private Node<K, V> left;
-        private Node<K, V> right;
-        private boolean red = true;
-
+    public class Node<K, V> extends RedBlackBin.TreeNode<K, V, Node<K, V>> {
         public Node(K key, V value, Node<K, V> parent) {
-            this.key = key;
-            this.value = value;
+            super(key == null ? 0 : key.hashCode(), key, value);
             this.parent = parent;
-            this.hashCode = key == null ? 0 : key.hashCode();
         }
     }
 
@@ -51,8 +57,153 @@ public class HashMap<K, V> {
         protected abstract boolean operate(K key, V value);
     }
 
+    /**
+     * @Author: MachineGeek
+     * @Description: 游标，可以重复使用，迭代过程中不分配内存，迭代期间不能修改表。
+     * @Date: 2021/3/8
+     * @Return:
+     */
+    public class Cursor {
+        private int index = -1;
+        private Node<K, V> node;
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 移动到下一个元素，没有下一个元素时返回false。
+         * @Date: 2021/3/8
+         * @Return: boolean
+         */
+        public boolean next() {
+            if (node != null) {
+                node = subsequentNode(node);
+            }
+            while (node == null) {
+                if (++index >= table.length) {
+                    index = table.length;
+                    return false;
+                }
+                node = leftmostNode(table[index]);
+            }
+            return true;
+        }
+
+        public K key() {
+            checkNode();
+            return node.key;
+        }
+
+        public V value() {
+            checkNode();
+            return node.value;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 回到第一个元素之前
+         * @Date: 2021/3/8
+         * @Return: void
+         */
+        public void reset() {
+            completeRehash();
+            index = -1;
+            node = null;
+        }
+
+        private void checkNode() {
+            if (node == null) {
+                throw new RuntimeException("Cursor is not on an element");
+            }
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按桶区间拆分的Spliterator，用于并行流。
+     * @Date: 2021/3/8
+     * @Return:
+     */
+    private class EntrySpliterator implements Spliterator<Map.Entry<K, V>> {
+        private Node<K, V>[] tab;
+        private int index;
+        private int fence;
+        private int estimate;
+        private Node<K, V> node;
+
+        EntrySpliterator(Node<K, V>[] tab, int index, int fence, int estimate) {
+            this.tab = tab;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            if (action == null) {
+                throw new RuntimeException("Action must not be null");
+            }
+            while (node == null) {
+                if (index >= fence) {
+                    return false;
+                }
+                node = leftmostNode(tab[index++]);
+            }
+            Node<K, V> current = node;
+            node = subsequentNode(current);
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(current.key, current.value));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            // 正在遍历某个桶时不拆分
+            if (node != null || index >= mid) {
+                return null;
+            }
+            int low = index;
+            index = mid;
+            estimate >>>= 1;
+            return new EntrySpliterator(tab, low, mid, estimate);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL;
+        }
+    }
+
     public HashMap() {
-        table = new Node[DEFAULT_SIZE];
+        this(false);
+    }
+
+    /**
+     * @param incremental
+     * @Author: MachineGeek
+     * @Description: incremental为true时使用渐进式扩容，避免一次性迁移大表带来的延迟尖刺
+     * @Date: 2021/3/4
+     * @Return:
+     */
+    public HashMap(boolean incremental) {
+        this.incremental = incremental;
+        table = newTable(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 是否正在渐进式扩容
+     * @Date: 2021/3/4
+     * @Return: boolean
+     */
+    public boolean isRehashing() {
+        return oldTable != null;
     }
 
     public int size() {
@@ -77,6 +228,8 @@ public class HashMap<K, V> {
         for (int i = 0; i < table.length; i++) {
             table[i] = null;
         }
+        oldTable = null;
+        rehashIndex = 0;
         size = 0;
     }
 
@@ -90,147 +243,175 @@ public class HashMap<K, V> {
      */
     public V put(K key, V value) {
         resize();
-        int index = index(key);
-        Node<K, V> root = table[index];
-        if (root == null) {
-            root = new Node<>(key, value, null);
-            afterPut(root);
-            table[index] = root;
-        } else {
-            // 向左右查找并记录parent节点
-            Node<K, V> temp = root;
-            Node<K, V> parent = null;
-            Node<K, V> result;
-            int flag = 0;
-            int hashCode = key.hashCode();
-            boolean searched = false;
-            while (temp != null) {
-                parent = temp;
-                if (temp.hashCode > hashCode) {
-                    flag = 1;
-                } else if (temp.hashCode < hashCode) {
-                    flag = -1;
-                } else if (Objects.equals(temp.key, key)) {
-                    flag = 0;
-                } else if (key != null && temp.key != null && key.getClass() == temp.key.getClass() && key instanceof Comparable && (flag = ((Comparable) temp.key).compareTo(key)) != 0) {
-
-                } else if (searched) {
-                    flag = System.identityHashCode(temp.key) - System.identityHashCode(key);
-                } else {
-                    if ((temp.left != null && (result = getNode(temp.left, key)) != null) || (temp.right != null && (result = getNode(temp.right, key)) != null)) {
-                        temp = result;
-                        flag = 0;
-                    } else {
-                        searched = true;
-                        flag = System.identityHashCode(temp.key) - System.identityHashCode(key);
-                    }
-                }
-                if (flag > 0) {
-                    temp = temp.left;
-                } else if (flag < 0) {
-                    temp = temp.right;
-                } else {
-                    V old = temp.value;
-                    temp.key = key;
-                    temp.value = value;
-                    return old;
+        rehashStep();
+        Node<K, V>[] tab = tableOf(key);
+        return put(tab, index(key, tab.length), key, value);
+    }
+
+    /**
+     * @param tab
+     * @param index
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入元素到指定表的指定桶中
+     * @Date: 2021/3/7
+     * @Return: V
+     */
+    private V put(Node<K, V>[] tab, int index, K key, V value) {
+        Node<K, V> root = tab[index];
+        Node<K, V> node = RedBlackBin.find(root, key == null ? 0 : key.hashCode(), key);
+        if (node != null) {
+            V old = node.value;
+            node.key = key;
+            node.value = value;
+            return old;
+        }
+        tab[index] = RedBlackBin.insert(root, new Node<>(key, value, null));
+        size++;
+        return null;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 扩容
+     * @Date: 2021/2/20
+     * @Return: void
+     */
+    private void resize() {
+        if (size / table.length > DEFAULT_LOAD_FACTOR) {
+            // 渐进式扩容时，只创建新表，旧表的桶在后续操作中逐步迁移
+            if (incremental) {
+                if (oldTable == null) {
+                    oldTable = table;
+                    table = newTable(table.length << 1);
+                    rehashIndex = 0;
                 }
+                return;
             }
-            // 使用节点元素与新增元素的比较值value值来判断放左边还是右边
-            Node<K, V> node = new Node<>(key, value, parent);
-            if (flag > 0) {
-                parent.left = node;
-            } else {
-                parent.right = node;
+            resize(table.length << 1);
+        }
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 创建桶数组，泛型数组只能通过强制转换得到
+     * @Date: 2021/3/7
+     * @Return: cn.machine.geek.structure.map.HashMap.Node<K,V>[]
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] newTable(int length) {
+        return (Node<K, V>[]) new HashMap<?, ?>.Node<?, ?>[length];
+    }
+
+    /**
+     * @param capacity
+     * @Author: MachineGeek
+     * @Description: 一次性把所有节点迁移到指定容量的新表
+     * @Date: 2021/3/7
+     * @Return: void
+     */
+    private void resize(int capacity) {
+        Node<K, V>[] old = table;
+        table = newTable(capacity);
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] != null) {
+                moveTree(old[i]);
             }
-            // 新增后的处理
-            afterPut(node);
         }
-        size++;
-        return null;
     }
 
     /**
-     * @param node
+     * @param expectedSize
+     * @Author: MachineGeek
+     * @Description: 预先扩容到能容纳expectedSize个元素，渐进式扩容会先全部迁移完成。
+     * @Date: 2021/3/7
+     * @Return: void
+     */
+    private void ensureCapacity(int expectedSize) {
+        completeRehash();
+        int capacity = table.length;
+        while (expectedSize / capacity > DEFAULT_LOAD_FACTOR) {
+            capacity <<= 1;
+        }
+        if (capacity != table.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * @param
      * @Author: MachineGeek
-     * @Description: 红黑树添加节点后的处理
-     * @Date: 2021/1/25
+     * @Description: 渐进式扩容的一步：从旧表迁移有限个桶到新表
+     * @Date: 2021/3/4
      * @Return: void
      */
-    private void afterPut(Node<K, V> node) {
-        // 如果是根节点直接染黑返回
-        Node<K, V> parent = node.parent;
-        if (parent == null) {
-            node.red = false;
+    private void rehashStep() {
+        if (oldTable == null) {
             return;
         }
-        // 如果父节点是黑色不用处理，如果是红色则需要处理。
-        if (parent.red) {
-            Node<K, V> grandParent = parent.parent;
-            Node<K, V> uncle = getBrother(parent);
-            // 如果叔父节点是黑色，需要进行旋转操作，并设置颜色。
-            if (isBlack(uncle)) {
-                // L
-                if (parent == parent.parent.left) {
-                    // LL
-                    if (node == parent.left) {
-                        parent.red = false;
-                        // LR
-                    } else {
-                        leftRotate(parent);
-                        node.red = false;
-                    }
-                    grandParent.red = true;
-                    rightRotate(grandParent);
-                    // R
-                } else {
-                    // RL
-                    if (node == parent.left) {
-                        rightRotate(parent);
-                        node.red = false;
-                        // RR
-                    } else {
-                        parent.red = false;
-                    }
-                    grandParent.red = true;
-                    leftRotate(grandParent);
+        int buckets = REHASH_STEP;
+        int emptyVisits = REHASH_EMPTY_VISITS;
+        while (buckets > 0 && rehashIndex < oldTable.length) {
+            Node<K, V> root = oldTable[rehashIndex];
+            // 先推进迁移下标，保证迁移过程中的旋转操作作用在新表上
+            oldTable[rehashIndex++] = null;
+            if (root == null) {
+                if (--emptyVisits == 0) {
+                    break;
                 }
-                // 如果叔父节点是红色，需要向上递归染色。
-            } else {
-                parent.red = false;
-                uncle.red = false;
-                grandParent.red = true;
-                afterPut(grandParent);
+                continue;
             }
+            moveTree(root);
+            buckets--;
+        }
+        if (rehashIndex >= oldTable.length) {
+            oldTable = null;
+            rehashIndex = 0;
         }
     }
 
     /**
      * @param
      * @Author: MachineGeek
-     * @Description: 扩容
-     * @Date: 2021/2/20
+     * @Description: 完成剩余的渐进式扩容
+     * @Date: 2021/3/8
      * @Return: void
      */
-    private void resize() {
-        if (size / table.length > DEFAULT_LOAD_FACTOR) {
-            Node<K, V>[] old = table;
-            table = new Node[table.length << 1];
-            Queue<Node<K, V>> queue = new LinkedList<>();
-            for (int i = 0; i < old.length; i++) {
-                if (old[i] != null) {
-                    queue.offer(old[i]);
-                    while (!queue.isEmpty()) {
-                        Node<K, V> node = queue.poll();
-                        if (node.left != null) {
-                            queue.offer(node.left);
-                        }
-                        if (node.right != null) {
-                            queue.offer(node.right);
-                        }
-                        moveNode(node);
+    private void completeRehash() {
+        while (oldTable != null) {
+            rehashStep();
+        }
+    }
+
+    /**
+     * @param root
+     * @Author: MachineGeek
+     * @Description: 把旧表中一个桶的整棵树移动到新表。沿节点自身的链接向下找到叶子，先把叶子从父节点上摘下再移动，
+     * 然后回到父节点继续，父节点的孩子都移走后它也成了叶子，不需要额外的队列或栈。
+     * @Date: 2021/3/4
+     * @Return: void
+     */
+    private void moveTree(Node<K, V> root) {
+        Node<K, V> node = root;
+        while (node != null) {
+            if (node.left != null) {
+                node = node.left;
+            } else if (node.right != null) {
+                node = node.right;
+            } else {
+                Node<K, V> parent = node.parent;
+                if (parent != null) {
+                    if (parent.left == node) {
+                        parent.left = null;
+                    } else {
+                        parent.right = null;
                     }
                 }
+                moveNode(node);
+                node = parent;
             }
         }
     }
@@ -248,49 +429,8 @@ public class HashMap<K, V> {
         node.left = null;
         node.right = null;
         node.red = true;
-        // 获取新的索引
         int index = index(node.key);
-        // 获取索引上的根节点
-        Node<K, V> root = table[index];
-        // 根节点为Null
-        if (root == null) {
-            root = node;
-            afterPut(root);
-            table[index] = root;
-        } else {
-            // 向左右查找并记录parent节点
-            Node<K, V> temp = root;
-            Node<K, V> parent = null;
-            int flag = 0;
-            // 注意这里是移动节点，所以绝对不会存在相等节点的情况。
-            while (temp != null) {
-                parent = temp;
-                if (temp.hashCode > node.hashCode) {
-                    flag = 1;
-                } else if (temp.hashCode < node.hashCode) {
-                    flag = -1;
-                } else if (node.key != null && temp.key != null && node.key.getClass() == temp.key.getClass() && node.key instanceof Comparable && (flag = ((Comparable) temp.key).compareTo(node.key)) != 0) {
-
-                } else {
-                    flag = System.identityHashCode(temp.key) - System.identityHashCode(node.key);
-                }
-                if (flag > 0) {
-                    temp = temp.left;
-                } else if (flag < 0) {
-                    temp = temp.right;
-                }
-            }
-            // 使用节点元素与新增元素的比较值value值来判断放左边还是右边
-            if (flag > 0) {
-                parent.left = node;
-            } else {
-                parent.right = node;
-            }
-            // 连线
-            node.parent = parent;
-            // 新增后的处理
-            afterPut(node);
-        }
+        table[index] = RedBlackBin.insert(table[index], node);
     }
 
     /**
@@ -301,149 +441,168 @@ public class HashMap<K, V> {
      * @Return: V
      */
     public V get(K key) {
-        Node<K, V> node = getNode(table[index(key)], key);
+        rehashStep();
+        Node<K, V> node = getNode(root(key), key);
         return node == null ? null : node.value;
     }
 
     public V remove(K key) {
-        Node<K, V> node = getNode(table[index(key)], key);
+        rehashStep();
+        Node<K, V>[] tab = tableOf(key);
+        int index = index(key, tab.length);
+        Node<K, V> node = getNode(tab[index], key);
         // 节点为空直接返回
         if (node == null) {
             return null;
         }
         V old = node.value;
-        // 如果节点左右子节点都不为空，寻找一个前驱节点赋值到自己，并让前驱结点删除。
-        if (node.left != null && node.right != null) {
-            Node<K, V> predecessor = predecessorNode(node);
-            node.key = predecessor.key;
-            node.value = predecessor.value;
-            node.hashCode = predecessor.hashCode;
-            node = predecessor;
-        }
-        // 寻找这个将要被删除的节点的子节点作为替代节点
-        Node<K, V> replace = node.left != null ? node.left : node.right;
-        // 有子节点的情况处理
-        Node<K, V> root = table[index(key)];
-        if (replace != null) {
-            replace.parent = node.parent;
-            if (replace.parent == null) {
-                root = replace;
-            } else if (node.parent.left == node) {
-                node.parent.left = replace;
-            } else {
-                node.parent.right = replace;
-            }
-            afterRemove(replace);
-            // 根节点的情况处理
-        } else if (node.parent == null) {
-            root = null;
-            afterRemove(node);
-            // 无子节点的情况处理
-        } else {
-            if (node.parent.left == node) {
-                node.parent.left = null;
-            } else {
-                node.parent.right = null;
-            }
-            afterRemove(node);
-        }
-        // 删除后的情况处理
+        tab[index] = RedBlackBin.remove(tab[index], node);
         size--;
         return old;
     }
 
     /**
-     * @param node
+     * @param
      * @Author: MachineGeek
-     * @Description: 红黑树删除节点后的处理
-     * @Date: 2021/2/1
+     * @Description: 获取游标
+     * @Date: 2021/3/8
+     * @Return: cn.machine.geek.structure.map.HashMap<K,V>.Cursor
+     */
+    public Cursor cursor() {
+        completeRehash();
+        return new Cursor();
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 获取Spliterator，可以配合StreamSupport.stream(spliterator, true)并行遍历。
+     * @Date: 2021/3/8
+     * @Return: java.util.Spliterator<java.util.Map.Entry<K,V>>
+     */
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        completeRehash();
+        return new EntrySpliterator(table, 0, table.length, size);
+    }
+
+    /**
+     * @param keys
+     * @param values
+     * @Author: MachineGeek
+     * @Description: 批量放入元素：只扩容一次，并按桶顺序放入，同一个桶的元素连续处理。
+     * @Date: 2021/3/7
      * @Return: void
      */
-    private void afterRemove(Node<K, V> node) {
-        // 如果删除的节点（或者替代节点）是红色，染黑后直接返回。
-        if (isRed(node)) {
-            node.red = false;
+    public void putAll(K[] keys, V[] values) {
+        if (keys == null || values == null || keys.length != values.length) {
+            throw new RuntimeException("Keys and values must have the same length");
+        }
+        if (keys.length == 0) {
             return;
         }
-        // 如果是根节点直接返回
-        Node<K, V> parent = node.parent;
-        if (parent == null) {
+        ensureCapacity(size + keys.length);
+        long[] order = bucketOrder(keys);
+        for (int i = 0; i < order.length; i++) {
+            int index = (int) (order[i] >>> 32);
+            int position = (int) order[i];
+            put(table, index, keys[position], values[position]);
+        }
+    }
+
+    /**
+     * @param keys
+     * @param results
+     * @Author: MachineGeek
+     * @Description: 批量获取元素，结果按keys的顺序写入results。每GET_BATCH个KEY一组：先算出哈希并取出桶的根节点，
+     * 再让这一组的查找按哈希轮流向下走一层，直到每个都走到哈希相等的节点或空节点，最后比较KEY。
+     * 逐个get时一个KEY的访存要等上一个KEY走完，分组后同一轮的访存互不依赖，CPU可以同时等待多次缓存未命中。
+     * 表能放进缓存时没有未命中可以重叠，直接逐个查找。
+     * @Date: 2021/3/7
+     * @Return: void
+     */
+    public void getAll(K[] keys, V[] results) {
+        if (keys == null || results == null || results.length < keys.length) {
+            throw new RuntimeException("Results must not be shorter than keys");
+        }
+        if (oldTable != null || table.length < GET_BATCH_MIN_CAPACITY) {
+            for (int i = 0; i < keys.length; i++) {
+                results[i] = get(keys[i]);
+            }
             return;
         }
-        // 被删除的节点是黑色叶子节点，获取它的兄弟节点
-        boolean left = parent.left == null || node == parent.left;
-        Node<K, V> brother = left ? parent.right : parent.left;
-        // 被删除的节点在左边，兄弟节点在右边
-        if (left) {
-            // 如果右边的兄弟节点为红色，则对父节点左旋，重新赋值兄弟节点。
-            if (brother.red) {
-                brother.red = false;
-                parent.red = true;
-                leftRotate(parent);
-                brother = parent.right;
+        Node<K, V>[] tab = table;
+        int[] hashCodes = new int[GET_BATCH];
+        Node<K, V>[] nodes = newTable(GET_BATCH);
+        for (int from = 0; from < keys.length; from += GET_BATCH) {
+            int count = Math.min(GET_BATCH, keys.length - from);
+            for (int i = 0; i < count; i++) {
+                K key = keys[from + i];
+                int hashCode = key == null ? 0 : key.hashCode();
+                hashCodes[i] = hashCode;
+                nodes[i] = tab[(hashCode ^ (hashCode >>> 16)) & (tab.length - 1)];
             }
-            // 如果兄弟节点的左右节点都是黑色，则没有可借节点，父节点染黑，兄弟节点染红。
-            if (isBlack(brother.left) && isBlack(brother.right)) {
-                boolean red = parent.red;
-                brother.red = true;
-                parent.red = false;
-                // 如果父节点是黑色，则会下溢，需要重新处理
-                if (!red) {
-                    afterRemove(parent);
-                }
-                // 兄弟节点至少有一个红色子节点
-            } else {
-                // 如果兄弟的右子节点是黑色，兄弟先进行一次右旋
-                if (isBlack(brother.right)) {
-                    rightRotate(brother);
-                    brother = parent.right;
-                }
-                // 染色
-                brother.red = parent.red;
-                if (brother.right != null) {
-                    brother.right.red = false;
+            boolean moved = true;
+            while (moved) {
+                moved = false;
+                for (int i = 0; i < count; i++) {
+                    Node<K, V> node = nodes[i];
+                    if (node != null && node.hash != hashCodes[i]) {
+                        nodes[i] = node.hash > hashCodes[i] ? node.left : node.right;
+                        moved = true;
+                    }
                 }
-                parent.red = false;
-                // 对父节点进行左旋转
-                leftRotate(parent);
-            }
-            // 被删除的节点在右边，兄弟节点在左边
-        } else {
-            // 如果左边的兄弟节点为红色，则对父节点右旋，重新赋值兄弟节点。
-            if (brother.red) {
-                brother.red = false;
-                parent.red = true;
-                rightRotate(parent);
-                brother = parent.left;
             }
-            // 如果兄弟节点的左右节点都是黑色，则没有可借节点，父节点染黑，兄弟节点染红。
-            if (isBlack(brother.left) && isBlack(brother.right)) {
-                boolean red = parent.red;
-                brother.red = true;
-                parent.red = false;
-                // 如果父节点是黑色，则会下溢，需要重新处理
-                if (!red) {
-                    afterRemove(parent);
-                }
-                // 兄弟节点至少有一个红色子节点
-            } else {
-                // 如果兄弟的左子节点是黑色，兄弟先进行一次左旋
-                if (isBlack(brother.left)) {
-                    leftRotate(brother);
-                    brother = parent.left;
-                }
-                // 染色
-                brother.red = parent.red;
-                if (brother.left != null) {
-                    brother.left.red = false;
-                }
-                parent.red = false;
-                // 对父节点进行右旋转
-                rightRotate(parent);
+            for (int i = 0; i < count; i++) {
+                Node<K, V> node = RedBlackBin.find(nodes[i], hashCodes[i], keys[from + i]);
+                results[from + i] = node == null ? null : node.value;
             }
         }
     }
 
+    /**
+     * @param keys
+     * @Author: MachineGeek
+     * @Description: 批量删除元素，按桶顺序删除，返回删除的个数。
+     * @Date: 2021/3/7
+     * @Return: int
+     */
+    public int removeAll(K[] keys) {
+        if (keys == null || size == 0) {
+            return 0;
+        }
+        int oldSize = size;
+        long[] order = bucketOrder(keys);
+        for (int i = 0; i < order.length; i++) {
+            remove(keys[(int) order[i]]);
+        }
+        return oldSize - size;
+    }
+
+    /**
+     * @param keys
+     * @Author: MachineGeek
+     * @Description: 按桶索引对KEY做计数排序，返回值高32位是桶索引，低32位是KEY的下标，同一个桶的KEY相邻并保持原有顺序。
+     * @Date: 2021/3/7
+     * @Return: long[]
+     */
+    private long[] bucketOrder(K[] keys) {
+        int[] indexes = new int[keys.length];
+        int[] counts = new int[table.length + 1];
+        for (int i = 0; i < keys.length; i++) {
+            indexes[i] = index(keys[i]);
+            counts[indexes[i] + 1]++;
+        }
+        // 累加得到每个桶的起始位置
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        long[] order = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[counts[indexes[i]]++] = ((long) indexes[i] << 32) | i;
+        }
+        return order;
+    }
+
     /**
      * @param key
      * @Author: MachineGeek
@@ -452,13 +611,20 @@ public class HashMap<K, V> {
      * @Return: boolean
      */
     public boolean containsKey(K key) {
-        return getNode(table[index(key)], key) != null;
+        return getNode(root(key), key) != null;
     }
 
     public boolean containsValue(V value) {
         if (size == 0) {
             return false;
         }
+        return containsValue(oldTable, value) || containsValue(table, value);
+    }
+
+    private boolean containsValue(Node<K, V>[] table, V value) {
+        if (table == null) {
+            return false;
+        }
         for (int i = 0; i < table.length; i++) {
             Node<K, V> root = table[i];
             if (root == null) {
@@ -493,6 +659,14 @@ public class HashMap<K, V> {
         if (size == 0) {
             return;
         }
+        if (oldTable != null) {
+            for (int i = rehashIndex; i < oldTable.length; i++) {
+                inorder(oldTable[i], visitor);
+                if (visitor.stop) {
+                    return;
+                }
+            }
+        }
         for (int i = 0; i < table.length; i++) {
             inorder(table[i], visitor);
             if (visitor.stop) {
@@ -509,73 +683,53 @@ public class HashMap<K, V> {
      * @Return: int
      */
     private int index(K key) {
+        return index(key, table.length);
+    }
+
+    private int index(K key, int length) {
         if (key == null) {
             return 0;
         }
         int hashCode = key.hashCode();
-        return (hashCode ^ (hashCode >>> 16)) & (table.length - 1);
+        return (hashCode ^ (hashCode >>> 16)) & (length - 1);
     }
 
     /**
-     * @param value1
-     * @param value2
+     * @param key
      * @Author: MachineGeek
-     * @Description: 比较VALUE是否相等
-     * @Date: 2021/2/5
-     * @Return: boolean
+     * @Description: KEY所在的表，渐进式扩容时未迁移的桶仍在旧表中
+     * @Date: 2021/3/4
+     * @Return: cn.machine.geek.structure.map.HashMap.Node<K,V>[]
      */
-    private boolean valEquals(V value1, V value2) {
-        return value1 == null ? value2 == null : value1.equals(value2);
+    private Node<K, V>[] tableOf(K key) {
+        if (oldTable != null && index(key, oldTable.length) >= rehashIndex) {
+            return oldTable;
+        }
+        return table;
     }
 
     /**
-     * @param node
+     * @param key
      * @Author: MachineGeek
-     * @Description: 对节点进行左旋
-     * @Date: 2020/12/31
-     * @Return: cn.machine.geek.structure.tree.AVLTree<E>.Node<E>
+     * @Description: 获取KEY所在桶的根节点
+     * @Date: 2021/3/4
+     * @Return: cn.machine.geek.structure.map.HashMap.Node<K,V>
      */
-    private void leftRotate(Node<K, V> node) {
-        Node<K, V> right = node.right;
-        node.right = right.left;
-        right.left = node;
-        right.parent = node.parent;
-        node.parent = right;
-        if (node.right != null) {
-            node.right.parent = node;
-        }
-        if (right.parent == null) {
-            table[index(node.key)] = right;
-        } else if (right.parent.left == node) {
-            right.parent.left = right;
-        } else {
-            right.parent.right = right;
-        }
+    private Node<K, V> root(K key) {
+        Node<K, V>[] tab = tableOf(key);
+        return tab[index(key, tab.length)];
     }
 
     /**
-     * @param node
+     * @param value1
+     * @param value2
      * @Author: MachineGeek
-     * @Description: 对节点进行右旋
-     * @Date: 2020/12/31
-     * @Return: cn.machine.geek.structure.tree.AVLTree<E>.Node<E>
+     * @Description: 比较VALUE是否相等
+     * @Date: 2021/2/5
+     * @Return: boolean
      */
-    private void rightRotate(Node<K, V> node) {
-        Node<K, V> left = node.left;
-        node.left = left.right;
-        left.right = node;
-        left.parent = node.parent;
-        node.parent = left;
-        if (node.left != null) {
-            node.left.parent = node;
-        }
-        if (left.parent == null) {
-            table[index(node.key)] = left;
-        } else if (left.parent.left == node) {
-            left.parent.left = left;
-        } else {
-            left.parent.right = left;
-        }
+    private boolean valEquals(V value1, V value2) {
+        return value1 == null ? value2 == null : value1.equals(value2);
     }
 
     /**
@@ -586,53 +740,24 @@ public class HashMap<K, V> {
      * @Return: cn.machine.geek.structure.tree.BinarySearchTree<E>.Node<E>
      */
     public Node<K, V> getNode(Node<K, V> temp, K key) {
-        int hashCode = key == null ? 0 : key.hashCode();
-        Node<K, V> result;
-        int cmp = 0;
-        while (temp != null) {
-            if (temp.hashCode > hashCode) {
-                temp = temp.left;
-            } else if (temp.hashCode < hashCode) {
-                temp = temp.right;
-            } else if (Objects.equals(temp.key, key)) {
-                return temp;
-            } else if (key != null && temp.key != null && key.getClass() == temp.key.getClass() && key instanceof Comparable && (cmp = ((Comparable) temp.key).compareTo(key)) != 0) {
-                if (cmp > 0) {
-                    temp = temp.left;
-                } else {
-                    temp = temp.right;
-                }
-            } else if ((temp.left != null && (result = getNode(temp.left, key)) != null) || (temp.right != null && (result = getNode(temp.right, key)) != null)) {
-                return result;
-            } else {
-                return null;
-            }
-        }
-        return temp;
+        return RedBlackBin.find(temp, key == null ? 0 : key.hashCode(), key);
     }
 
     /**
      * @param node
      * @Author: MachineGeek
-     * @Description: 找到当前节点的中序遍历前驱节点
-     * @Date: 2021/1/5
-     * @Return: cn.machine.geek.structure.tree.BinarySearchTree<E>.Node<E>
+     * @Description: 找到以当前节点为根的最左节点
+     * @Date: 2021/3/8
+     * @Return: cn.machine.geek.structure.map.HashMap.Node<K,V>
      */
-    private Node<K, V> predecessorNode(Node<K, V> node) {
+    private Node<K, V> leftmostNode(Node<K, V> node) {
         if (node == null) {
             return null;
         }
-        if (node.left != null) {
+        while (node.left != null) {
             node = node.left;
-            while (node.right != null) {
-                node = node.right;
-            }
-            return node;
-        }
-        while (node.parent != null && node.parent.left == node) {
-            node = node.parent;
         }
-        return node.parent;
+        return node;
     }
 
     /**
@@ -714,42 +839,4 @@ public class HashMap<K, V> {
     }
 
 
-    /**
-     * @param node
-     * @Author: MachineGeek
-     * @Description: 判断节点是否为黑色
-     * @Date: 2021/2/2
-     * @Return: boolean
-     */
-    private boolean isBlack(Node<K, V> node) {
-        return node == null || !node.red;
-    }
-
-    /**
-     * @param node
-     * @Author: MachineGeek
-     * @Description: 判断节点是否为红色
-     * @Date: 2021/2/2
-     * @Return: boolean
-     */
-    private boolean isRed(Node<K, V> node) {
-        return node != null && node.red;
-    }
-
-    /**
-     * @param node
-     * @Author: MachineGeek
-     * @Description: 获取兄弟节点
-     * @Date: 2021/1/25
-     * @Return: cn.machine.geek.structure.tree.RedBlackTree<E>.Node<E>
-     */
-    private Node<K, V> getBrother(Node<K, V> node) {
-        if (node == null || node.parent == null) {
-            return null;
-        } else if (node == node.parent.left) {
-            return node.parent.right;
-        } else {
-            return node.parent.left;
-        }
-    }
 }
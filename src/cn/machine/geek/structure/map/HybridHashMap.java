@@ -0,0 +1,494 @@
+package cn.machine.geek.structure.map;
+
+import cn.machine.geek.structure.map.RedBlackBin.Node;
+
+import java.util.LinkedList;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 哈希表(链表+红黑树版本)
+ * 桶默认是单向链表，链表长度达到TREEIFY_THRESHOLD时转为红黑树，元素变少后再退化为链表。
+ * 没有冲突的桶不需要红黑树的比较逻辑，也不需要父节点、左右子节点和颜色字段。红黑树的节点和平衡逻辑与HashMap共用RedBlackBin。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/5
+ */
+public class HybridHashMap<K, V> {
+    private int size;
+    private Node<K, V>[] table;
+    private static final int DEFAULT_SIZE = 1 << 4;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    // 链表长度达到该值时转为红黑树
+    private static final int TREEIFY_THRESHOLD = 8;
+    // 扩容拆分后元素个数小于等于该值时退化为链表
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    // 表长度小于该值时优先扩容而不是树化
+    private static final int MIN_TREEIFY_CAPACITY = 64;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 红黑树节点
+     * @Date: 2021/3/5
+     * @Return:
+     */
+    static final class TreeNode<K, V> extends RedBlackBin.TreeNode<K, V, TreeNode<K, V>> {
+        TreeNode(int hash, K key, V value) {
+            super(hash, key, value);
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/5
+     * @Return:
+     */
+    public static abstract class Visitor<K, V> {
+        boolean stop;
+
+        protected abstract boolean operate(K key, V value);
+    }
+
+    public HybridHashMap() {
+        table = newTable(DEFAULT_SIZE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空表
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入元素
+     * @Date: 2021/3/5
+     * @Return: V
+     */
+    public V put(K key, V value) {
+        int hash = hash(key);
+        int index = index(hash);
+        Node<K, V> first = table[index];
+        if (first == null) {
+            table[index] = new Node<>(hash, key, value, null);
+        } else if (first instanceof TreeNode) {
+            TreeNode<K, V> root = (TreeNode<K, V>) first;
+            TreeNode<K, V> node = RedBlackBin.find(root, hash, key);
+            if (node != null) {
+                V old = node.value;
+                node.value = value;
+                return old;
+            }
+            table[index] = RedBlackBin.insert(root, new TreeNode<>(hash, key, value));
+        } else {
+            // 在链表中查找，找不到则追加到尾部
+            int binCount = 1;
+            Node<K, V> node = first;
+            while (true) {
+                if (node.hash == hash && Objects.equals(node.key, key)) {
+                    V old = node.value;
+                    node.value = value;
+                    return old;
+                }
+                if (node.next == null) {
+                    node.next = new Node<>(hash, key, value, null);
+                    break;
+                }
+                node = node.next;
+                binCount++;
+            }
+            if (binCount >= TREEIFY_THRESHOLD) {
+                treeifyBin(index);
+            }
+        }
+        if (++size > table.length * DEFAULT_LOAD_FACTOR) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素
+     * @Date: 2021/3/5
+     * @Return: V
+     */
+    public V get(K key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 是否包含KEY
+     * @Date: 2021/3/5
+     * @Return: boolean
+     */
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除元素
+     * @Date: 2021/3/5
+     * @Return: V
+     */
+    public V remove(K key) {
+        int hash = hash(key);
+        int index = index(hash);
+        Node<K, V> first = table[index];
+        if (first == null) {
+            return null;
+        }
+        if (first instanceof TreeNode) {
+            TreeNode<K, V> root = (TreeNode<K, V>) first;
+            TreeNode<K, V> node = RedBlackBin.find(root, hash, key);
+            if (node == null) {
+                return null;
+            }
+            V old = node.value;
+            table[index] = RedBlackBin.remove(root, node);
+            size--;
+            // 树太小时退化为链表
+            root = (TreeNode<K, V>) table[index];
+            if (root == null || root.left == null || root.right == null || root.left.left == null) {
+                untreeifyBin(index);
+            }
+            return old;
+        }
+        Node<K, V> prev = null;
+        for (Node<K, V> node = first; node != null; prev = node, node = node.next) {
+            if (node.hash == hash && Objects.equals(node.key, key)) {
+                if (prev == null) {
+                    table[index] = node.next;
+                } else {
+                    prev.next = node.next;
+                }
+                size--;
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 是否包含VALUE
+     * @Date: 2021/3/5
+     * @Return: boolean
+     */
+    public boolean containsValue(final V value) {
+        if (size == 0) {
+            return false;
+        }
+        final boolean[] found = new boolean[1];
+        traversal(new Visitor<K, V>() {
+            @Override
+            protected boolean operate(K key, V v) {
+                return found[0] = valEquals(v, value);
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 遍历HashMap
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    public void traversal(Visitor<K, V> visitor) {
+        if (size == 0 || visitor == null) {
+            return;
+        }
+        for (int i = 0; i < table.length; i++) {
+            Node<K, V> node = table[i];
+            if (node instanceof TreeNode) {
+                inorder((TreeNode<K, V>) node, visitor);
+            } else {
+                while (node != null && !visitor.stop) {
+                    visitor.stop = visitor.operate(node.key, node.value);
+                    node = node.next;
+                }
+            }
+            if (visitor.stop) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 查找节点
+     * @Date: 2021/3/5
+     * @Return: cn.machine.geek.structure.map.HybridHashMap.Node<K,V>
+     */
+    private Node<K, V> getNode(K key) {
+        int hash = hash(key);
+        Node<K, V> node = table[index(hash)];
+        if (node instanceof TreeNode) {
+            return RedBlackBin.find((TreeNode<K, V>) node, hash, key);
+        }
+        while (node != null) {
+            if (node.hash == hash && Objects.equals(node.key, key)) {
+                return node;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 扩容，链表按哈希位拆分为高低两条链表，红黑树拆分后按元素个数决定重建树还是退化为链表。
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void resize() {
+        if (table.length >= MAXIMUM_CAPACITY) {
+            return;
+        }
+        Node<K, V>[] old = table;
+        int bit = old.length;
+        table = newTable(old.length << 1);
+        for (int i = 0; i < old.length; i++) {
+            Node<K, V> first = old[i];
+            if (first == null) {
+                continue;
+            }
+            if (first instanceof TreeNode) {
+                splitTree((TreeNode<K, V>) first, bit);
+                continue;
+            }
+            Node<K, V> lowHead = null, lowTail = null, highHead = null, highTail = null;
+            for (Node<K, V> node = first; node != null; node = node.next) {
+                if ((node.hash & bit) == 0) {
+                    if (lowTail == null) {
+                        lowHead = node;
+                    } else {
+                        lowTail.next = node;
+                    }
+                    lowTail = node;
+                } else {
+                    if (highTail == null) {
+                        highHead = node;
+                    } else {
+                        highTail.next = node;
+                    }
+                    highTail = node;
+                }
+            }
+            if (lowTail != null) {
+                lowTail.next = null;
+                table[i] = lowHead;
+            }
+            if (highTail != null) {
+                highTail.next = null;
+                table[i + bit] = highHead;
+            }
+        }
+    }
+
+    /**
+     * @param root
+     * @param bit
+     * @Author: MachineGeek
+     * @Description: 扩容时拆分红黑树桶，借用next字段把节点串成高低两条链表。
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void splitTree(TreeNode<K, V> root, int bit) {
+        Node<K, V> low = null, high = null;
+        int lowCount = 0, highCount = 0;
+        Queue<TreeNode<K, V>> queue = new LinkedList<>();
+        queue.offer(root);
+        while (!queue.isEmpty()) {
+            TreeNode<K, V> node = queue.poll();
+            if (node.left != null) {
+                queue.offer(node.left);
+            }
+            if (node.right != null) {
+                queue.offer(node.right);
+            }
+            if ((node.hash & bit) == 0) {
+                node.next = low;
+                low = node;
+                lowCount++;
+            } else {
+                node.next = high;
+                high = node;
+                highCount++;
+            }
+        }
+        rebuildBin(low, lowCount);
+        rebuildBin(high, highCount);
+    }
+
+    /**
+     * @param list
+     * @param count
+     * @Author: MachineGeek
+     * @Description: 根据元素个数把节点链表重建为红黑树桶或者链表桶
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void rebuildBin(Node<K, V> list, int count) {
+        if (list == null) {
+            return;
+        }
+        int index = index(list.hash);
+        if (count > UNTREEIFY_THRESHOLD) {
+            while (list != null) {
+                TreeNode<K, V> node = (TreeNode<K, V>) list;
+                list = list.next;
+                node.next = null;
+                node.parent = null;
+                node.left = null;
+                node.right = null;
+                node.red = true;
+                insertTreeNode(node);
+            }
+        } else {
+            Node<K, V> head = null;
+            while (list != null) {
+                head = new Node<>(list.hash, list.key, list.value, head);
+                list = list.next;
+            }
+            table[index] = head;
+        }
+    }
+
+    /**
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 把链表桶转换为红黑树桶
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void treeifyBin(int index) {
+        // 表太小时冲突多半是容量不足导致的，优先扩容
+        if (table.length < MIN_TREEIFY_CAPACITY) {
+            resize();
+            return;
+        }
+        Node<K, V> node = table[index];
+        table[index] = null;
+        while (node != null) {
+            insertTreeNode(new TreeNode<>(node.hash, node.key, node.value));
+            node = node.next;
+        }
+    }
+
+    /**
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 把红黑树桶转换为链表桶
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void untreeifyBin(int index) {
+        Node<K, V> root = table[index];
+        if (root == null) {
+            return;
+        }
+        final Node<K, V>[] head = newTable(1);
+        inorder((TreeNode<K, V>) root, new Visitor<K, V>() {
+            @Override
+            protected boolean operate(K key, V value) {
+                head[0] = new Node<>(hash(key), key, value, head[0]);
+                return false;
+            }
+        });
+        table[index] = head[0];
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 把一个确定不存在相等KEY的节点插入所在的红黑树桶
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void insertTreeNode(TreeNode<K, V> node) {
+        int index = index(node.hash);
+        table[index] = RedBlackBin.insert((TreeNode<K, V>) table[index], node);
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 中序
+     * @Date: 2021/3/5
+     * @Return: void
+     */
+    private void inorder(TreeNode<K, V> node, Visitor<K, V> visitor) {
+        if (null == node || visitor.stop) {
+            return;
+        }
+        inorder(node.left, visitor);
+        if (visitor.stop) {
+            return;
+        }
+        visitor.stop = visitor.operate(node.key, node.value);
+        inorder(node.right, visitor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    private boolean valEquals(V value1, V value2) {
+        return value1 == null ? value2 == null : value1.equals(value2);
+    }
+
+    private int index(int hash) {
+        return hash & (table.length - 1);
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 混合HashCode的高低位
+     * @Date: 2021/3/5
+     * @Return: int
+     */
+    private static int hash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int hashCode = key.hashCode();
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -0,0 +1,313 @@
+package cn.machine.geek.structure.map;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 哈希表(long -> long，开放寻址线性探测版本，不装箱、不为每个键值对分配节点)
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/2
+ */
+public class LongLongHashMap {
+    private int size;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int threshold;
+    // 0作为空槽标记，所以KEY为0的键值对单独存放
+    private boolean containsZeroKey;
+    private long zeroValue;
+    // 找不到KEY时返回的值
+    private long defaultValue;
+    private static final long FREE = 0L;
+    private static final int DEFAULT_SIZE = 1 << 4;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/2
+     * @Return:
+     */
+    public static abstract class Visitor {
+        boolean stop;
+
+        protected abstract boolean operate(long key, long value);
+    }
+
+    public LongLongHashMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        this(expectedSize, 0L);
+    }
+
+    public LongLongHashMap(int expectedSize, long defaultValue) {
+        if (expectedSize < 0) {
+            throw new RuntimeException("Expected size must not be negative");
+        }
+        this.defaultValue = defaultValue;
+        allocate(IntIntHashMap.capacity(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 找不到KEY时返回的值
+     * @Date: 2021/3/2
+     * @Return: long
+     */
+    public long defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空表
+     * @Date: 2021/3/2
+     * @Return: void
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FREE;
+        }
+        containsZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入元素，返回旧值，不存在旧值时返回默认值。
+     * @Date: 2021/3/2
+     * @Return: long
+     */
+    public long put(long key, long value) {
+        if (key == FREE) {
+            long old = containsZeroKey ? zeroValue : defaultValue;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int index = hash(key) & mask;
+        // 线性探测，直到找到相同的KEY或者空槽
+        while (keys[index] != FREE) {
+            if (keys[index] == key) {
+                long old = values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素，不存在时返回默认值。
+     * @Date: 2021/3/2
+     * @Return: long
+     */
+    public long get(long key) {
+        if (key == FREE) {
+            return containsZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 是否包含KEY
+     * @Date: 2021/3/2
+     * @Return: boolean
+     */
+    public boolean containsKey(long key) {
+        return key == FREE ? containsZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 是否包含VALUE
+     * @Date: 2021/3/2
+     * @Return: boolean
+     */
+    public boolean containsValue(long value) {
+        if (containsZeroKey && zeroValue == value) {
+            return true;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE && values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除元素，返回旧值，不存在时返回默认值。
+     * @Date: 2021/3/2
+     * @Return: long
+     */
+    public long remove(long key) {
+        if (key == FREE) {
+            if (!containsZeroKey) {
+                return defaultValue;
+            }
+            containsZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return defaultValue;
+        }
+        long old = values[index];
+        shiftKeys(index);
+        size--;
+        return old;
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 遍历哈希表
+     * @Date: 2021/3/2
+     * @Return: void
+     */
+    public void traversal(Visitor visitor) {
+        if (size == 0 || visitor == null) {
+            return;
+        }
+        if (containsZeroKey && (visitor.stop = visitor.operate(FREE, zeroValue))) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE && (visitor.stop = visitor.operate(keys[i], values[i]))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 查找KEY所在的槽位，找不到返回-1
+     * @Date: 2021/3/2
+     * @Return: int
+     */
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+        while (keys[index] != FREE) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 删除后把后面同一探测链上的元素往前移，避免使用墓碑标记。
+     * @Date: 2021/3/2
+     * @Return: void
+     */
+    private void shiftKeys(int index) {
+        int last;
+        while (true) {
+            last = index;
+            index = (index + 1) & mask;
+            long key;
+            while (true) {
+                if ((key = keys[index]) == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                int slot = hash(key) & mask;
+                // 理想槽位不在(last, index]之间的元素才可以移动到last
+                if (last <= index ? last >= slot || slot > index : last >= slot && slot > index) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[last] = key;
+            values[last] = values[index];
+        }
+    }
+
+    /**
+     * @param capacity
+     * @Author: MachineGeek
+     * @Description: 扩容并重新放置所有元素
+     * @Date: 2021/3/2
+     * @Return: void
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key == FREE) {
+                continue;
+            }
+            int index = hash(key) & mask;
+            while (keys[index] != FREE) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (capacity > MAXIMUM_CAPACITY || capacity <= 0) {
+            throw new RuntimeException("HashMap is full");
+        }
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 混合高低位，避免连续的KEY聚集在一起
+     * @Date: 2021/3/2
+     * @Return: int
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
@@ -0,0 +1,662 @@
+package cn.machine.geek.structure.map;
+
+import cn.machine.geek.util.Serializer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 堆外哈希表(内存映射文件，开放寻址线性探测版本)
+ * 键值序列化后以[KEY长度][VALUE长度][KEY][VALUE]的格式追加写入映射文件，槽位只保存条目偏移量和哈希值，
+ * 数据不占用Java堆，重新打开文件即可恢复全部数据。覆盖写和删除留下的垃圾字节数记录在文件头中，
+ * 超过数据区的一半时按原容量重建回收，扩容重建时也会回收。重建写入临时文件，关闭并释放所有映射后原子替换原文件。
+ * 文件按块映射，最后一块只映射到用到的长度，按需加倍，空表不会占用整块的地址空间和磁盘。
+ * 写入不是原子的，进程崩溃后文件可能不一致。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/6
+ */
+public class OffHeapHashMap<K, V> implements Closeable {
+    private File file;
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+    private Serializer<K> keySerializer;
+    private Serializer<V> valueSerializer;
+    private int capacity;
+    private int size;
+    // 删除标记的槽位个数
+    private int deleted;
+    // 数据区起始偏移量和下一个可写偏移量
+    private long dataStart;
+    private long dataEnd;
+    // 数据区中已经不被槽位引用的字节数
+    private long deadBytes;
+    private static final long MAGIC = 0x4D47484D41503031L;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int DELETED_OFFSET = 16;
+    private static final int DATA_END_OFFSET = 24;
+    private static final int DEAD_BYTES_OFFSET = 32;
+    // 槽位：[条目偏移量 long][哈希值 int][填充 int]
+    private static final int SLOT_SIZE = 16;
+    private static final int ENTRY_HEADER_SIZE = 8;
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -1L;
+    // 文件按块映射，单个条目不会跨块
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    // 最后一块最少映射的长度
+    private static final int MIN_MAPPING_SIZE = 1 << 12;
+    // 垃圾字节不少于这个值并且超过数据区的一半时压缩
+    private static final long COMPACT_THRESHOLD = 1 << 20;
+    private static final int DEFAULT_SIZE = 1 << 10;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75F;
+    // 主动释放映射：Java 9以后是Unsafe.invokeCleaner，Java 8是DirectBuffer.cleaner().clean()
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/6
+     * @Return:
+     */
+    public static abstract class Visitor<K, V> {
+        boolean stop;
+
+        protected abstract boolean operate(K key, V value);
+    }
+
+    public OffHeapHashMap(File file, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(file, DEFAULT_SIZE, keySerializer, valueSerializer);
+    }
+
+    /**
+     * @param file
+     * @param expectedSize
+     * @param keySerializer
+     * @param valueSerializer
+     * @Author: MachineGeek
+     * @Description: 文件已存在时直接打开并恢复数据，expectedSize只在新建文件时生效。
+     * @Date: 2021/3/6
+     * @Return:
+     */
+    public OffHeapHashMap(File file, int expectedSize, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        if (file == null || keySerializer == null || valueSerializer == null) {
+            throw new RuntimeException("File and serializers must not be null");
+        }
+        if (expectedSize < 0) {
+            throw new RuntimeException("Expected size must not be negative");
+        }
+        this.file = file;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        boolean exists = file.exists() && file.length() >= HEADER_SIZE;
+        open(file);
+        if (exists && getLong(MAGIC_OFFSET) == MAGIC) {
+            capacity = getInt(CAPACITY_OFFSET);
+            size = getInt(SIZE_OFFSET);
+            deleted = getInt(DELETED_OFFSET);
+            dataStart = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            dataEnd = getLong(DATA_END_OFFSET);
+            deadBytes = getLong(DEAD_BYTES_OFFSET);
+        } else if (exists) {
+            close();
+            throw new RuntimeException("Not an OffHeapHashMap file: " + file);
+        } else {
+            int capacity = DEFAULT_SIZE;
+            while (capacity < expectedSize / DEFAULT_LOAD_FACTOR + 1 && capacity < MAXIMUM_CAPACITY) {
+                capacity <<= 1;
+            }
+            initialize(capacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入元素
+     * @Date: 2021/3/6
+     * @Return: V
+     */
+    public V put(K key, V value) {
+        checkKey(key);
+        if (value == null) {
+            throw new RuntimeException("Value must not be null");
+        }
+        byte[] keyBytes = keySerializer.serialize(key);
+        byte[] valueBytes = valueSerializer.serialize(value);
+        // 先查找，覆盖已有的KEY不会触发扩容
+        int hash = hash(keyBytes);
+        long slot = findSlot(keyBytes, hash);
+        long entry = getLong(slot);
+        if (entry > EMPTY) {
+            V old = valueSerializer.deserialize(readValue(entry));
+            // 长度相同直接覆盖，否则追加新条目，旧条目成为垃圾
+            if (getInt(entry + 4) == valueBytes.length) {
+                putBytes(entry + ENTRY_HEADER_SIZE + keyBytes.length, valueBytes);
+            } else {
+                deadBytes += entryLength(entry);
+                putLong(slot, writeEntry(keyBytes, valueBytes));
+                compactIfNeeded();
+            }
+            return old;
+        }
+        if (size + deleted + 1 > capacity * DEFAULT_LOAD_FACTOR) {
+            // 删除标记过多时原容量重建即可，否则扩容
+            rebuild(size + 1 > capacity * DEFAULT_LOAD_FACTOR / 2 ? capacity << 1 : capacity);
+        }
+        // 复用删除标记的槽位
+        long free = findFreeSlot(hash);
+        if (getLong(free) == DELETED) {
+            deleted--;
+        }
+        putLong(free, writeEntry(keyBytes, valueBytes));
+        putInt(free + 8, hash);
+        size++;
+        writeHeader();
+        return null;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素
+     * @Date: 2021/3/6
+     * @Return: V
+     */
+    public V get(K key) {
+        checkKey(key);
+        byte[] keyBytes = keySerializer.serialize(key);
+        long entry = getLong(findSlot(keyBytes, hash(keyBytes)));
+        return entry > EMPTY ? valueSerializer.deserialize(readValue(entry)) : null;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 是否包含KEY
+     * @Date: 2021/3/6
+     * @Return: boolean
+     */
+    public boolean containsKey(K key) {
+        checkKey(key);
+        byte[] keyBytes = keySerializer.serialize(key);
+        return getLong(findSlot(keyBytes, hash(keyBytes))) > EMPTY;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除元素，槽位打上删除标记
+     * @Date: 2021/3/6
+     * @Return: V
+     */
+    public V remove(K key) {
+        checkKey(key);
+        byte[] keyBytes = keySerializer.serialize(key);
+        long slot = findSlot(keyBytes, hash(keyBytes));
+        long entry = getLong(slot);
+        if (entry <= EMPTY) {
+            return null;
+        }
+        V old = valueSerializer.deserialize(readValue(entry));
+        putLong(slot, DELETED);
+        size--;
+        deleted++;
+        deadBytes += entryLength(entry);
+        writeHeader();
+        compactIfNeeded();
+        return old;
+    }
+
+    /**
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 是否包含VALUE
+     * @Date: 2021/3/6
+     * @Return: boolean
+     */
+    public boolean containsValue(V value) {
+        byte[] valueBytes = valueSerializer.serialize(value);
+        for (int i = 0; i < capacity; i++) {
+            long entry = getLong(slotOffset(i));
+            if (entry > EMPTY && getInt(entry + 4) == valueBytes.length && bytesEquals(entry + ENTRY_HEADER_SIZE + getInt(entry), valueBytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空表
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    public void clear() {
+        for (int i = 0; i < capacity; i++) {
+            putLong(slotOffset(i), EMPTY);
+        }
+        size = 0;
+        deleted = 0;
+        dataEnd = dataStart;
+        deadBytes = 0;
+        writeHeader();
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 遍历哈希表
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    public void traversal(Visitor<K, V> visitor) {
+        if (size == 0 || visitor == null) {
+            return;
+        }
+        for (int i = 0; i < capacity && !visitor.stop; i++) {
+            long entry = getLong(slotOffset(i));
+            if (entry > EMPTY) {
+                visitor.stop = visitor.operate(keySerializer.deserialize(readKey(entry)), valueSerializer.deserialize(readValue(entry)));
+            }
+        }
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 把修改刷到磁盘
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    public void flush() {
+        for (MappedByteBuffer chunk : chunks) {
+            if (chunk != null) {
+                chunk.force();
+            }
+        }
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 刷盘、释放映射并关闭文件
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        flush();
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (MappedByteBuffer chunk : chunks) {
+                if (chunk != null) {
+                    unmap(chunk);
+                }
+            }
+            channel = null;
+            randomAccessFile = null;
+            chunks = new MappedByteBuffer[0];
+        }
+    }
+
+    /**
+     * @param keyBytes
+     * @param hash
+     * @Author: MachineGeek
+     * @Description: 查找KEY所在的槽位，找不到时返回探测结束的空槽位
+     * @Date: 2021/3/6
+     * @Return: long
+     */
+    private long findSlot(byte[] keyBytes, int hash) {
+        int mask = capacity - 1;
+        int index = hash & mask;
+        while (true) {
+            long slot = slotOffset(index);
+            long entry = getLong(slot);
+            if (entry == EMPTY) {
+                return slot;
+            }
+            if (entry != DELETED && getInt(slot + 8) == hash && getInt(entry) == keyBytes.length && bytesEquals(entry + ENTRY_HEADER_SIZE, keyBytes)) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @param hash
+     * @Author: MachineGeek
+     * @Description: 查找第一个空槽位或删除标记的槽位
+     * @Date: 2021/3/6
+     * @Return: long
+     */
+    private long findFreeSlot(int hash) {
+        int mask = capacity - 1;
+        int index = hash & mask;
+        while (getLong(slotOffset(index)) > EMPTY) {
+            index = (index + 1) & mask;
+        }
+        return slotOffset(index);
+    }
+
+    /**
+     * @param newCapacity
+     * @Author: MachineGeek
+     * @Description: 把存活条目复制到新文件中重建槽位，同时回收数据区的垃圾空间。
+     * 两个文件都关闭并释放映射之后再原子替换原文件，替换前崩溃原文件不受影响，然后重新打开。
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    private void rebuild(int newCapacity) {
+        if (newCapacity > MAXIMUM_CAPACITY) {
+            throw new RuntimeException("OffHeapHashMap is full");
+        }
+        File temp = new File(file.getPath() + ".rebuild");
+        if (temp.exists() && !temp.delete()) {
+            throw new RuntimeException("Can not delete " + temp);
+        }
+        OffHeapHashMap<K, V> target = new OffHeapHashMap<>(temp, 0, keySerializer, valueSerializer);
+        target.initialize(newCapacity);
+        for (int i = 0; i < capacity; i++) {
+            long slot = slotOffset(i);
+            long entry = getLong(slot);
+            if (entry > EMPTY) {
+                int hash = getInt(slot + 8);
+                long free = target.findFreeSlot(hash);
+                target.putLong(free, target.writeEntry(readKey(entry), readValue(entry)));
+                target.putInt(free + 8, hash);
+                target.size++;
+            }
+        }
+        target.writeHeader();
+        target.close();
+        close();
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Can not replace " + file, e);
+        }
+        open(file);
+        capacity = target.capacity;
+        size = target.size;
+        deleted = 0;
+        deadBytes = 0;
+        dataStart = target.dataStart;
+        dataEnd = target.dataEnd;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 垃圾字节超过阈值并且超过数据区的一半时按原容量重建
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    private void compactIfNeeded() {
+        if (deadBytes >= COMPACT_THRESHOLD && deadBytes > (dataEnd - dataStart) / 2) {
+            rebuild(capacity);
+        }
+    }
+
+    private void open(File file) {
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            channel = randomAccessFile.getChannel();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void initialize(int capacity) {
+        this.capacity = capacity;
+        size = 0;
+        deleted = 0;
+        dataStart = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        dataEnd = dataStart;
+        deadBytes = 0;
+        putLong(MAGIC_OFFSET, MAGIC);
+        for (int i = 0; i < capacity; i++) {
+            putLong(slotOffset(i), EMPTY);
+        }
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        putInt(CAPACITY_OFFSET, capacity);
+        putInt(SIZE_OFFSET, size);
+        putInt(DELETED_OFFSET, deleted);
+        putLong(DATA_END_OFFSET, dataEnd);
+        putLong(DEAD_BYTES_OFFSET, deadBytes);
+    }
+
+    /**
+     * @param keyBytes
+     * @param valueBytes
+     * @Author: MachineGeek
+     * @Description: 在数据区追加条目，放不下当前块时从下一块开始写。
+     * @Date: 2021/3/6
+     * @Return: long
+     */
+    private long writeEntry(byte[] keyBytes, byte[] valueBytes) {
+        int length = ENTRY_HEADER_SIZE + keyBytes.length + valueBytes.length;
+        if (length > CHUNK_SIZE) {
+            throw new RuntimeException("Entry is too large: " + length);
+        }
+        long entry = dataEnd;
+        if ((entry & CHUNK_MASK) + length > CHUNK_SIZE) {
+            entry = ((entry >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+        }
+        putInt(entry, keyBytes.length);
+        putInt(entry + 4, valueBytes.length);
+        putBytes(entry + ENTRY_HEADER_SIZE, keyBytes);
+        putBytes(entry + ENTRY_HEADER_SIZE + keyBytes.length, valueBytes);
+        dataEnd = entry + length;
+        writeHeader();
+        return entry;
+    }
+
+    private long entryLength(long entry) {
+        return ENTRY_HEADER_SIZE + getInt(entry) + getInt(entry + 4);
+    }
+
+    private byte[] readKey(long entry) {
+        return getBytes(entry + ENTRY_HEADER_SIZE, getInt(entry));
+    }
+
+    private byte[] readValue(long entry) {
+        return getBytes(entry + ENTRY_HEADER_SIZE + getInt(entry), getInt(entry + 4));
+    }
+
+    private boolean bytesEquals(long offset, byte[] bytes) {
+        MappedByteBuffer chunk = chunk(offset, bytes.length);
+        int position = (int) (offset & CHUNK_MASK);
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long slotOffset(int index) {
+        return HEADER_SIZE + (long) index * SLOT_SIZE;
+    }
+
+    /**
+     * @param offset
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 获取[offset, offset + length)所在的映射块。块只映射到用到的长度，不够时按两倍重新映射，
+     * 最长CHUNK_SIZE，映射会自动扩展文件长度。
+     * @Date: 2021/3/6
+     * @Return: java.nio.MappedByteBuffer
+     */
+    private MappedByteBuffer chunk(long offset, int length) {
+        int index = (int) (offset >>> CHUNK_SHIFT);
+        if (index >= chunks.length) {
+            MappedByteBuffer[] temp = new MappedByteBuffer[Math.max(index + 1, chunks.length << 1)];
+            for (int i = 0; i < chunks.length; i++) {
+                temp[i] = chunks[i];
+            }
+            chunks = temp;
+        }
+        MappedByteBuffer chunk = chunks[index];
+        int end = (int) (offset & CHUNK_MASK) + length;
+        if (chunk == null || chunk.capacity() < end) {
+            long mapped = chunk == null ? 0 : chunk.capacity();
+            // 文件中已有的部分直接映射，避免重新打开时逐步加倍
+            long available = Math.max(0, fileLength() - ((long) index << CHUNK_SHIFT));
+            long size = Math.max(Math.max(MIN_MAPPING_SIZE, mapped << 1), available);
+            while (size < end) {
+                size <<= 1;
+            }
+            try {
+                chunks[index] = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << CHUNK_SHIFT, Math.min(size, CHUNK_SIZE));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (chunk != null) {
+                unmap(chunk);
+            }
+        }
+        return chunks[index];
+    }
+
+    private long fileLength() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long getLong(long offset) {
+        return chunk(offset, Long.BYTES).getLong((int) (offset & CHUNK_MASK));
+    }
+
+    private void putLong(long offset, long value) {
+        chunk(offset, Long.BYTES).putLong((int) (offset & CHUNK_MASK), value);
+    }
+
+    private int getInt(long offset) {
+        return chunk(offset, Integer.BYTES).getInt((int) (offset & CHUNK_MASK));
+    }
+
+    private void putInt(long offset, int value) {
+        chunk(offset, Integer.BYTES).putInt((int) (offset & CHUNK_MASK), value);
+    }
+
+    private byte[] getBytes(long offset, int length) {
+        MappedByteBuffer chunk = chunk(offset, length);
+        int position = (int) (offset & CHUNK_MASK);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = chunk.get(position + i);
+        }
+        return bytes;
+    }
+
+    private void putBytes(long offset, byte[] bytes) {
+        MappedByteBuffer chunk = chunk(offset, bytes.length);
+        int position = (int) (offset & CHUNK_MASK);
+        for (int i = 0; i < bytes.length; i++) {
+            chunk.put(position + i, bytes[i]);
+        }
+    }
+
+    /**
+     * @param chunk
+     * @Author: MachineGeek
+     * @Description: 立即释放映射，之后不能再访问chunk。无法主动释放时交给GC回收。
+     * @Date: 2021/3/6
+     * @Return: void
+     */
+    private static void unmap(MappedByteBuffer chunk) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, chunk);
+                return;
+            }
+            Method cleanerMethod = chunk.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(chunk);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 释放失败时映射仍然有效，由GC回收
+        }
+    }
+
+    private void checkKey(K key) {
+        if (key == null) {
+            throw new RuntimeException("Key must not be null");
+        }
+    }
+
+    /**
+     * @param bytes
+     * @Author: MachineGeek
+     * @Description: FNV-1a哈希，再混合高低位
+     * @Date: 2021/3/6
+     * @Return: int
+     */
+    private static int hash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,401 @@
+package cn.machine.geek.structure.map;
+
+import java.util.Objects;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 哈希桶中的红黑树，HashMap和HybridHashMap共用节点和查找、插入、删除、平衡的逻辑。
+ * 树按节点的hash排序，hash相同时再用Comparable比较，仍然分不出大小时查找两边子树，插入按identityHashCode决定方向。
+ * 会改变树结构的方法返回新的根节点，由调用方写回自己的桶中。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/5
+ */
+final class RedBlackBin {
+    private RedBlackBin() {
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 链表节点，HybridHashMap的链表桶直接使用，红黑树节点借用next字段拆分桶。
+     * @Date: 2021/3/5
+     * @Return:
+     */
+    static class Node<K, V> {
+        int hash;
+        K key;
+        V value;
+        Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 红黑树节点，N是具体的节点类型，子类的parent、left、right不需要强制转换。
+     * @Date: 2021/3/5
+     * @Return:
+     */
+    static class TreeNode<K, V, N extends TreeNode<K, V, N>> extends Node<K, V> {
+        N parent;
+        N left;
+        N right;
+        boolean red = true;
+
+        TreeNode(int hash, K key, V value) {
+            super(hash, key, value, null);
+        }
+    }
+
+    /**
+     * @param node
+     * @param hash
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 在以node为根的树中查找KEY所在的节点
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    static <K, V, N extends TreeNode<K, V, N>> N find(N node, int hash, K key) {
+        N result;
+        int cmp;
+        while (node != null) {
+            if (node.hash > hash) {
+                node = node.left;
+            } else if (node.hash < hash) {
+                node = node.right;
+            } else if (Objects.equals(node.key, key)) {
+                return node;
+            } else if ((cmp = compareKeys(node.key, key)) != 0) {
+                node = cmp > 0 ? node.left : node.right;
+            } else if (node.left != null && (result = find(node.left, hash, key)) != null) {
+                return result;
+            } else {
+                // 左子树没有找到，继续在右子树中查找
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 把一个确定不存在相等KEY的节点插入树中，节点的链接和颜色需要是初始状态。
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    static <K, V, N extends TreeNode<K, V, N>> N insert(N root, N node) {
+        N temp = root;
+        N parent = null;
+        int flag = 0;
+        while (temp != null) {
+            parent = temp;
+            if (temp.hash > node.hash) {
+                flag = 1;
+            } else if (temp.hash < node.hash) {
+                flag = -1;
+            } else if ((flag = compareKeys(temp.key, node.key)) == 0) {
+                flag = System.identityHashCode(temp.key) - System.identityHashCode(node.key);
+            }
+            if (flag > 0) {
+                temp = temp.left;
+            } else {
+                temp = temp.right;
+            }
+        }
+        node.parent = parent;
+        if (parent == null) {
+            root = node;
+        } else if (flag > 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        return afterPut(root, node);
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 从树中删除节点
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    static <K, V, N extends TreeNode<K, V, N>> N remove(N root, N node) {
+        // 如果节点左右子节点都不为空，寻找一个前驱节点赋值到自己，并让前驱结点删除。
+        if (node.left != null && node.right != null) {
+            N predecessor = node.left;
+            while (predecessor.right != null) {
+                predecessor = predecessor.right;
+            }
+            node.key = predecessor.key;
+            node.value = predecessor.value;
+            node.hash = predecessor.hash;
+            node = predecessor;
+        }
+        // 寻找这个将要被删除的节点的子节点作为替代节点
+        N replace = node.left != null ? node.left : node.right;
+        // 有子节点的情况处理
+        if (replace != null) {
+            replace.parent = node.parent;
+            if (node.parent == null) {
+                root = replace;
+            } else if (node.parent.left == node) {
+                node.parent.left = replace;
+            } else {
+                node.parent.right = replace;
+            }
+            return afterRemove(root, replace);
+            // 根节点的情况处理
+        } else if (node.parent == null) {
+            return null;
+            // 无子节点的情况处理
+        } else {
+            if (node.parent.left == node) {
+                node.parent.left = null;
+            } else {
+                node.parent.right = null;
+            }
+            return afterRemove(root, node);
+        }
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 红黑树添加节点后的处理
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    private static <K, V, N extends TreeNode<K, V, N>> N afterPut(N root, N node) {
+        while (true) {
+            // 如果是根节点直接染黑返回
+            N parent = node.parent;
+            if (parent == null) {
+                node.red = false;
+                return node;
+            }
+            // 如果父节点是黑色不用处理，如果是红色则需要处理。
+            if (!parent.red) {
+                return root;
+            }
+            N grandParent = parent.parent;
+            N uncle = parent == grandParent.left ? grandParent.right : grandParent.left;
+            // 如果叔父节点是红色，需要向上染色。
+            if (isRed(uncle)) {
+                parent.red = false;
+                uncle.red = false;
+                grandParent.red = true;
+                node = grandParent;
+                continue;
+            }
+            // 如果叔父节点是黑色，需要进行旋转操作，并设置颜色。
+            // L
+            if (parent == grandParent.left) {
+                // LL
+                if (node == parent.left) {
+                    parent.red = false;
+                    // LR
+                } else {
+                    root = leftRotate(root, parent);
+                    node.red = false;
+                }
+                grandParent.red = true;
+                return rightRotate(root, grandParent);
+                // R
+            } else {
+                // RL
+                if (node == parent.left) {
+                    root = rightRotate(root, parent);
+                    node.red = false;
+                    // RR
+                } else {
+                    parent.red = false;
+                }
+                grandParent.red = true;
+                return leftRotate(root, grandParent);
+            }
+        }
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 红黑树删除节点后的处理
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    private static <K, V, N extends TreeNode<K, V, N>> N afterRemove(N root, N node) {
+        while (true) {
+            // 如果删除的节点（或者替代节点）是红色，染黑后直接返回。
+            if (isRed(node)) {
+                node.red = false;
+                return root;
+            }
+            // 如果是根节点直接返回
+            N parent = node.parent;
+            if (parent == null) {
+                return root;
+            }
+            // 被删除的节点是黑色叶子节点，获取它的兄弟节点
+            boolean left = parent.left == null || node == parent.left;
+            N brother = left ? parent.right : parent.left;
+            // 被删除的节点在左边，兄弟节点在右边
+            if (left) {
+                // 如果右边的兄弟节点为红色，则对父节点左旋，重新赋值兄弟节点。
+                if (brother.red) {
+                    brother.red = false;
+                    parent.red = true;
+                    root = leftRotate(root, parent);
+                    brother = parent.right;
+                }
+                // 如果兄弟节点的左右节点都是黑色，则没有可借节点，父节点染黑，兄弟节点染红。
+                if (isBlack(brother.left) && isBlack(brother.right)) {
+                    boolean red = parent.red;
+                    brother.red = true;
+                    parent.red = false;
+                    // 如果父节点是黑色，则会下溢，需要继续处理父节点
+                    if (red) {
+                        return root;
+                    }
+                    node = parent;
+                    continue;
+                }
+                // 如果兄弟的右子节点是黑色，兄弟先进行一次右旋
+                if (isBlack(brother.right)) {
+                    root = rightRotate(root, brother);
+                    brother = parent.right;
+                }
+                // 染色
+                brother.red = parent.red;
+                if (brother.right != null) {
+                    brother.right.red = false;
+                }
+                parent.red = false;
+                // 对父节点进行左旋转
+                return leftRotate(root, parent);
+                // 被删除的节点在右边，兄弟节点在左边
+            } else {
+                // 如果左边的兄弟节点为红色，则对父节点右旋，重新赋值兄弟节点。
+                if (brother.red) {
+                    brother.red = false;
+                    parent.red = true;
+                    root = rightRotate(root, parent);
+                    brother = parent.left;
+                }
+                // 如果兄弟节点的左右节点都是黑色，则没有可借节点，父节点染黑，兄弟节点染红。
+                if (isBlack(brother.left) && isBlack(brother.right)) {
+                    boolean red = parent.red;
+                    brother.red = true;
+                    parent.red = false;
+                    // 如果父节点是黑色，则会下溢，需要继续处理父节点
+                    if (red) {
+                        return root;
+                    }
+                    node = parent;
+                    continue;
+                }
+                // 如果兄弟的左子节点是黑色，兄弟先进行一次左旋
+                if (isBlack(brother.left)) {
+                    root = leftRotate(root, brother);
+                    brother = parent.left;
+                }
+                // 染色
+                brother.red = parent.red;
+                if (brother.left != null) {
+                    brother.left.red = false;
+                }
+                parent.red = false;
+                // 对父节点进行右旋转
+                return rightRotate(root, parent);
+            }
+        }
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 对节点进行左旋
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    private static <K, V, N extends TreeNode<K, V, N>> N leftRotate(N root, N node) {
+        N right = node.right;
+        node.right = right.left;
+        right.left = node;
+        right.parent = node.parent;
+        node.parent = right;
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+        if (right.parent == null) {
+            return right;
+        } else if (right.parent.left == node) {
+            right.parent.left = right;
+        } else {
+            right.parent.right = right;
+        }
+        return root;
+    }
+
+    /**
+     * @param root
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 对节点进行右旋
+     * @Date: 2021/3/5
+     * @Return: N
+     */
+    private static <K, V, N extends TreeNode<K, V, N>> N rightRotate(N root, N node) {
+        N left = node.left;
+        node.left = left.right;
+        left.right = node;
+        left.parent = node.parent;
+        node.parent = left;
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (left.parent == null) {
+            return left;
+        } else if (left.parent.left == node) {
+            left.parent.left = left;
+        } else {
+            left.parent.right = left;
+        }
+        return root;
+    }
+
+    /**
+     * @param key1
+     * @param key2
+     * @Author: MachineGeek
+     * @Description: 两个KEY是同一种Comparable时返回比较结果，否则返回0。
+     * @Date: 2021/3/5
+     * @Return: int
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static int compareKeys(Object key1, Object key2) {
+        if (key1 == null || key2 == null || key1.getClass() != key2.getClass() || !(key1 instanceof Comparable)) {
+            return 0;
+        }
+        return ((Comparable) key1).compareTo(key2);
+    }
+
+    private static boolean isBlack(TreeNode<?, ?, ?> node) {
+        return node == null || !node.red;
+    }
+
+    private static boolean isRed(TreeNode<?, ?, ?> node) {
+        return node != null && node.red;
+    }
+}
@@ -1,8 +1,12 @@
 package cn.machine.geek.structure.map;
 
+import java.util.AbstractMap;
 import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * @Author: MachineGeek
@@ -48,6 +52,140 @@ public class TreeMap<K, V> {
         protected abstract boolean operate(K key, V value);
     }
 
+    /**
+     * @Author: MachineGeek
+     * @Description: 游标，可以重复使用，借助父节点指针迭代，不需要栈也不分配内存，迭代期间不能修改映射。
+     * @Date: 2021/3/8
+     * @Return:
+     */
+    public class Cursor {
+        private Node<K, V> node;
+        private boolean started;
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 按KEY的顺序移动到下一个元素，没有下一个元素时返回false。
+         * @Date: 2021/3/8
+         * @Return: boolean
+         */
+        public boolean next() {
+            node = started ? subsequentNode(node) : leftmostNode(root);
+            started = true;
+            return node != null;
+        }
+
+        public K key() {
+            checkNode();
+            return node.key;
+        }
+
+        public V value() {
+            checkNode();
+            return node.value;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 回到第一个元素之前
+         * @Date: 2021/3/8
+         * @Return: void
+         */
+        public void reset() {
+            node = null;
+            started = false;
+        }
+
+        private void checkNode() {
+            if (node == null) {
+                throw new RuntimeException("Cursor is not on an element");
+            }
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按子树拆分的Spliterator，遍历区间为[current, fence)，side记录上一次拆分的方向。
+     * @Date: 2021/3/8
+     * @Return:
+     */
+    private class EntrySpliterator implements Spliterator<Map.Entry<K, V>> {
+        private Node<K, V> current;
+        private Node<K, V> fence;
+        private int side;
+        private int estimate;
+
+        EntrySpliterator(Node<K, V> current, Node<K, V> fence, int side, int estimate) {
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            if (action == null) {
+                throw new RuntimeException("Action must not be null");
+            }
+            Node<K, V> node = current;
+            if (node == null || node == fence) {
+                return false;
+            }
+            current = subsequentNode(node);
+            action.accept(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            Node<K, V> node = current;
+            Node<K, V> split;
+            // 第一次从根节点拆分，之后从上一次拆分点的子树中继续拆分
+            if (node == null || node == fence) {
+                split = null;
+            } else if (side == 0) {
+                split = root;
+            } else if (side > 0) {
+                split = node.right;
+            } else if (fence != null) {
+                split = fence.left;
+            } else {
+                split = null;
+            }
+            if (split != null && split != node && split != fence && compare(node.key, split.key) < 0) {
+                side = 1;
+                estimate >>>= 1;
+                current = split;
+                return new EntrySpliterator(node, split, -1, estimate);
+            }
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | SORTED | ORDERED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Map.Entry<K, V>> getComparator() {
+            if (comparator != null) {
+                return Map.Entry.comparingByKey(comparator);
+            }
+            return new Comparator<Map.Entry<K, V>>() {
+                @Override
+                public int compare(Map.Entry<K, V> o1, Map.Entry<K, V> o2) {
+                    return ((Comparable) o1.getKey()).compareTo(o2.getKey());
+                }
+            };
+        }
+    }
+
     /**
      * @param key
      * @Author: MachineGeek
@@ -639,6 +777,45 @@ public class TreeMap<K, V> {
         }
     }
 
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 获取游标
+     * @Date: 2021/3/8
+     * @Return: cn.machine.geek.structure.map.TreeMap<K,V>.Cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 获取Spliterator，可以配合StreamSupport.stream(spliterator, true)并行遍历。
+     * @Date: 2021/3/8
+     * @Return: java.util.Spliterator<java.util.Map.Entry<K,V>>
+     */
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        return new EntrySpliterator(leftmostNode(root), null, 0, size);
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 找到以当前节点为根的最左节点
+     * @Date: 2021/3/8
+     * @Return: cn.machine.geek.structure.map.TreeMap.Node<K,V>
+     */
+    private Node<K, V> leftmostNode(Node<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
     /**
      * @param visitor
      * @Author: MachineGeek
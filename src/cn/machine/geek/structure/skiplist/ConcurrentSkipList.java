@@ -0,0 +1,373 @@
+package cn.machine.geek.structure.skiplist;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 并发跳表(无锁版本)
+ * 每层的next是带删除标记的引用，链接和删除都通过CAS完成，不加锁。标记不占用额外的位，而是把后继包装成Marker放入next中，
+ * 只有删除时才分配，没有标记的next直接就是后继节点，查找时每层少两次间接访问：
+ * 1.插入先在最底层CAS链接，成功即插入完成，再逐层向上链接索引层。
+ * 2.删除先把节点的值CAS为null，成功的线程就是删除者，然后从上到下给每层的next打上删除标记，
+ * 被标记的节点不能再在它后面链接新节点，查找时遇到被标记的节点顺手CAS摘除。
+ * 3.读取不修改任何引用，跳过被标记的节点，值为null的节点视为不存在。
+ * 随机层数使用ThreadLocalRandom，多个线程不会竞争同一个随机数种子。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/22
+ */
+public class ConcurrentSkipList<K, V> {
+    private static final int MAX_LEVEL = 16;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Object> VALUE =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Object.class, "value");
+    private final Node<K, V> head;
+    private final LongAdder count = new LongAdder();
+    // 用到的最高层数，只增不减，查找从这一层开始
+    private final AtomicInteger level = new AtomicInteger(1);
+    private final Comparator<K> comparator;
+
+    static class Node<K, V> {
+        final K key;
+        // 为null表示已经被删除
+        volatile Object value;
+        // 每层的后继节点，或者包装了后继节点的Marker
+        final AtomicReferenceArray<Object> nexts;
+
+        Node(K key, V value, int level) {
+            this.key = key;
+            this.value = value;
+            this.nexts = new AtomicReferenceArray<>(level);
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 删除标记，放入next后这一层的next不会再改变
+     * @Date: 2021/3/22
+     * @Return:
+     */
+    static final class Marker<K, V> {
+        final Node<K, V> node;
+
+        Marker(Node<K, V> node) {
+            this.node = node;
+        }
+    }
+
+    public ConcurrentSkipList() {
+        this(null);
+    }
+
+    public ConcurrentSkipList(Comparator<K> comparator) {
+        this.comparator = comparator;
+        this.head = new Node<>(null, null, MAX_LEVEL);
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 元素个数，有并发修改时是近似值
+     * @Date: 2021/3/22
+     * @Return: int
+     */
+    public int size() {
+        return count.intValue();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入节点，已经存在时CAS替换值并返回旧值
+     * @Date: 2021/3/22
+     * @Return: V
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        checkKey(key);
+        if (value == null) {
+            throw new RuntimeException("Value must not be null");
+        }
+        Node<K, V>[] preds = newNodes(MAX_LEVEL);
+        Node<K, V>[] succs = newNodes(MAX_LEVEL);
+        int level = randomLevel();
+        // 先提高层数，之后的查找才会给新节点的每一层找到前驱
+        for (int top = this.level.get(); top < level && !this.level.compareAndSet(top, level); ) {
+            top = this.level.get();
+        }
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                Object old = node.value;
+                if (old != null) {
+                    if (VALUE.compareAndSet(node, old, value)) {
+                        return (V) old;
+                    }
+                    continue;
+                }
+                // 正在被删除，帮忙打上标记，下一次查找会把它摘除
+                mark(node);
+                continue;
+            }
+            Node<K, V> node = new Node<>(key, value, level);
+            for (int i = 0; i < level; i++) {
+                node.nexts.lazySet(i, succs[i]);
+            }
+            if (!preds[0].nexts.compareAndSet(0, succs[0], node)) {
+                continue;
+            }
+            count.increment();
+            link(node, key, preds, succs);
+            return null;
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素
+     * @Date: 2021/3/22
+     * @Return: V
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        checkKey(key);
+        Node<K, V> pred = head;
+        Node<K, V> curr;
+        for (int i = level.get() - 1; i >= 0; i--) {
+            curr = successor(pred.nexts.get(i));
+            while (curr != null) {
+                Object next = curr.nexts.get(i);
+                // 被标记的节点直接跳过
+                if (next instanceof Marker) {
+                    curr = ((Marker<K, V>) next).node;
+                    continue;
+                }
+                Node<K, V> succ = (Node<K, V>) next;
+                int cmp = compare(curr.key, key);
+                if (cmp == 0) {
+                    return (V) curr.value;
+                }
+                if (cmp > 0) {
+                    break;
+                }
+                pred = curr;
+                curr = succ;
+            }
+        }
+        return null;
+    }
+
+    public boolean contains(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除节点，值CAS为null的时刻就是删除生效的时刻
+     * @Date: 2021/3/22
+     * @Return: V
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        checkKey(key);
+        Node<K, V>[] preds = newNodes(MAX_LEVEL);
+        Node<K, V>[] succs = newNodes(MAX_LEVEL);
+        if (!find(key, preds, succs)) {
+            return null;
+        }
+        Node<K, V> node = succs[0];
+        Object old;
+        do {
+            old = node.value;
+            if (old == null) {
+                return null;
+            }
+        } while (!VALUE.compareAndSet(node, old, null));
+        count.decrement();
+        mark(node);
+        // 摘除所有层
+        find(key, preds, succs);
+        return (V) old;
+    }
+
+    /**
+     * @param key
+     * @param preds
+     * @param succs
+     * @Author: MachineGeek
+     * @Description: 找到每层中key的前驱和后继（第一个不小于key的节点），路上遇到被标记的节点CAS摘除，
+     * 摘除失败说明前驱变了，从头开始。返回最底层的后继是否等于key。
+     * @Date: 2021/3/22
+     * @Return: boolean
+     */
+    @SuppressWarnings("unchecked")
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int i = level.get() - 1; i >= 0; i--) {
+                // pred在这一层已经被标记，在它后面摘除或链接都会失败，从头重试
+                Object next = pred.nexts.get(i);
+                if (next instanceof Marker) {
+                    continue retry;
+                }
+                curr = (Node<K, V>) next;
+                while (curr != null) {
+                    next = curr.nexts.get(i);
+                    while (next instanceof Marker) {
+                        Node<K, V> succ = ((Marker<K, V>) next).node;
+                        if (!pred.nexts.compareAndSet(i, curr, succ)) {
+                            continue retry;
+                        }
+                        curr = succ;
+                        if (curr == null) {
+                            break;
+                        }
+                        next = curr.nexts.get(i);
+                    }
+                    if (curr == null || compare(curr.key, key) >= 0) {
+                        break;
+                    }
+                    pred = curr;
+                    curr = (Node<K, V>) next;
+                }
+                preds[i] = pred;
+                succs[i] = curr;
+            }
+            return curr != null && compare(curr.key, key) == 0;
+        }
+    }
+
+    /**
+     * @param node
+     * @param key
+     * @param preds
+     * @param succs
+     * @Author: MachineGeek
+     * @Description: 底层已经链接，逐层向上链接索引层。先把node在这一层的next改为最新的后继，
+     * 这一步失败说明node已经被标记删除，不再继续链接。
+     * @Date: 2021/3/22
+     * @Return: void
+     */
+    private void link(Node<K, V> node, K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        for (int i = 1; i < node.nexts.length(); i++) {
+            while (true) {
+                Node<K, V> pred = preds[i];
+                Node<K, V> succ = succs[i];
+                Object next = node.nexts.get(i);
+                if (next != succ && (next instanceof Marker || !node.nexts.compareAndSet(i, next, succ))) {
+                    return;
+                }
+                if (pred.nexts.compareAndSet(i, succ, node)) {
+                    break;
+                }
+                // 前驱变了，重新查找；node已经不在底层说明被删除了
+                if (!find(key, preds, succs) || succs[0] != node) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 从上到下给每层的next打上删除标记，多个线程重复标记没有影响
+     * @Date: 2021/3/22
+     * @Return: void
+     */
+    @SuppressWarnings("unchecked")
+    private void mark(Node<K, V> node) {
+        for (int i = node.nexts.length() - 1; i >= 0; i--) {
+            Object next = node.nexts.get(i);
+            while (!(next instanceof Marker)) {
+                if (node.nexts.compareAndSet(i, next, new Marker<>((Node<K, V>) next))) {
+                    break;
+                }
+                next = node.nexts.get(i);
+            }
+        }
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 创建节点数组，泛型数组只能通过强制转换得到
+     * @Date: 2021/3/22
+     * @Return: cn.machine.geek.structure.skiplist.ConcurrentSkipList.Node<K,V>[]
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newNodes(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
+    /**
+     * @param next
+     * @Author: MachineGeek
+     * @Description: next中保存的后继节点
+     * @Date: 2021/3/22
+     * @Return: cn.machine.geek.structure.skiplist.ConcurrentSkipList.Node<K,V>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> successor(Object next) {
+        return next instanceof Marker ? ((Marker<K, V>) next).node : (Node<K, V>) next;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 检查Key
+     * @Date: 2021/3/22
+     * @Return: void
+     */
+    private void checkKey(K key) {
+        if (key == null) {
+            throw new RuntimeException("Key must not be null");
+        }
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 随机层，每两位随机数都为0时层数加一，即P = 0.25
+     * @Date: 2021/3/22
+     * @Return: int
+     */
+    private int randomLevel() {
+        int random = ThreadLocalRandom.current().nextInt();
+        int level = 1;
+        while ((random & 3) == 0 && level < MAX_LEVEL) {
+            level++;
+            random >>>= 2;
+        }
+        return level;
+    }
+
+    /**
+     * @param k1
+     * @param k2
+     * @Author: MachineGeek
+     * @Description: 比较Key
+     * @Date: 2021/3/22
+     * @Return: int
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(K k1, K k2) {
+        if (comparator != null) {
+            return comparator.compare(k1, k2);
+        }
+        return ((Comparable<K>) k1).compareTo(k2);
+    }
+}
@@ -0,0 +1,318 @@
+package cn.machine.geek.structure.skiplist;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 跳表(long -> long，节点压平在int数组中的版本，不装箱、不为每个节点分配对象)
+ * 所有节点连续存放在一个int数组links中，节点就是它在数组中的下标，0是头节点，也表示空链接。
+ * 每个节点占5 + level个int：KEY的高低32位、VALUE的高低32位、层数、每一层的next。
+ * 查找时KEY和next在同一段连续内存中，每走一步只访问一次数组；删除的节点按层数放入空闲链表，插入时优先复用。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/24
+ */
+public class LongLongSkipList {
+    private static final int KEY = 0;
+    private static final int VALUE = 2;
+    private static final int LEVEL = 4;
+    private static final int NEXT = 5;
+    private static final int HEAD = 0;
+    private static final int NIL = 0;
+    // P = 0.25时16层足够容纳4^16个元素
+    private static final int MAX_LEVEL = 16;
+    private static final int DEFAULT_SIZE = 1 << 4;
+    // 预估每个节点的平均长度（平均层数为4/3）
+    private static final int AVERAGE_NODE_LENGTH = NEXT + 2;
+    private static final int MAXIMUM_CAPACITY = Integer.MAX_VALUE - 8;
+    private int size;
+    private int[] links;
+    // links中已经使用的长度
+    private int used;
+    private int level;
+    // freeNodes[i]是层数为i + 1的空闲节点链表，用第0层的next串起来
+    private int[] freeNodes = new int[MAX_LEVEL];
+    // 查找时每层向下走的节点，复用避免每次分配
+    private int[] update = new int[MAX_LEVEL];
+    // 找不到KEY时返回的值
+    private long defaultValue;
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/24
+     * @Return:
+     */
+    public static abstract class Visitor {
+        boolean stop;
+
+        protected abstract boolean operate(long key, long value);
+    }
+
+    public LongLongSkipList() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LongLongSkipList(int expectedSize) {
+        this(expectedSize, 0L);
+    }
+
+    public LongLongSkipList(int expectedSize, long defaultValue) {
+        if (expectedSize < 0) {
+            throw new RuntimeException("Expected size must not be negative");
+        }
+        this.defaultValue = defaultValue;
+        long capacity = NEXT + MAX_LEVEL + (long) expectedSize * AVERAGE_NODE_LENGTH;
+        links = new int[(int) Math.min(capacity, MAXIMUM_CAPACITY)];
+        initialize();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 找不到KEY时返回的值
+     * @Date: 2021/3/24
+     * @Return: long
+     */
+    public long defaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空跳表，保留已经分配的数组
+     * @Date: 2021/3/24
+     * @Return: void
+     */
+    public void clear() {
+        Arrays.fill(links, 0, used, 0);
+        Arrays.fill(freeNodes, NIL);
+        size = 0;
+        initialize();
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 放入键值对，返回旧值，不存在时返回默认值
+     * @Date: 2021/3/24
+     * @Return: long
+     */
+    public long put(long key, long value) {
+        int node = findUpdate(key);
+        if (node != NIL && key(node) == key) {
+            long old = value(node);
+            setLong(node + VALUE, value);
+            return old;
+        }
+        int newLevel = randomLevel();
+        for (int i = level; i < newLevel; i++) {
+            update[i] = HEAD;
+        }
+        level = Math.max(level, newLevel);
+        int newNode = allocate(newLevel);
+        setLong(newNode + KEY, key);
+        setLong(newNode + VALUE, value);
+        for (int i = 0; i < newLevel; i++) {
+            links[newNode + NEXT + i] = links[update[i] + NEXT + i];
+            links[update[i] + NEXT + i] = newNode;
+        }
+        size++;
+        return defaultValue;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取值，不存在时返回默认值
+     * @Date: 2021/3/24
+     * @Return: long
+     */
+    public long get(long key) {
+        int node = find(key);
+        return node == NIL ? defaultValue : value(node);
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除键值对，返回旧值，不存在时返回默认值
+     * @Date: 2021/3/24
+     * @Return: long
+     */
+    public long remove(long key) {
+        int node = findUpdate(key);
+        if (node == NIL || key(node) != key) {
+            return defaultValue;
+        }
+        long old = value(node);
+        int nodeLevel = links[node + LEVEL];
+        for (int i = 0; i < nodeLevel; i++) {
+            links[update[i] + NEXT + i] = links[node + NEXT + i];
+        }
+        release(node, nodeLevel);
+        // 更新有效层
+        while (level > 1 && links[HEAD + NEXT + level - 1] == NIL) {
+            level--;
+        }
+        size--;
+        return old;
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按KEY从小到大遍历
+     * @Date: 2021/3/24
+     * @Return: void
+     */
+    public void traversal(Visitor visitor) {
+        if (visitor == null) {
+            return;
+        }
+        for (int node = links[HEAD + NEXT]; node != NIL && !visitor.stop; node = links[node + NEXT]) {
+            visitor.stop = visitor.operate(key(node), value(node));
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: KEY所在的节点，不存在时返回NIL
+     * @Date: 2021/3/24
+     * @Return: int
+     */
+    private int find(long key) {
+        int node = HEAD;
+        for (int i = level - 1; i >= 0; i--) {
+            int next;
+            while ((next = links[node + NEXT + i]) != NIL && key(next) < key) {
+                node = next;
+            }
+        }
+        int next = links[node + NEXT];
+        return next != NIL && key(next) == key ? next : NIL;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 把每层小于key的最后一个节点记录在update中，返回第一个不小于key的节点
+     * @Date: 2021/3/24
+     * @Return: int
+     */
+    private int findUpdate(long key) {
+        int node = HEAD;
+        for (int i = level - 1; i >= 0; i--) {
+            int next;
+            while ((next = links[node + NEXT + i]) != NIL && key(next) < key) {
+                node = next;
+            }
+            update[i] = node;
+        }
+        return links[node + NEXT];
+    }
+
+    /**
+     * @param nodeLevel
+     * @Author: MachineGeek
+     * @Description: 分配层数为nodeLevel的节点，优先复用同层数的空闲节点，否则追加在数组末尾，空间不够时扩容
+     * @Date: 2021/3/24
+     * @Return: int
+     */
+    private int allocate(int nodeLevel) {
+        int node = freeNodes[nodeLevel - 1];
+        if (node != NIL) {
+            freeNodes[nodeLevel - 1] = links[node + NEXT];
+            return node;
+        }
+        int length = NEXT + nodeLevel;
+        if (used + length > links.length) {
+            if (links.length > MAXIMUM_CAPACITY - length) {
+                throw new RuntimeException("Skip list is full");
+            }
+            links = Arrays.copyOf(links, (int) Math.min((long) links.length << 1, MAXIMUM_CAPACITY));
+        }
+        node = used;
+        used += length;
+        links[node + LEVEL] = nodeLevel;
+        return node;
+    }
+
+    /**
+     * @param node
+     * @param nodeLevel
+     * @Author: MachineGeek
+     * @Description: 把节点放入同层数的空闲链表
+     * @Date: 2021/3/24
+     * @Return: void
+     */
+    private void release(int node, int nodeLevel) {
+        for (int i = 1; i < nodeLevel; i++) {
+            links[node + NEXT + i] = NIL;
+        }
+        links[node + NEXT] = freeNodes[nodeLevel - 1];
+        freeNodes[nodeLevel - 1] = node;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 放入最高层数的头节点
+     * @Date: 2021/3/24
+     * @Return: void
+     */
+    private void initialize() {
+        used = NEXT + MAX_LEVEL;
+        links[HEAD + LEVEL] = MAX_LEVEL;
+        level = 1;
+    }
+
+    private long key(int node) {
+        return getLong(node + KEY);
+    }
+
+    private long value(int node) {
+        return getLong(node + VALUE);
+    }
+
+    private long getLong(int index) {
+        return ((long) links[index] << 32) | (links[index + 1] & 0xFFFFFFFFL);
+    }
+
+    private void setLong(int index, long value) {
+        links[index] = (int) (value >>> 32);
+        links[index + 1] = (int) value;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 随机层，每两位随机数都为0时层数加一，即P = 0.25
+     * @Date: 2021/3/24
+     * @Return: int
+     */
+    private int randomLevel() {
+        int random = ThreadLocalRandom.current().nextInt();
+        int n = 1;
+        while ((random & 3) == 0 && n < MAX_LEVEL) {
+            n++;
+            random >>>= 2;
+        }
+        return n;
+    }
+}
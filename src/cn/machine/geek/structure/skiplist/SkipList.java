@@ -1,10 +1,13 @@
 package cn.machine.geek.structure.skiplist;
 
 import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @Author: MachineGeek
  * @Description: 跳表
+ * 每个节点的每一层除了next还记录跨度span，即沿这一层走到next在最底层跨过的节点数，next为空时是到末尾的节点数。
+ * 从上到下查找时累加跨度就得到排名，按排名查找时跨度不超过剩余名次就向右走，两者都是O(logN)。
  * @Email: 794763733@qq.com
  * @Date: 2021/2/28
  */
@@ -20,11 +23,95 @@ public class SkipList<K, V> {
         private K key;
         private V value;
         private Node<K, V>[] nexts;
+        private int[] spans;
 
         public Node(K key, V value, int level) {
             this.key = key;
             this.value = value;
-            this.nexts = new Node[level];
+            this.nexts = newNodes(level);
+            this.spans = new int[level];
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 游标，定位到起点之后只沿最底层向后走，不分配内存，可以重复使用，迭代期间不能修改跳表。
+     * @Date: 2021/3/23
+     * @Return:
+     */
+    public class Cursor {
+        // 第一个元素的前一个节点
+        private Node<K, V> before;
+        // 最多访问的元素个数
+        private int limit;
+        // 有上界时key不能超过to
+        private boolean bounded;
+        private K to;
+        private boolean toInclusive;
+        private Node<K, V> node;
+        private int count;
+        private boolean started;
+
+        private Cursor(Node<K, V> before, int limit, boolean bounded, K to, boolean toInclusive) {
+            this.before = before;
+            this.limit = limit;
+            this.bounded = bounded;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 按KEY的顺序移动到下一个元素，超出范围时返回false。
+         * @Date: 2021/3/23
+         * @Return: boolean
+         */
+        public boolean next() {
+            Node<K, V> temp = started ? (node == null ? null : node.nexts[0]) : before.nexts[0];
+            started = true;
+            if (temp != null && (count >= limit || (bounded && exceeds(temp.key)))) {
+                temp = null;
+            }
+            if (temp != null) {
+                count++;
+            }
+            node = temp;
+            return node != null;
+        }
+
+        public K key() {
+            checkNode();
+            return node.key;
+        }
+
+        public V value() {
+            checkNode();
+            return node.value;
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 回到第一个元素之前
+         * @Date: 2021/3/23
+         * @Return: void
+         */
+        public void reset() {
+            node = null;
+            count = 0;
+            started = false;
+        }
+
+        private boolean exceeds(K key) {
+            int cmp = compare(key, to);
+            return toInclusive ? cmp > 0 : cmp >= 0;
+        }
+
+        private void checkNode() {
+            if (node == null) {
+                throw new RuntimeException("Cursor is not on an element");
+            }
         }
     }
 
@@ -57,12 +144,16 @@ public class SkipList<K, V> {
         checkKey(key);
         Node<K, V> node = first;
         // 用于保存向下走的节点
-        Node<K, V>[] downNode = new Node[validLevel];
+        Node<K, V>[] downNode = newNodes(validL);
+        // downNode[i]的排名，头节点为0
+        int[] ranks = new int[validL];
         // 从最高层开始
         for (int i = validLevel - 1; i >= 0; i--) {
             int cmp = -1;
+            ranks[i] = i == validLevel - 1 ? 0 : ranks[i + 1];
             // 如果next不等于空，并且key大于下一个节点，就去next
             while (node.nexts[i] != null && (cmp = compare(key, node.nexts[i].key)) > 0) {
+                ranks[i] += node.spans[i];
                 node = node.nexts[i];
             }
             // 如果比较结果相等，则覆盖返回
@@ -77,14 +168,22 @@ public class SkipList<K, V> {
         // 如果找不到，则没有这个节点，需要添加
         int newLevel = randomLevel();
         Node<K, V> newNode = new Node<>(key, value, newLevel);
-        // 把新节点的高层链表连接
+        // 新启用的层从头节点直接到末尾
+        for (int i = validLevel; i < newLevel; i++) {
+            downNode[i] = first;
+            first.nexts[i] = null;
+            first.spans[i] = size;
+        }
+        // 把新节点的高层链表连接，新节点的排名是ranks[0] + 1，原来的跨度被它分成两段
         for (int i = 0; i < newLevel; i++) {
-            if (i >= validLevel) {
-                first.nexts[i] = newNode;
-            } else {
-                newNode.nexts[i] = downNode[i].nexts[i];
-                downNode[i].nexts[i] = newNode;
-            }
+            newNode.nexts[i] = downNode[i].nexts[i];
+            downNode[i].nexts[i] = newNode;
+            newNode.spans[i] = downNode[i].spans[i] - (ranks[0] - ranks[i]);
+            downNode[i].spans[i] = ranks[0] - ranks[i] + 1;
+        }
+        // 更高的层跨过了新节点
+        for (int i = newLevel; i < validLevel; i++) {
+            downNode[i].spans[i]++;
         }
         size++;
         validLevel = Math.max(validLevel, newLevel);
@@ -128,7 +227,7 @@ public class SkipList<K, V> {
         checkKey(key);
         Node<K, V> node = first;
         // 用于保存向下走的节点
-        Node<K, V>[] downNode = new Node[validL];
+        Node<K, V>[] downNode = newNodes(validL);
         // 标记是否不存在
         boolean exist = false;
         // 从最高层开始
@@ -151,9 +250,13 @@ public class SkipList<K, V> {
         }
         // 指向被删除的节点
         node = node.nexts[0];
-        // 把新节点的高层链表连接
+        // 把被删除节点的前后连接，跨度合并后少了被删除的节点
         for (int i = 0; i < node.nexts.length; i++) {
             downNode[i].nexts[i] = node.nexts[i];
+            downNode[i].spans[i] += node.spans[i] - 1;
+        }
+        for (int i = node.nexts.length; i < validLevel; i++) {
+            downNode[i].spans[i]--;
         }
         size--;
         // 更新有效层
@@ -164,6 +267,211 @@ public class SkipList<K, V> {
         return node.value;
     }
 
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 最小的key，跳表为空时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K first() {
+        return first.nexts[0] == null ? null : first.nexts[0].key;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 最大的key，从最高层开始尽量向右走，跳表为空时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K last() {
+        Node<K, V> node = first;
+        for (int i = validLevel - 1; i >= 0; i--) {
+            while (node.nexts[i] != null) {
+                node = node.nexts[i];
+            }
+        }
+        return node == first ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 小于等于key的最大key，不存在时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K floor(K key) {
+        Node<K, V> node = lowerNode(key, true);
+        return node == first ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 大于等于key的最小key，不存在时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K ceiling(K key) {
+        Node<K, V> node = lowerNode(key, false).nexts[0];
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 大于key的最小key，不存在时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K higher(K key) {
+        Node<K, V> node = lowerNode(key, true).nexts[0];
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 小于key的最大key，不存在时返回null
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K lower(K key) {
+        Node<K, V> node = lowerNode(key, false);
+        return node == first ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 小于key的元素个数，key存在时就是它从0开始的下标
+     * @Date: 2021/3/23
+     * @Return: int
+     */
+    public int rank(K key) {
+        checkKey(key);
+        Node<K, V> node = first;
+        int rank = 0;
+        for (int i = validLevel - 1; i >= 0; i--) {
+            while (node.nexts[i] != null && compare(node.nexts[i].key, key) < 0) {
+                rank += node.spans[i];
+                node = node.nexts[i];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @param index
+     * @Author: MachineGeek
+     * @Description: 下标为index（从0开始）的key
+     * @Date: 2021/3/23
+     * @Return: K
+     */
+    public K select(int index) {
+        if (index < 0 || index >= size) {
+            throw new RuntimeException("Index out of range");
+        }
+        return nodeAt(index + 1).key;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 遍历所有元素的游标
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList<K,V>.Cursor
+     */
+    public Cursor cursor() {
+        return new Cursor(first, Integer.MAX_VALUE, false, null, false);
+    }
+
+    /**
+     * @param fromIndex
+     * @param toIndex
+     * @Author: MachineGeek
+     * @Description: 下标在[fromIndex, toIndex)中的元素的游标，按跨度定位起点是O(logN)
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList<K,V>.Cursor
+     */
+    public Cursor cursor(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > size) {
+            throw new RuntimeException("Index out of range");
+        }
+        return new Cursor(nodeAt(fromIndex), toIndex - fromIndex, false, null, false);
+    }
+
+    /**
+     * @param from
+     * @param to
+     * @Author: MachineGeek
+     * @Description: key在[from, to)中的元素的游标
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList<K,V>.Cursor
+     */
+    public Cursor subMap(K from, K to) {
+        return subMap(from, true, to, false);
+    }
+
+    /**
+     * @param from
+     * @param fromInclusive
+     * @param to
+     * @param toInclusive
+     * @Author: MachineGeek
+     * @Description: key在from和to之间的元素的游标，两端是否包含由参数决定
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList<K,V>.Cursor
+     */
+    public Cursor subMap(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        checkKey(to);
+        return new Cursor(lowerNode(from, !fromInclusive), Integer.MAX_VALUE, true, to, toInclusive);
+    }
+
+    /**
+     * @param key
+     * @param inclusive
+     * @Author: MachineGeek
+     * @Description: 小于key（inclusive为true时小于等于）的最后一个节点，不存在时返回头节点
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList.Node<K,V>
+     */
+    private Node<K, V> lowerNode(K key, boolean inclusive) {
+        checkKey(key);
+        Node<K, V> node = first;
+        for (int i = validLevel - 1; i >= 0; i--) {
+            while (node.nexts[i] != null) {
+                int cmp = compare(node.nexts[i].key, key);
+                if (cmp > 0 || (cmp == 0 && !inclusive)) {
+                    break;
+                }
+                node = node.nexts[i];
+            }
+        }
+        return node;
+    }
+
+    /**
+     * @param rank
+     * @Author: MachineGeek
+     * @Description: 排名为rank（从1开始）的节点，rank为0时返回头节点
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList.Node<K,V>
+     */
+    private Node<K, V> nodeAt(int rank) {
+        Node<K, V> node = first;
+        int traversed = 0;
+        for (int i = validLevel - 1; i >= 0 && traversed < rank; i--) {
+            while (node.nexts[i] != null && traversed + node.spans[i] <= rank) {
+                traversed += node.spans[i];
+                node = node.nexts[i];
+            }
+        }
+        return node;
+    }
+
     /**
      * @param key
      * @Author: MachineGeek
@@ -186,12 +494,26 @@ public class SkipList<K, V> {
      */
     private int randomLevel() {
         int n = 1;
-        while (Math.random() < P && n < validL) {
+        // Math.random()共享同一个Random，ThreadLocalRandom没有种子竞争也不需要同步
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (random.nextDouble() < P && n < validL) {
             n++;
         }
         return n;
     }
 
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 创建节点数组，泛型数组只能通过强制转换得到
+     * @Date: 2021/3/23
+     * @Return: cn.machine.geek.structure.skiplist.SkipList.Node<K,V>[]
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newNodes(int length) {
+        return (Node<K, V>[]) new Node<?, ?>[length];
+    }
+
     /**
      * @param k1
      * @param k2
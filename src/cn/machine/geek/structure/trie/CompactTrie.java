@@ -0,0 +1,258 @@
+package cn.machine.geek.structure.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 只读的紧凑字典树
+ * 节点按层序编号，同一个节点的孩子编号连续并按字符排序，只用几个数组保存：
+ * 1.labels[i]是节点i的字符，children[i]到children[i + 1]是节点i的孩子编号范围，查找孩子时在这段有序字符上二分。
+ * 2.words是单词节点的位图，blockRanks保存每64位之前的单词数，单词节点的值按层序放在values中，只有单词节点占用值的位置。
+ * 每个节点只占一个char、一个int和一位，没有对象头、装箱的字符和哈希表，同一层的节点在内存中连续。
+ * 由可变的Trie构建，构建后不能修改，遍历的顺序是字典序。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/20
+ */
+public class CompactTrie<V> {
+    private char[] labels;
+    private int[] children;
+    private long[] words;
+    private int[] blockRanks;
+    private Object[] values;
+    private int size;
+
+    public CompactTrie(Trie<V> trie) {
+        if (trie == null) {
+            throw new RuntimeException("Trie must not be null");
+        }
+        final ArrayList<String> keyList = new ArrayList<>();
+        final ArrayList<Object> valueList = new ArrayList<>();
+        trie.traversal(new Trie.Visitor<V>() {
+            @Override
+            protected boolean operate(String key, V value) {
+                keyList.add(key);
+                valueList.add(value);
+                return false;
+            }
+        });
+        size = keyList.size();
+        final String[] keys = keyList.toArray(new String[0]);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return keys[o1].compareTo(keys[o2]);
+            }
+        });
+        String[] sortedKeys = new String[size];
+        Object[] sortedValues = new Object[size];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedValues[i] = valueList.get(order[i]);
+        }
+        build(sortedKeys, sortedValues);
+    }
+
+    /**
+     * @param keys
+     * @param sortedValues
+     * @Author: MachineGeek
+     * @Description: 有序的单词中，每个单词比前一个单词多出的字符数（长度减去公共前缀）就是它新增的节点数，先求出节点总数一次分配好数组。
+     * 再按层序处理节点，每个节点对应有序单词的一个区间，区间内按下一个字符分组得到孩子，长度正好等于深度的单词就是节点本身。
+     * @Date: 2021/3/20
+     * @Return: void
+     */
+    private void build(String[] keys, Object[] sortedValues) {
+        int count = 1;
+        for (int i = 0; i < keys.length; i++) {
+            count += keys[i].length() - (i == 0 ? 0 : commonPrefix(keys[i - 1], keys[i]));
+        }
+        labels = new char[count];
+        children = new int[count + 1];
+        words = new long[(count + 63) >>> 6];
+        blockRanks = new int[words.length + 1];
+        values = new Object[keys.length];
+        // 构建时每个节点对应的单词区间和深度
+        int[] lows = new int[count];
+        int[] highs = new int[count];
+        int[] depths = new int[count];
+        highs[0] = keys.length;
+        int next = 1;
+        int word = 0;
+        for (int node = 0; node < count; node++) {
+            int low = lows[node];
+            int high = highs[node];
+            int depth = depths[node];
+            if (low < high && keys[low].length() == depth) {
+                words[node >>> 6] |= 1L << node;
+                values[word++] = sortedValues[low++];
+            }
+            children[node] = next;
+            while (low < high) {
+                char ch = keys[low].charAt(depth);
+                int end = low + 1;
+                while (end < high && keys[end].charAt(depth) == ch) {
+                    end++;
+                }
+                labels[next] = ch;
+                lows[next] = low;
+                highs[next] = end;
+                depths[next] = depth + 1;
+                next++;
+                low = end;
+            }
+        }
+        children[count] = next;
+        for (int i = 0; i < words.length; i++) {
+            blockRanks[i + 1] = blockRanks[i] + Long.bitCount(words[i]);
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 节点数（包括根节点）
+     * @Date: 2021/3/20
+     * @Return: int
+     */
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        int node = find(key);
+        return node < 0 || !isWord(node) ? null : (V) values[rank(node)];
+    }
+
+    public boolean contains(String key) {
+        int node = find(key);
+        return node >= 0 && isWord(node);
+    }
+
+    /**
+     * @param prefix
+     * @Author: MachineGeek
+     * @Description: 是否有以prefix开头的单词
+     * @Date: 2021/3/20
+     * @Return: boolean
+     */
+    public boolean starsWith(String prefix) {
+        return size > 0 && find(prefix) >= 0;
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按字典序遍历所有单词
+     * @Date: 2021/3/20
+     * @Return: void
+     */
+    public void traversal(Trie.Visitor<V> visitor) {
+        traversal("", visitor);
+    }
+
+    /**
+     * @param prefix
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按字典序遍历以prefix开头的单词
+     * @Date: 2021/3/20
+     * @Return: void
+     */
+    public void traversal(String prefix, Trie.Visitor<V> visitor) {
+        if (prefix == null || visitor == null) {
+            return;
+        }
+        int node = find(prefix);
+        if (node < 0) {
+            return;
+        }
+        traversal(node, new StringBuilder(prefix), visitor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void traversal(int node, StringBuilder key, Trie.Visitor<V> visitor) {
+        if (isWord(node)) {
+            visitor.stop = visitor.operate(key.toString(), (V) values[rank(node)]);
+        }
+        for (int child = children[node]; child < children[node + 1] && !visitor.stop; child++) {
+            key.append(labels[child]);
+            traversal(child, key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: key对应的节点编号，不存在时返回-1
+     * @Date: 2021/3/20
+     * @Return: int
+     */
+    private int find(String key) {
+        if (key == null) {
+            return -1;
+        }
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            int low = children[node];
+            int high = children[node + 1] - 1;
+            node = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = labels[mid];
+                if (label < ch) {
+                    low = mid + 1;
+                } else if (label > ch) {
+                    high = mid - 1;
+                } else {
+                    node = mid;
+                    break;
+                }
+            }
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private boolean isWord(int node) {
+        return (words[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 编号小于node的单词节点数，也就是node的值在values中的下标
+     * @Date: 2021/3/20
+     * @Return: int
+     */
+    private int rank(int node) {
+        return blockRanks[node >>> 6] + Long.bitCount(words[node >>> 6] & ((1L << node) - 1));
+    }
+}
@@ -0,0 +1,655 @@
+package cn.machine.geek.structure.trie;
+
+import java.util.Arrays;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 基数树（路径压缩的字典树，孩子节点按数量自适应，参考ART）
+ * 1.键按字符逐个编码成字节：小于0x80的字符1个字节，小于0x800的2个字节，其它3个字节（和UTF-8相同的规则，但代理字符也单独编码），
+ * 编码可以逆转，字符串的前缀编码后仍然是前缀，字节的顺序和字符的顺序一致。
+ * 2.只有一个孩子的非单词节点和孩子合并，每个节点保存从父节点到它的一段字节span，长链只占一个节点，查找时整段比较。
+ * 3.孩子少时用有序的小数组（Node4、Node16），多时用256个字节的下标表加48个槽位（Node48），再多时直接用256个槽位（Node256），
+ * 增删孩子时自动升级和降级，降级的阈值比升级低，避免在边界上反复转换。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/21
+ */
+public class RadixTree<V> {
+    private static final byte[] EMPTY = new byte[0];
+    private int size;
+    private Node<V> root = new SortedNode<>(EMPTY, 4);
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 节点，孩子以span的第一个字节为键，key是0到255的无符号值。
+     * @Date: 2021/3/21
+     * @Return:
+     */
+    private static abstract class Node<V> {
+        byte[] span;
+        V value;
+        boolean word;
+        int count;
+
+        Node(byte[] span) {
+            this.span = span;
+        }
+
+        abstract Node<V> child(int key);
+
+        /**
+         * @param key
+         * @param child
+         * @Author: MachineGeek
+         * @Description: 增加一个不存在的孩子，放不下时返回升级后的新节点，否则返回自己。
+         * @Date: 2021/3/21
+         * @Return: cn.machine.geek.structure.trie.RadixTree.Node<V>
+         */
+        abstract Node<V> add(int key, Node<V> child);
+
+        abstract void replace(int key, Node<V> child);
+
+        /**
+         * @param key
+         * @Author: MachineGeek
+         * @Description: 删除孩子，孩子太少时返回降级后的新节点，否则返回自己。
+         * @Date: 2021/3/21
+         * @Return: cn.machine.geek.structure.trie.RadixTree.Node<V>
+         */
+        abstract Node<V> remove(int key);
+
+        /**
+         * @param key
+         * @Author: MachineGeek
+         * @Description: 不小于key的最小的孩子键，没有时返回-1
+         * @Date: 2021/3/21
+         * @Return: int
+         */
+        abstract int next(int key);
+
+        <N extends Node<V>> N copyTo(N node) {
+            node.value = value;
+            node.word = word;
+            return node;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: Node4和Node16，键有序存放，结构相同只是容量不同。
+     * @Date: 2021/3/21
+     * @Return:
+     */
+    private static class SortedNode<V> extends Node<V> {
+        private byte[] keys;
+        private Node<V>[] children;
+
+        SortedNode(byte[] span, int capacity) {
+            super(span);
+            keys = new byte[capacity];
+            children = newNodes(capacity);
+        }
+
+        @Override
+        Node<V> child(int key) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node<V> add(int key, Node<V> child) {
+            if (count == keys.length) {
+                Node<V> grown = keys.length == 4 ? copyTo(new SortedNode<V>(span, 16)) : copyTo(new Node48<V>(span));
+                for (int i = 0; i < count; i++) {
+                    grown = grown.add(keys[i] & 0xFF, children[i]);
+                }
+                return grown.add(key, child);
+            }
+            int i = count;
+            while (i > 0 && (keys[i - 1] & 0xFF) > key) {
+                keys[i] = keys[i - 1];
+                children[i] = children[i - 1];
+                i--;
+            }
+            keys[i] = (byte) key;
+            children[i] = child;
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int key, Node<V> child) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) == key) {
+                    children[i] = child;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        Node<V> remove(int key) {
+            int i = 0;
+            while (i < count && (keys[i] & 0xFF) != key) {
+                i++;
+            }
+            if (i == count) {
+                return this;
+            }
+            System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+            System.arraycopy(children, i + 1, children, i, count - i - 1);
+            children[--count] = null;
+            if (keys.length == 16 && count <= 3) {
+                SortedNode<V> shrunk = copyTo(new SortedNode<V>(span, 4));
+                System.arraycopy(keys, 0, shrunk.keys, 0, count);
+                System.arraycopy(children, 0, shrunk.children, 0, count);
+                shrunk.count = count;
+                return shrunk;
+            }
+            return this;
+        }
+
+        @Override
+        int next(int key) {
+            for (int i = 0; i < count; i++) {
+                if ((keys[i] & 0xFF) >= key) {
+                    return keys[i] & 0xFF;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 256个字节的下标表，值为槽位加一，0表示没有这个孩子。
+     * @Date: 2021/3/21
+     * @Return:
+     */
+    private static class Node48<V> extends Node<V> {
+        private byte[] index = new byte[256];
+        private Node<V>[] children = newNodes(48);
+
+        Node48(byte[] span) {
+            super(span);
+        }
+
+        @Override
+        Node<V> child(int key) {
+            int slot = index[key];
+            return slot == 0 ? null : children[slot - 1];
+        }
+
+        @Override
+        Node<V> add(int key, Node<V> child) {
+            if (count == children.length) {
+                Node<V> grown = copyTo(new Node256<V>(span));
+                for (int i = 0; i < 256; i++) {
+                    if (index[i] != 0) {
+                        grown.add(i, children[index[i] - 1]);
+                    }
+                }
+                return grown.add(key, child);
+            }
+            int slot = 0;
+            while (children[slot] != null) {
+                slot++;
+            }
+            children[slot] = child;
+            index[key] = (byte) (slot + 1);
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int key, Node<V> child) {
+            children[index[key] - 1] = child;
+        }
+
+        @Override
+        Node<V> remove(int key) {
+            int slot = index[key];
+            if (slot == 0) {
+                return this;
+            }
+            children[slot - 1] = null;
+            index[key] = 0;
+            count--;
+            if (count <= 12) {
+                Node<V> shrunk = copyTo(new SortedNode<V>(span, 16));
+                for (int i = 0; i < 256; i++) {
+                    if (index[i] != 0) {
+                        shrunk.add(i, children[index[i] - 1]);
+                    }
+                }
+                return shrunk;
+            }
+            return this;
+        }
+
+        @Override
+        int next(int key) {
+            for (int i = key; i < 256; i++) {
+                if (index[i] != 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static class Node256<V> extends Node<V> {
+        private Node<V>[] children = newNodes(256);
+
+        Node256(byte[] span) {
+            super(span);
+        }
+
+        @Override
+        Node<V> child(int key) {
+            return children[key];
+        }
+
+        @Override
+        Node<V> add(int key, Node<V> child) {
+            children[key] = child;
+            count++;
+            return this;
+        }
+
+        @Override
+        void replace(int key, Node<V> child) {
+            children[key] = child;
+        }
+
+        @Override
+        Node<V> remove(int key) {
+            if (children[key] == null) {
+                return this;
+            }
+            children[key] = null;
+            count--;
+            if (count <= 37) {
+                Node<V> shrunk = copyTo(new Node48<V>(span));
+                for (int i = 0; i < 256; i++) {
+                    if (children[i] != null) {
+                        shrunk.add(i, children[i]);
+                    }
+                }
+                return shrunk;
+            }
+            return this;
+        }
+
+        @Override
+        int next(int key) {
+            for (int i = key; i < 256; i++) {
+                if (children[i] != null) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 返回元素长度
+     * @Date: 2021/3/21
+     * @Return: int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 是否为空
+     * @Date: 2021/3/21
+     * @Return: boolean
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param
+     * @Author: MachineGeek
+     * @Description: 清空
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    public void clear() {
+        root = new SortedNode<>(EMPTY, 4);
+        size = 0;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 获取元素
+     * @Date: 2021/3/21
+     * @Return: V
+     */
+    public V get(String key) {
+        Node<V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 是否包含
+     * @Date: 2021/3/21
+     * @Return: boolean
+     */
+    public boolean contains(String key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @Author: MachineGeek
+     * @Description: 增加元素，已经存在时覆盖并返回旧值。
+     * 在某个孩子的span中间失配时把span拆成两段，中间插入一个新节点，新节点下挂原来的孩子和新的叶子。
+     * @Date: 2021/3/21
+     * @Return: V
+     */
+    public V add(String key, V value) {
+        if (key == null || key.length() == 0) {
+            return null;
+        }
+        byte[] bytes = encode(key);
+        Node<V> parent = null;
+        int parentKey = 0;
+        Node<V> node = root;
+        int i = 0;
+        while (i < bytes.length) {
+            int first = bytes[i] & 0xFF;
+            Node<V> child = node.child(first);
+            if (child == null) {
+                attach(parent, parentKey, node, node.add(first, leaf(bytes, i, value)));
+                size++;
+                return null;
+            }
+            int matched = match(child.span, bytes, i);
+            if (matched < child.span.length) {
+                Node<V> middle = new SortedNode<>(Arrays.copyOf(child.span, matched), 4);
+                child.span = Arrays.copyOfRange(child.span, matched, child.span.length);
+                middle.add(child.span[0] & 0xFF, child);
+                if (i + matched == bytes.length) {
+                    middle.word = true;
+                    middle.value = value;
+                } else {
+                    middle.add(bytes[i + matched] & 0xFF, leaf(bytes, i + matched, value));
+                }
+                node.replace(first, middle);
+                size++;
+                return null;
+            }
+            i += matched;
+            parent = node;
+            parentKey = first;
+            node = child;
+        }
+        if (!node.word) {
+            node.word = true;
+            node.value = value;
+            size++;
+            return null;
+        }
+        V old = node.value;
+        node.value = value;
+        return old;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 删除元素。没有孩子的节点直接删除，删除后父节点只剩一个孩子并且不是单词时和孩子合并；
+     * 只有一个孩子的节点不再是单词时和孩子合并，保证除根节点外每个非单词节点至少有两个孩子。
+     * @Date: 2021/3/21
+     * @Return: V
+     */
+    public V remove(String key) {
+        if (key == null || key.length() == 0) {
+            return null;
+        }
+        byte[] bytes = encode(key);
+        Node<V> grandparent = null;
+        int grandparentKey = 0;
+        Node<V> parent = null;
+        int parentKey = 0;
+        Node<V> node = root;
+        int i = 0;
+        while (i < bytes.length) {
+            int first = bytes[i] & 0xFF;
+            Node<V> child = node.child(first);
+            if (child == null || !startsWith(bytes, i, child.span)) {
+                return null;
+            }
+            i += child.span.length;
+            grandparent = parent;
+            grandparentKey = parentKey;
+            parent = node;
+            parentKey = first;
+            node = child;
+        }
+        if (!node.word) {
+            return null;
+        }
+        V old = node.value;
+        node.word = false;
+        node.value = null;
+        size--;
+        if (node.count == 0) {
+            Node<V> shrunk = parent.remove(parentKey);
+            attach(grandparent, grandparentKey, parent, shrunk);
+            if (grandparent != null && !shrunk.word && shrunk.count == 1) {
+                merge(grandparent, grandparentKey, shrunk);
+            }
+        } else if (node.count == 1) {
+            merge(parent, parentKey, node);
+        }
+        return old;
+    }
+
+    /**
+     * @param prefix
+     * @Author: MachineGeek
+     * @Description: 匹配前缀，prefix可以结束在某个节点的span中间。
+     * @Date: 2021/3/21
+     * @Return: boolean
+     */
+    public boolean starsWith(String prefix) {
+        if (prefix == null || size == 0) {
+            return false;
+        }
+        byte[] bytes = encode(prefix);
+        Node<V> node = root;
+        int i = 0;
+        while (i < bytes.length) {
+            Node<V> child = node.child(bytes[i] & 0xFF);
+            if (child == null) {
+                return false;
+            }
+            int matched = match(child.span, bytes, i);
+            if (i + matched == bytes.length) {
+                return true;
+            }
+            if (matched < child.span.length) {
+                return false;
+            }
+            i += matched;
+            node = child;
+        }
+        return true;
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按字典序遍历所有单词
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    public void traversal(Trie.Visitor<V> visitor) {
+        if (visitor == null) {
+            return;
+        }
+        traversal(root, new byte[64], 0, visitor);
+    }
+
+    private byte[] traversal(Node<V> node, byte[] path, int length, Trie.Visitor<V> visitor) {
+        if (length + node.span.length > path.length) {
+            path = Arrays.copyOf(path, Math.max(path.length << 1, length + node.span.length));
+        }
+        System.arraycopy(node.span, 0, path, length, node.span.length);
+        length += node.span.length;
+        if (node.word) {
+            visitor.stop = visitor.operate(decode(path, length), node.value);
+        }
+        for (int key = node.next(0); key >= 0 && !visitor.stop; key = key == 255 ? -1 : node.next(key + 1)) {
+            path = traversal(node.child(key), path, length, visitor);
+        }
+        return path;
+    }
+
+    private Node<V> getNode(String key) {
+        if (key == null || key.length() == 0) {
+            return null;
+        }
+        byte[] bytes = encode(key);
+        Node<V> node = root;
+        int i = 0;
+        while (i < bytes.length) {
+            node = node.child(bytes[i] & 0xFF);
+            if (node == null || !startsWith(bytes, i, node.span)) {
+                return null;
+            }
+            i += node.span.length;
+        }
+        return node.word ? node : null;
+    }
+
+    private Node<V> leaf(byte[] bytes, int from, V value) {
+        Node<V> leaf = new SortedNode<>(Arrays.copyOfRange(bytes, from, bytes.length), 4);
+        leaf.word = true;
+        leaf.value = value;
+        return leaf;
+    }
+
+    /**
+     * @param parent
+     * @param key
+     * @param node
+     * @param replacement
+     * @Author: MachineGeek
+     * @Description: 节点升级或降级后替换父节点中的引用，没有父节点时替换根节点。
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    private void attach(Node<V> parent, int key, Node<V> node, Node<V> replacement) {
+        if (replacement == node) {
+            return;
+        }
+        if (parent == null) {
+            root = replacement;
+        } else {
+            parent.replace(key, replacement);
+        }
+    }
+
+    /**
+     * @param parent
+     * @param key
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 把只有一个孩子的node和孩子合并，孩子的span前面接上node的span后替换node。
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    private void merge(Node<V> parent, int key, Node<V> node) {
+        Node<V> child = node.child(node.next(0));
+        byte[] span = Arrays.copyOf(node.span, node.span.length + child.span.length);
+        System.arraycopy(child.span, 0, span, node.span.length, child.span.length);
+        child.span = span;
+        parent.replace(key, child);
+    }
+
+    /**
+     * @param length
+     * @Author: MachineGeek
+     * @Description: 创建子节点数组，泛型数组只能通过强制转换得到
+     * @Date: 2021/3/21
+     * @Return: cn.machine.geek.structure.trie.RadixTree.Node<V>[]
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newNodes(int length) {
+        return (Node<V>[]) new Node<?>[length];
+    }
+
+    private static int match(byte[] span, byte[] bytes, int from) {
+        int length = Math.min(span.length, bytes.length - from);
+        int i = 0;
+        while (i < length && span[i] == bytes[from + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(byte[] bytes, int from, byte[] span) {
+        return bytes.length - from >= span.length && match(span, bytes, from) == span.length;
+    }
+
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 逐个字符编码成1到3个字节
+     * @Date: 2021/3/21
+     * @Return: byte[]
+     */
+    static byte[] encode(String key) {
+        byte[] bytes = new byte[key.length() * 3];
+        int length = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            if (ch < 0x80) {
+                bytes[length++] = (byte) ch;
+            } else if (ch < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (ch >> 6));
+                bytes[length++] = (byte) (0x80 | (ch & 0x3F));
+            } else {
+                bytes[length++] = (byte) (0xE0 | (ch >> 12));
+                bytes[length++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+        return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+    }
+
+    static String decode(byte[] bytes, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = 0; i < length; ) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                i++;
+            } else if (b < 0xE0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F));
+                i += 2;
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F));
+                i += 3;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+}
@@ -1,7 +1,12 @@
 package cn.machine.geek.structure.trie;
 
+import cn.machine.geek.structure.heap.BinaryHeap;
+import cn.machine.geek.structure.heap.TopK;
 import cn.machine.geek.structure.map.HashMap;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 /**
  * @Author: MachineGeek
  * @Description: 字典树
@@ -22,6 +27,133 @@ public class Trie<V> {
         private V value;
         private boolean word;
         private HashMap<Character, Node<V>> children;
+        // 单词的权重
+        private long weight;
+        // 子树（包括自己）中单词的最大权重，没有单词时为Long.MIN_VALUE
+        private long maxWeight = Long.MIN_VALUE;
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 前缀游标，按需深度优先遍历前缀下的单词，不会一次生成所有结果，遍历期间不能修改字典树。
+     * @Date: 2021/3/21
+     * @Return:
+     */
+    public class Cursor {
+        private int prefixLength;
+        private StringBuilder key;
+        // 还没有访问的起点
+        private Node<V> start;
+        private Node<V> node;
+        // cursors[i]遍历第i + 1层的孩子，depth是栈中游标个数
+        private HashMap<Character, Node<V>>.Cursor[] cursors;
+        private int depth;
+
+        @SuppressWarnings("unchecked")
+        private Cursor(String prefix, Node<V> start) {
+            prefixLength = prefix.length();
+            key = new StringBuilder(prefix);
+            this.start = start;
+            cursors = (HashMap<Character, Node<V>>.Cursor[]) new HashMap<?, ?>.Cursor[8];
+        }
+
+        /**
+         * @param
+         * @Author: MachineGeek
+         * @Description: 移动到下一个单词，没有下一个单词时返回false。
+         * @Date: 2021/3/21
+         * @Return: boolean
+         */
+        public boolean next() {
+            if (start != null) {
+                Node<V> temp = start;
+                start = null;
+                push(temp);
+                if (temp.word) {
+                    node = temp;
+                    return true;
+                }
+            }
+            while (depth > 0) {
+                HashMap<Character, Node<V>>.Cursor cursor = cursors[depth - 1];
+                if (!cursor.next()) {
+                    cursors[--depth] = null;
+                    continue;
+                }
+                key.setLength(prefixLength + depth - 1);
+                key.append(cursor.key().charValue());
+                Node<V> temp = cursor.value();
+                push(temp);
+                // 没有孩子的节点一定是单词
+                if (temp.word) {
+                    node = temp;
+                    return true;
+                }
+            }
+            node = null;
+            return false;
+        }
+
+        public String key() {
+            checkNode();
+            return key.toString();
+        }
+
+        public V value() {
+            checkNode();
+            return node.value;
+        }
+
+        public long weight() {
+            checkNode();
+            return node.weight;
+        }
+
+        private void push(Node<V> temp) {
+            if (temp.children == null || temp.children.isEmpty()) {
+                return;
+            }
+            if (depth == cursors.length) {
+                cursors = Arrays.copyOf(cursors, depth << 1);
+            }
+            cursors[depth++] = temp.children.cursor();
+        }
+
+        private void checkNode() {
+            if (node == null) {
+                throw new RuntimeException("Cursor is not on an element");
+            }
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 按最大权重优先搜索时堆中的元素，word为true时表示单词本身，否则表示还没有展开的子树。
+     * @Date: 2021/3/21
+     * @Return:
+     */
+    private static class Candidate<V> {
+        private Node<V> node;
+        private long weight;
+        private boolean word;
+
+        private Candidate(Node<V> node, long weight, boolean word) {
+            this.node = node;
+            this.weight = weight;
+            this.word = word;
+        }
+    }
+
+    /**
+     * @Author: MachineGeek
+     * @Description: 遍历操作抽象类
+     * @Date: 2021/3/17
+     * @Return:
+     */
+    public static abstract class Visitor<V> {
+        boolean stop;
+
+        protected abstract boolean operate(String key, V value);
     }
 
     /**
@@ -55,6 +187,7 @@ public class Trie<V> {
      */
     public void clear() {
         root.children = null;
+        root.maxWeight = Long.MIN_VALUE;
         size = 0;
     }
 
@@ -90,6 +223,33 @@ public class Trie<V> {
      * @Return: V
      */
     public V add(String key, V value) {
+        return add(key, value, 0, false);
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @param weight
+     * @Author: MachineGeek
+     * @Description: 增加带权重的元素，已经存在时同时更新值和权重，权重用于topK。
+     * @Date: 2021/3/21
+     * @Return: V
+     */
+    public V add(String key, V value, long weight) {
+        return add(key, value, weight, true);
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @param weight
+     * @param replaceWeight
+     * @Author: MachineGeek
+     * @Description: 新单词的权重为weight，已经存在的单词只有replaceWeight为true时才更新权重。
+     * @Date: 2021/3/21
+     * @Return: V
+     */
+    private V add(String key, V value, long weight, boolean replaceWeight) {
         if (key == null || key.length() == 0) {
             return null;
         }
@@ -111,11 +271,22 @@ public class Trie<V> {
         if (!temp.word) {
             temp.word = true;
             temp.value = value;
+            temp.weight = weight;
+            raiseWeight(temp, weight);
             size++;
             return null;
         }
         V old = temp.value;
         temp.value = value;
+        if (replaceWeight && temp.weight != weight) {
+            long oldWeight = temp.weight;
+            temp.weight = weight;
+            if (weight > oldWeight) {
+                raiseWeight(temp, weight);
+            } else {
+                updateWeight(temp);
+            }
+        }
         return old;
     }
 
@@ -127,7 +298,7 @@ public class Trie<V> {
      * @Return: V
      */
     public V remove(String key) {
-        if (key == null || key.length() == 0) {
+        if (key == null || key.length() == 0 || size == 0) {
             return null;
         }
         Node<V> node = getNode(key);
@@ -135,9 +306,12 @@ public class Trie<V> {
             return null;
         }
         V old = node.value;
+        size--;
         if (node.children != null && !node.children.isEmpty()) {
             node.word = false;
             node.value = null;
+            node.weight = 0;
+            updateWeight(node);
             return old;
         }
         while (node.parent != null) {
@@ -147,9 +321,23 @@ public class Trie<V> {
             }
             node = node.parent;
         }
+        // 循环结束时node.parent是剩下的最深的节点
+        updateWeight(node.parent == null ? node : node.parent);
         return old;
     }
 
+    /**
+     * @param key
+     * @Author: MachineGeek
+     * @Description: 单词的权重，不存在时返回0
+     * @Date: 2021/3/21
+     * @Return: long
+     */
+    public long weight(String key) {
+        Node<V> node = getNode(key);
+        return node == null ? 0 : node.weight;
+    }
+
     /**
      * @param prefix
      * @Author: MachineGeek
@@ -159,17 +347,186 @@ public class Trie<V> {
      */
     public boolean starsWith(String prefix) {
         checkRange();
-        Node<V> temp = root;
-        for (int i = 0; i < prefix.length(); i++) {
-            if (temp.children == null) {
-                return false;
+        return findNode(prefix) != null;
+    }
+
+    /**
+     * @param prefix
+     * @Author: MachineGeek
+     * @Description: 以prefix开头的单词的游标，prefix为空字符串时遍历所有单词，顺序和traversal相同。
+     * @Date: 2021/3/21
+     * @Return: cn.machine.geek.structure.trie.Trie<V>.Cursor
+     */
+    public Cursor cursor(String prefix) {
+        if (prefix == null) {
+            throw new RuntimeException("Prefix must not be null");
+        }
+        Node<V> node = size == 0 ? null : findNode(prefix);
+        return new Cursor(prefix, node);
+    }
+
+    /**
+     * @param prefix
+     * @param k
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 按权重从大到小访问以prefix开头的前k个单词。
+     * 每个节点缓存了子树中的最大权重，用大顶堆按这个权重优先展开子树，堆顶是单词时它一定不小于剩下所有子树中的单词，
+     * 可以直接输出，输出k个后停止，权重较小的子树不会被展开。
+     * 堆中每个元素都至少对应一个权重等于它的单词，且互不重复，用TopK记录这些权重中最大的k个，
+     * 不超过第k大权重的子树不可能进入结果，不放入堆中。
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    public void topK(String prefix, int k, Visitor<V> visitor) {
+        if (prefix == null || visitor == null) {
+            throw new RuntimeException("Prefix and visitor must not be null");
+        }
+        if (k <= 0 || size == 0) {
+            return;
+        }
+        Node<V> start = findNode(prefix);
+        if (start == null || start.maxWeight == Long.MIN_VALUE) {
+            return;
+        }
+        BinaryHeap<Candidate<V>> heap = new BinaryHeap<>(new Comparator<Candidate<V>>() {
+            @Override
+            public int compare(Candidate<V> o1, Candidate<V> o2) {
+                int result = Long.compare(o1.weight, o2.weight);
+                // 权重相同时先输出单词
+                return result != 0 ? result : Boolean.compare(o1.word, o2.word);
             }
-            temp = temp.children.get(prefix.charAt(i));
-            if (temp == null) {
-                return false;
+        });
+        heap.add(new Candidate<>(start, start.maxWeight, false));
+        TopK<Long> bound = new TopK<>(k);
+        bound.offer(start.maxWeight);
+        int count = 0;
+        while (!heap.isEmpty() && count < k && !visitor.stop) {
+            Candidate<V> candidate = heap.remove();
+            Node<V> node = candidate.node;
+            if (candidate.word) {
+                visitor.stop = visitor.operate(keyOf(node, start, prefix), node.value);
+                count++;
+                continue;
+            }
+            // 自己或某个孩子继承了node对应的单词，它的权重已经在bound中
+            boolean inherited = false;
+            if (node.word) {
+                inherited = node.weight == candidate.weight;
+                if (inherited || bound.offer(node.weight)) {
+                    heap.add(new Candidate<>(node, node.weight, true));
+                }
+            }
+            if (node.children != null) {
+                HashMap<Character, Node<V>>.Cursor cursor = node.children.cursor();
+                while (cursor.next()) {
+                    Node<V> child = cursor.value();
+                    if (!inherited && child.maxWeight == candidate.weight) {
+                        inherited = true;
+                        heap.add(new Candidate<>(child, child.maxWeight, false));
+                    } else if (bound.offer(child.maxWeight)) {
+                        heap.add(new Candidate<>(child, child.maxWeight, false));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 深度优先遍历所有单词，同一个节点下孩子的顺序由HashMap决定，不保证有序。
+     * @Date: 2021/3/17
+     * @Return: void
+     */
+    public void traversal(Visitor<V> visitor) {
+        if (visitor == null) {
+            return;
+        }
+        traversal(root, new StringBuilder(), visitor);
+    }
+
+    /**
+     * @param node
+     * @param key
+     * @param visitor
+     * @Author: MachineGeek
+     * @Description: 先访问节点本身再访问孩子，key是从根到node的字符，返回前恢复原来的长度。
+     * @Date: 2021/3/17
+     * @Return: void
+     */
+    private void traversal(Node<V> node, StringBuilder key, Visitor<V> visitor) {
+        if (node.word) {
+            visitor.stop = visitor.operate(key.toString(), node.value);
+        }
+        if (node.children == null || visitor.stop) {
+            return;
+        }
+        HashMap<Character, Node<V>>.Cursor cursor = node.children.cursor();
+        while (cursor.next() && !visitor.stop) {
+            key.append(cursor.key().charValue());
+            traversal(cursor.value(), key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * @param node
+     * @param start
+     * @param prefix
+     * @Author: MachineGeek
+     * @Description: 沿父节点从node走到start，从后向前填入prefix之后的字符。
+     * @Date: 2021/3/21
+     * @Return: java.lang.String
+     */
+    private String keyOf(Node<V> node, Node<V> start, String prefix) {
+        int length = prefix.length();
+        for (Node<V> temp = node; temp != start; temp = temp.parent) {
+            length++;
+        }
+        char[] chars = new char[length];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        for (Node<V> temp = node; temp != start; temp = temp.parent) {
+            chars[--length] = temp.character;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param node
+     * @param weight
+     * @Author: MachineGeek
+     * @Description: 权重变大时只需要沿父节点向上更新，遇到不小于weight的祖先就停止。
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    private void raiseWeight(Node<V> node, long weight) {
+        for (Node<V> temp = node; temp != null && temp.maxWeight < weight; temp = temp.parent) {
+            temp.maxWeight = weight;
+        }
+    }
+
+    /**
+     * @param node
+     * @Author: MachineGeek
+     * @Description: 权重变小或者删除单词后，从node开始按自己和孩子重新计算最大权重，某一层没有变化时上面的节点也不会变化。
+     * @Date: 2021/3/21
+     * @Return: void
+     */
+    private void updateWeight(Node<V> node) {
+        for (Node<V> temp = node; temp != null; temp = temp.parent) {
+            long max = temp.word ? temp.weight : Long.MIN_VALUE;
+            if (temp.children != null) {
+                HashMap<Character, Node<V>>.Cursor cursor = temp.children.cursor();
+                while (cursor.next()) {
+                    max = Math.max(max, cursor.value().maxWeight);
+                }
+            }
+            if (max == temp.maxWeight) {
+                return;
             }
+            temp.maxWeight = max;
         }
-        return true;
     }
 
     /**
@@ -194,16 +551,28 @@ public class Trie<V> {
      */
     private Node<V> getNode(String key) {
         checkRange();
+        Node<V> temp = findNode(key);
+        return temp != null && temp.word ? temp : null;
+    }
+
+    /**
+     * @param prefix
+     * @Author: MachineGeek
+     * @Description: prefix对应的节点，不要求是单词
+     * @Date: 2021/3/21
+     * @Return: cn.machine.geek.structure.trie.Trie.Node<V>
+     */
+    private Node<V> findNode(String prefix) {
         Node<V> temp = root;
-        for (int i = 0; i < key.length(); i++) {
+        for (int i = 0; i < prefix.length(); i++) {
             if (temp.children == null) {
                 return null;
             }
-            temp = temp.children.get(key.charAt(i));
+            temp = temp.children.get(prefix.charAt(i));
             if (temp == null) {
                 return null;
             }
         }
-        return temp.word ? temp : null;
+        return temp;
     }
 }
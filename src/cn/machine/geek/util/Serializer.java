@@ -0,0 +1,63 @@
+package cn.machine.geek.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @Author: MachineGeek
+ * @Description: 序列化接口，把元素和字节数组互相转换，供堆外哈希表和外部排序等需要落盘的结构使用。
+ * 整数按大端序编码，字符串按UTF-8编码。
+ * @Email: 794763733@qq.com
+ * @Date: 2021/3/6
+ */
+public interface Serializer<E> {
+    Serializer<String> STRING = new Serializer<String>() {
+        @Override
+        public byte[] serialize(String element) {
+            return element.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    Serializer<Long> LONG = new Serializer<Long>() {
+        @Override
+        public byte[] serialize(Long element) {
+            long value = element;
+            byte[] bytes = new byte[Long.BYTES];
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                bytes[i] = (byte) value;
+                value >>>= 8;
+            }
+            return bytes;
+        }
+
+        @Override
+        public Long deserialize(byte[] bytes) {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+    };
+
+    Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        @Override
+        public byte[] serialize(Integer element) {
+            int value = element;
+            return new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+        }
+
+        @Override
+        public Integer deserialize(byte[] bytes) {
+            return (bytes[0] << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        }
+    };
+
+    byte[] serialize(E element);
+
+    E deserialize(byte[] bytes);
+}